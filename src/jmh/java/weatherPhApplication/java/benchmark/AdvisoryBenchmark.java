@@ -0,0 +1,57 @@
+package weatherPhApplication.java.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.service.AdvisoryEngine;
+import weatherPhApplication.java.service.AdvisoryRules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled advisory tables against the old string-matching chain over
+ * the recorded response corpus. Each invocation advises every response once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AdvisoryBenchmark {
+
+    private List<CurrentWeather> corpus;
+    private AdvisoryEngine engine;
+
+    @Setup
+    public void setUp() throws IOException {
+        corpus = BenchmarkData.currentWeather();
+        try (InputStream in = BenchmarkData.resource("/advisory-rules.json")) {
+            engine = new AdvisoryEngine(BenchmarkData.MAPPER.readValue(in, AdvisoryRules.class));
+        }
+    }
+
+    @Benchmark
+    public void legacyChain(Blackhole blackhole) {
+        for (CurrentWeather weather : corpus) {
+            blackhole.consume(LegacyAdvisory.splitWeatherAndTempAdvisory(weather));
+        }
+    }
+
+    @Benchmark
+    public void compiledTables(Blackhole blackhole) {
+        for (CurrentWeather weather : corpus) {
+            blackhole.consume(engine.advise(weather));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package weatherPhApplication.java.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.Forecast;
+import weatherPhApplication.java.service.FieldProjection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bytes on the wire and time to produce them for the {@code /api/forecast} and
+ * {@code /api/localweather} bodies: the full payload against a {@code fields=}
+ * projection, each sent as is or gzipped. Payload sizes are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ApiPayloadBenchmark {
+
+    private static final String FORECAST_FIELDS = "list.dt,list.main.temp,list.weather.icon,list.weather.description";
+    private static final String CURRENT_FIELDS = "main.temp,main.humidity,weather,name";
+
+    @Param({"full", "projected"})
+    public String payload;
+
+    @Param({"identity", "gzip"})
+    public String encoding;
+
+    private Forecast forecast;
+    private CurrentWeather current;
+    private FieldProjection forecastProjection;
+    private FieldProjection currentProjection;
+
+    @Setup
+    public void setUp() throws IOException {
+        forecast = BenchmarkData.forecast();
+        current = BenchmarkData.currentWeather().get(0);
+        boolean projected = payload.equals("projected");
+        forecastProjection = projected ? FieldProjection.parse(FORECAST_FIELDS) : null;
+        currentProjection = projected ? FieldProjection.parse(CURRENT_FIELDS) : null;
+        System.out.printf("%n%s/%s: forecast %d bytes, current weather %d bytes%n", payload, encoding,
+                forecastBody().length, currentWeatherBody().length);
+    }
+
+    @Benchmark
+    public byte[] forecastBody() throws IOException {
+        return encode(serialize(forecast, forecastProjection));
+    }
+
+    @Benchmark
+    public byte[] currentWeatherBody() throws IOException {
+        return encode(serialize(current, currentProjection));
+    }
+
+    /** What the controller hands to Jackson: the value itself or its projection. */
+    private static byte[] serialize(Object value, FieldProjection projection) throws IOException {
+        Object body = projection == null ? value : projection.applyTo(value);
+        return BenchmarkData.MAPPER.writeValueAsBytes(body);
+    }
+
+    private byte[] encode(byte[] body) throws IOException {
+        if (encoding.equals("identity")) {
+            return body;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,61 @@
+package weatherPhApplication.java.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.Forecast;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the recorded OpenWeatherMap responses bundled under {@code src/jmh/resources/owm}.
+ */
+final class BenchmarkData {
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BenchmarkData() {}
+
+    /** Raw JSON of each recorded current-weather response. */
+    static List<String> currentWeatherJson() {
+        try (InputStream in = resource("/owm/current-weather-corpus.json")) {
+            List<String> documents = new ArrayList<>();
+            for (JsonNode node : MAPPER.readTree(in)) {
+                documents.add(MAPPER.writeValueAsString(node));
+            }
+            return documents;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<CurrentWeather> currentWeather() {
+        try (InputStream in = resource("/owm/current-weather-corpus.json")) {
+            return MAPPER.readValue(in, new TypeReference<List<CurrentWeather>>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** A recorded 5 day / 3 hour forecast for Manila. */
+    static Forecast forecast() {
+        try (InputStream in = resource("/owm/forecast.json")) {
+            return MAPPER.readValue(in, Forecast.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static InputStream resource(String path) {
+        InputStream in = BenchmarkData.class.getResourceAsStream(path);
+        if (in == null) {
+            throw new IllegalStateException("Missing benchmark resource " + path);
+        }
+        return in;
+    }
+}
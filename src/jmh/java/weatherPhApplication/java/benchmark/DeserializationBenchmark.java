@@ -0,0 +1,80 @@
+package weatherPhApplication.java.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.Forecast;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing OpenWeatherMap responses into the generic {@code Map} form the service used
+ * to pass around against binding them to the typed model. Each invocation of the
+ * current-weather benchmarks parses the whole recorded corpus once; the forecast
+ * benchmarks parse the recorded Manila forecast.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DeserializationBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {};
+
+    // Configured like the application's mapper, which ignores fields the model leaves out
+    private final ObjectMapper mapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private List<byte[]> currentWeather;
+    private byte[] forecast;
+
+    @Setup
+    public void setUp() throws IOException {
+        currentWeather = BenchmarkData.currentWeatherJson().stream()
+                .map(json -> json.getBytes(StandardCharsets.UTF_8))
+                .toList();
+        try (InputStream in = BenchmarkData.resource("/owm/forecast.json")) {
+            forecast = in.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public void currentWeatherAsMap(Blackhole blackhole) throws IOException {
+        for (byte[] json : currentWeather) {
+            blackhole.consume(mapper.readValue(json, MAP));
+        }
+    }
+
+    @Benchmark
+    public void currentWeatherTyped(Blackhole blackhole) throws IOException {
+        for (byte[] json : currentWeather) {
+            blackhole.consume(mapper.readValue(json, CurrentWeather.class));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> forecastAsMap() throws IOException {
+        return mapper.readValue(forecast, MAP);
+    }
+
+    @Benchmark
+    public Forecast forecastTyped() throws IOException {
+        return mapper.readValue(forecast, Forecast.class);
+    }
+}
@@ -0,0 +1,82 @@
+package weatherPhApplication.java.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.service.LocalTimeFormatter;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sunrise and sunset formatting as done for every {@code /route} response: the
+ * shared {@link LocalTimeFormatter} against the per-call {@code SimpleDateFormat} it
+ * replaced. Each invocation formats both times of every response in the recorded
+ * corpus. Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FormattedTimeBenchmark {
+
+    private final LocalTimeFormatter formatter = new LocalTimeFormatter();
+    private List<CurrentWeather> corpus;
+
+    @Setup
+    public void setUp() {
+        corpus = BenchmarkData.currentWeather();
+    }
+
+    @Benchmark
+    public void simpleDateFormat(Blackhole blackhole) {
+        for (CurrentWeather weather : corpus) {
+            blackhole.consume(getFormattedTime(weather, true));
+            blackhole.consume(getFormattedTime(weather, false));
+        }
+    }
+
+    @Benchmark
+    public void localTimeFormatter(Blackhole blackhole) {
+        for (CurrentWeather weather : corpus) {
+            blackhole.consume(formatter.clockTime(weather.sys().sunrise(), weather.timezone()));
+            blackhole.consume(formatter.clockTime(weather.sys().sunset(), weather.timezone()));
+        }
+    }
+
+    /** {@code RouteController.getFormattedTime} before {@link LocalTimeFormatter}, kept verbatim as the baseline. */
+    static String getFormattedTime(CurrentWeather weatherData, boolean sunrise) {
+        if (weatherData == null || weatherData.sys() == null || weatherData.timezone() == null) {
+            return "--:--";
+        }
+        try {
+            Long timestampNum = sunrise ? weatherData.sys().sunrise() : weatherData.sys().sunset();
+            if (timestampNum == null) {
+                return "--:--";
+            }
+
+            long timestamp = timestampNum;
+            long timezone = weatherData.timezone();
+
+            Date date = new Date((timestamp + timezone) * 1000L);
+            SimpleDateFormat sdf = new SimpleDateFormat("h:mm a");
+            sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+            return sdf.format(date);
+        } catch (Exception e) {
+            return "--:--";
+        }
+    }
+}
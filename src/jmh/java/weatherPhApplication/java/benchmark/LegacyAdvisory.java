@@ -0,0 +1,78 @@
+package weatherPhApplication.java.benchmark;
+
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.WeatherCondition;
+
+import java.util.Map;
+
+/**
+ * The advisory if/else chain that RouteController used before {@code AdvisoryEngine},
+ * kept verbatim as the benchmark baseline.
+ */
+final class LegacyAdvisory {
+
+    private LegacyAdvisory() {}
+
+    static Map<String, String> splitWeatherAndTempAdvisory(CurrentWeather weather) {
+        String weatherAdvice = "Weather data is currently unavailable.";
+        String tempAdvice = ""; 
+
+        if (weather == null || weather.hasError()) {
+            return Map.of("weather", weatherAdvice, "temp", tempAdvice);
+        }
+
+        String mainCond = "", description = "";
+        WeatherCondition condition = weather.primaryCondition();
+        if (condition != null) {
+            mainCond = condition.main() != null ? condition.main().toLowerCase() : "";
+            description = condition.description() != null ? condition.description().toLowerCase() : "";
+        }
+        double temp = Double.NaN;
+        if (weather.main() != null && weather.main().temp() != null) {
+            temp = weather.main().temp();
+        }
+
+        if (description.equals("overcast clouds")) {
+            weatherAdvice = "☁️ Overcast Skies: Visibility may be reduced. Ensure your vehicle's headlights are on for safety.";
+        } else if (description.equals("broken clouds")) {
+            weatherAdvice = "🌥️ Partly Cloudy: Expect intermittent sun. Conditions are generally excellent for travel.";
+        } else if (description.equals("scattered clouds")) {
+            weatherAdvice = "⛅ Scattered Clouds: Mostly clear with good visibility. Travel conditions are ideal.";
+        } else if (description.equals("few clouds")) {
+            weatherAdvice = "🌤️ Mostly Sunny: Excellent visibility and road conditions expected. A great day for travel.";
+        } else if (description.contains("light rain")) {
+            weatherAdvice = "🌦️ Light Rain Advisory: Roads may be slick. Activate wipers and increase your following distance.";
+        } else if (description.contains("moderate rain")) {
+            weatherAdvice = "🌧️ Moderate Rain Warning: Reduce speed significantly and use headlights. Be alert for localized flooding.";
+        } else if (description.contains("heavy intensity rain") || description.contains("very heavy rain")) {
+            weatherAdvice = "🌧️ Heavy Rain Warning: High risk of flash floods and zero visibility. It is strongly advised to postpone travel.";
+        } else if (description.contains("clear sky")) {
+            weatherAdvice = "🌞 Clear Skies: Ideal travel conditions. Stay aware of road traffic and hydrate, especially during long drives.";
+        } else if (mainCond.contains("thunderstorm")) {
+            weatherAdvice = "⛈️ Thunderstorm Warning: Severe weather is active. High risk of lightning, flash floods, and strong winds. Do not travel.";
+        } else if (mainCond.contains("snow")) {
+            weatherAdvice = "❄️ Snow/Sleet Advisory: Roads will be extremely slippery and visibility poor. Travel is not recommended unless essential.";
+        } else if (mainCond.contains("fog") || description.contains("fog") || mainCond.contains("mist")) {
+            weatherAdvice = "🌫️ Low Visibility Warning: Dense fog or mist is present. Use low-beam headlights and fog lights, and reduce speed drastically.";
+        } else if (mainCond.contains("wind")) {
+            weatherAdvice = "💨 High Wind Advisory: Be cautious, especially with high-profile vehicles. Watch for falling debris and be prepared for sudden gusts.";
+        }
+        
+        if (!Double.isNaN(temp)) {
+            if (temp >= 37.0) {
+                tempAdvice = "🌡️ Danger - Extreme Heat: Heatstroke risk is high. Avoid non-essential travel and stay hydrated. Never leave people or pets in a vehicle.";
+            } else if (temp >= 34.0) {
+                tempAdvice = "☀️ Heat Caution: Risk of heat exhaustion. Drink plenty of water, wear light clothing, and take breaks in the shade.";
+            } else if (temp >= 28.0) {
+                tempAdvice = "🌤️ Warm Weather: Conditions are pleasant. Ensure you have drinking water available for your journey.";
+            } else if (temp >= 24.0) {
+                tempAdvice = "😊 Pleasant Weather: Ideal temperature for travel. Enjoy the trip safely.";
+            } else if (temp >= 20.0) {
+                tempAdvice = "🌡️ Mild Temperature: Comfortable conditions for any travel plans.";
+            } else if (temp <= 12.0) {
+                tempAdvice = "🧥 Cool Conditions: Temperatures are low. A jacket is recommended, particularly for night travel or trips to higher elevations.";
+            }
+        }
+        return Map.of("weather", weatherAdvice, "temp", tempAdvice);
+    }
+}
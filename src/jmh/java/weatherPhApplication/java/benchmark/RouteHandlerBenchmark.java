@@ -0,0 +1,154 @@
+package weatherPhApplication.java.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import weatherPhApplication.java.WeatherPhApplication;
+import weatherPhApplication.java.model.User;
+import weatherPhApplication.java.security.CustomUserDetails;
+import weatherPhApplication.java.stub.UpstreamStub;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * The whole {@code POST /route} request, from the security filters to the rendered
+ * page, with the application booted against an in-memory H2 database and
+ * {@link UpstreamStub} in place of OpenWeatherMap. With {@code weather=cached} every
+ * lookup is a cache hit; with {@code uncached} each invocation asks for cells not
+ * seen before, so both ends and every route sample go to the stub.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RouteHandlerBenchmark {
+
+    // Manila to Batangas City, encoded as the browser sends it
+    private static final double[][] ROUTE = {
+            {14.5995, 120.9842}, {14.4081, 121.0415}, {14.2691, 121.1252}, {14.0996, 121.1517}, {13.7565, 121.0583}
+    };
+
+    @Param({"cached", "uncached"})
+    public String weather;
+
+    private UpstreamStub upstream;
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private CustomUserDetails principal;
+    private String polyline;
+    private int invocation;
+
+    @Setup
+    public void setUp() throws IOException {
+        upstream = UpstreamStub.start(0, UpstreamStub.Faults.NONE);
+        // Devtools would otherwise restart the application in a new class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(WeatherPhApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(
+                        "--server.port=0",
+                        "--management.server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--app.openweather.base-url=" + upstream.baseUrl(),
+                        "--app.openweather.key=benchmark",
+                        "--app.openweather.rate-limit.enabled=false",
+                        "--app.warmer.enabled=false",
+                        "--app.mapbox.key=benchmark",
+                        "--brevo.api.url=" + upstream.brevoUrl(),
+                        "--brevo.api.key=benchmark",
+                        "--brevo.sender.email=benchmark@example.com",
+                        "--brevo.sender.name=benchmark",
+                        "--logging.level.root=WARN"
+                );
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).apply(springSecurity()).build();
+
+        User user = new User();
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        user.setEmail("benchmark@example.com");
+        user.setPassword("unused");
+        user.setEnabled(true);
+        principal = new CustomUserDetails(user);
+        polyline = encode(ROUTE, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        upstream.close();
+    }
+
+    @Benchmark
+    public MvcResult route() throws Exception {
+        double shift = 0;
+        String routePolyline = polyline;
+        if (weather.equals("uncached")) {
+            // Move the whole route by a few cells so every lookup is a miss
+            shift = ++invocation * 0.03;
+            routePolyline = encode(ROUTE, shift);
+        }
+        double[] origin = ROUTE[0];
+        double[] destination = ROUTE[ROUTE.length - 1];
+        return mockMvc.perform(post("/route")
+                        .with(user(principal))
+                        .with(csrf())
+                        .param("origin", "Manila")
+                        .param("destination", "Batangas City")
+                        .param("origin_lat", String.valueOf(origin[0] + shift))
+                        .param("origin_lon", String.valueOf(origin[1]))
+                        .param("destination_lat", String.valueOf(destination[0] + shift))
+                        .param("destination_lon", String.valueOf(destination[1]))
+                        .param("route_polyline", routePolyline))
+                .andReturn();
+    }
+
+    /** Google's encoded polyline format, the inverse of {@code RouteSampler.decodePolyline}. */
+    private static String encode(double[][] points, double latShift) {
+        StringBuilder encoded = new StringBuilder();
+        long previousLat = 0;
+        long previousLon = 0;
+        for (double[] point : points) {
+            long lat = Math.round((point[0] + latShift) * 1e5);
+            long lon = Math.round(point[1] * 1e5);
+            encodeValue(lat - previousLat, encoded);
+            encodeValue(lon - previousLon, encoded);
+            previousLat = lat;
+            previousLon = lon;
+        }
+        return encoded.toString();
+    }
+
+    private static void encodeValue(long value, StringBuilder encoded) {
+        long v = value < 0 ? ~(value << 1) : value << 1;
+        while (v >= 0x20) {
+            encoded.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        encoded.append((char) (v + 63));
+    }
+}
@@ -0,0 +1,70 @@
+package weatherPhApplication.java.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and statuses of one kind of request (e.g. {@code GET /api/forecast}).
+ * Each virtual user records into its own instance; they are merged for the report.
+ */
+final class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long failures;
+    private final Map<Integer, Long> statuses = new TreeMap<>();
+
+    void record(long latencyNanos, int status, boolean success) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        statuses.merge(status, 1L, Long::sum);
+        if (!success) {
+            failures++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        if (count + other.count > latencies.length) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+        }
+        System.arraycopy(other.latencies, 0, latencies, count, other.count);
+        count += other.count;
+        failures += other.failures;
+        other.statuses.forEach((status, n) -> statuses.merge(status, n, Long::sum));
+    }
+
+    /** Summary for the JSON report; latencies in milliseconds. */
+    Map<String, Object> summary(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", count);
+        summary.put("failures", failures);
+        summary.put("throughputPerSecond", round(count / seconds));
+        summary.put("statuses", statuses);
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", round(count == 0 ? 0 : Arrays.stream(sorted).average().orElse(0) / 1e6));
+        latency.put("p50", percentile(sorted, 0.50));
+        latency.put("p95", percentile(sorted, 0.95));
+        latency.put("p99", percentile(sorted, 0.99));
+        latency.put("max", count == 0 ? 0 : round(sorted[count - 1] / 1e6));
+        summary.put("latencyMs", latency);
+        return summary;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return round(sorted[Math.max(0, index)] / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,216 @@
+package weatherPhApplication.java.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import weatherPhApplication.java.WeatherPhApplication;
+import weatherPhApplication.java.stub.Options;
+import weatherPhApplication.java.stub.UpstreamStub;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the load scenarios one after another against the application and writes
+ * per-request throughput and latency percentiles as JSON.
+ * <p>
+ * By default the application is booted in this JVM against an in-memory H2 database
+ * and an {@link UpstreamStub}, with the per-client and OpenWeatherMap rate limits off
+ * so they do not cap a single load generator. Pass {@code target} and
+ * {@code stub} to load an application that is already running, pointed at a stub
+ * started on its own.
+ * <p>
+ * Options (all {@code name=value}):
+ * <ul>
+ *   <li>{@code scenarios}: comma-separated, default {@code localweather,forecast,route,register}</li>
+ *   <li>{@code users}: concurrent virtual users, default 20</li>
+ *   <li>{@code duration}: per scenario, default 30s</li>
+ *   <li>{@code cells}: distinct coordinates requested, default 200; fewer means more cache hits</li>
+ *   <li>{@code latency}, {@code jitter}, {@code error-rate}, {@code error-status}: upstream faults of the embedded stub</li>
+ *   <li>{@code result}: report file, default {@code target/loadtest-result.json}</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = Options.parse(args);
+        List<Scenario> scenarios = Arrays.stream(options.getOrDefault("scenarios", "localweather,forecast,route,register").split(","))
+                .map(name -> Scenario.valueOf(name.trim().toUpperCase()))
+                .toList();
+        int users = Integer.parseInt(options.getOrDefault("users", "20"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+        int cells = Integer.parseInt(options.getOrDefault("cells", "200"));
+        File result = new File(options.getOrDefault("result", "target/loadtest-result.json"));
+
+        UpstreamStub stub = null;
+        ConfigurableApplicationContext application = null;
+        URI target;
+        URI stubUri;
+        if (options.containsKey("target")) {
+            target = URI.create(options.get("target"));
+            stubUri = URI.create(options.getOrDefault("stub", "http://127.0.0.1:18099"));
+        } else {
+            stub = UpstreamStub.start(0, UpstreamStub.Faults.parse(options));
+            application = startApplication(stub);
+            target = URI.create("http://127.0.0.1:" + ((WebServerApplicationContext) application).getWebServer().getPort());
+            stubUri = URI.create(stub.baseUrl());
+        }
+
+        try {
+            Scenario.Context context = new Scenario.Context(Long.toString(System.currentTimeMillis(), 36),
+                    philippinePoints(cells), stubUri, HttpClient.newHttpClient(), new AtomicInteger());
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("startedAt", Instant.now().toString());
+            report.put("target", target.toString());
+            report.put("users", users);
+            report.put("durationSeconds", duration.toSeconds());
+            report.put("cells", cells);
+            if (stub != null) {
+                report.put("upstreamFaults", stub.faults());
+            }
+            Map<String, Object> results = new LinkedHashMap<>();
+            for (Scenario scenario : scenarios) {
+                System.out.printf("Running %s with %d users for %s%n", scenario.name().toLowerCase(), users, duration);
+                Map<String, Object> scenarioResult = run(scenario, context, target, users, duration);
+                results.put(scenario.name().toLowerCase(), scenarioResult);
+                print(scenarioResult);
+            }
+            report.put("scenarios", results);
+            if (stub != null) {
+                report.put("upstreamRequests", stub.requestCounts());
+            }
+            File directory = result.getAbsoluteFile().getParentFile();
+            if (directory != null) {
+                directory.mkdirs();
+            }
+            new ObjectMapper()
+                    .findAndRegisterModules()
+                    .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(result, report);
+            System.out.println("Load test report written to " + result);
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    private static Map<String, Object> run(Scenario scenario, Scenario.Context context, URI target, int users, Duration duration)
+            throws Exception {
+        List<VirtualUser> virtualUsers = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            virtualUsers.add(new VirtualUser(i, target));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        try {
+            List<Future<?>> setUps = new ArrayList<>();
+            for (VirtualUser user : virtualUsers) {
+                setUps.add(executor.submit(() -> {
+                    scenario.setUp(user, context);
+                    return null;
+                }));
+            }
+            for (Future<?> setUp : setUps) {
+                setUp.get();
+            }
+
+            long start = System.nanoTime();
+            long deadline = start + duration.toNanos();
+            List<Future<?>> loops = new ArrayList<>();
+            for (VirtualUser user : virtualUsers) {
+                loops.add(executor.submit(() -> {
+                    user.startRecording();
+                    while (System.nanoTime() < deadline) {
+                        scenario.iterate(user, context);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> loop : loops) {
+                loop.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Map<String, LatencyRecorder> merged = new TreeMap<>();
+            for (VirtualUser user : virtualUsers) {
+                user.recorders().forEach((name, recorder) -> merged.computeIfAbsent(name, key -> new LatencyRecorder()).merge(recorder));
+            }
+            Map<String, Object> summary = new LinkedHashMap<>();
+            merged.forEach((name, recorder) -> summary.put(name, recorder.summary(seconds)));
+            return summary;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(UpstreamStub stub) {
+        // Devtools would otherwise restart the application in a new class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(WeatherPhApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(
+                        "--server.port=0",
+                        "--management.server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--app.openweather.base-url=" + stub.baseUrl(),
+                        "--app.openweather.key=loadtest",
+                        "--app.openweather.rate-limit.enabled=false",
+                        "--app.api.rate-limit.enabled=false",
+                        "--app.warmer.enabled=false",
+                        "--app.mapbox.key=loadtest",
+                        "--brevo.api.url=" + stub.brevoUrl(),
+                        "--brevo.api.key=loadtest",
+                        "--brevo.sender.email=loadtest@example.com",
+                        "--brevo.sender.name=loadtest",
+                        "--logging.level.root=WARN"
+                );
+    }
+
+    /** Fixed pseudo-random coordinates over the Philippines, the same for every run. */
+    private static List<double[]> philippinePoints(int count) {
+        Random random = new Random(42);
+        List<double[]> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new double[]{5.0 + random.nextDouble() * 14.0, 117.0 + random.nextDouble() * 9.0});
+        }
+        return points;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> scenarioResult) {
+        scenarioResult.forEach((name, value) -> {
+            Map<String, Object> summary = (Map<String, Object>) value;
+            Map<String, Object> latency = (Map<String, Object>) summary.get("latencyMs");
+            System.out.printf("  %-28s %7s req %6s failed %9s req/s   p50 %7s ms  p95 %7s ms  p99 %7s ms%n",
+                    name, summary.get("requests"), summary.get("failures"), summary.get("throughputPerSecond"),
+                    latency.get("p50"), latency.get("p95"), latency.get("p99"));
+        });
+    }
+}
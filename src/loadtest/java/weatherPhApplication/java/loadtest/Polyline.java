@@ -0,0 +1,35 @@
+package weatherPhApplication.java.loadtest;
+
+import java.util.List;
+
+/**
+ * Google's encoded polyline format, as the route page sends the Mapbox route geometry.
+ */
+final class Polyline {
+
+    private Polyline() {}
+
+    static String encode(List<double[]> points) {
+        StringBuilder encoded = new StringBuilder();
+        long previousLat = 0;
+        long previousLon = 0;
+        for (double[] point : points) {
+            long lat = Math.round(point[0] * 1e5);
+            long lon = Math.round(point[1] * 1e5);
+            encodeValue(lat - previousLat, encoded);
+            encodeValue(lon - previousLon, encoded);
+            previousLat = lat;
+            previousLon = lon;
+        }
+        return encoded.toString();
+    }
+
+    private static void encodeValue(long value, StringBuilder encoded) {
+        long v = value < 0 ? ~(value << 1) : value << 1;
+        while (v >= 0x20) {
+            encoded.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        encoded.append((char) (v + 63));
+    }
+}
@@ -0,0 +1,133 @@
+package weatherPhApplication.java.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What each virtual user does in a loop. Scenarios that need a signed-in user create
+ * and verify an account in {@link #setUp}, reading the verification email from the
+ * upstream stub, before their requests start being recorded.
+ */
+enum Scenario {
+
+    LOCALWEATHER {
+        @Override
+        void iterate(VirtualUser user, Context context) throws IOException, InterruptedException {
+            double[] point = context.randomPoint(user);
+            user.get(String.format(Locale.ROOT, "/api/localweather?lat=%.4f&lon=%.4f", point[0], point[1]), 200);
+        }
+    },
+
+    FORECAST {
+        @Override
+        void iterate(VirtualUser user, Context context) throws IOException, InterruptedException {
+            double[] point = context.randomPoint(user);
+            user.get(String.format(Locale.ROOT, "/api/forecast?lat=%.4f&lon=%.4f", point[0], point[1]), 200);
+        }
+    },
+
+    ROUTE {
+        @Override
+        void setUp(VirtualUser user, Context context) throws IOException, InterruptedException {
+            String email = context.email(user);
+            register(user, email);
+            String link = context.awaitVerificationLink(email);
+            URI verify = URI.create(link);
+            user.get(verify.getRawPath() + "?" + verify.getRawQuery(), 302);
+            user.getForm("/login");
+            HttpResponse<String> login = user.postForm("/login", Map.of("username", email, "password", PASSWORD), 302);
+            if (login.headers().firstValue("Location").orElse("").contains("error")) {
+                throw new IllegalStateException("Could not sign in as " + email);
+            }
+            user.getForm("/route-advisory");
+        }
+
+        @Override
+        void iterate(VirtualUser user, Context context) throws IOException, InterruptedException {
+            double[] origin = context.randomPoint(user);
+            double[] destination = context.randomPoint(user);
+            double[] midpoint = {(origin[0] + destination[0]) / 2, (origin[1] + destination[1]) / 2};
+            user.postForm("/route", Map.of(
+                    "origin", "Origin " + user.id,
+                    "destination", "Destination " + user.id,
+                    "origin_lat", String.valueOf(origin[0]),
+                    "origin_lon", String.valueOf(origin[1]),
+                    "destination_lat", String.valueOf(destination[0]),
+                    "destination_lon", String.valueOf(destination[1]),
+                    "route_polyline", Polyline.encode(List.of(origin, midpoint, destination))), 200);
+        }
+    },
+
+    REGISTER {
+        @Override
+        void iterate(VirtualUser user, Context context) throws IOException, InterruptedException {
+            register(user, context.email(user));
+        }
+    };
+
+    static final String PASSWORD = "load-test-password";
+
+    void setUp(VirtualUser user, Context context) throws IOException, InterruptedException {
+    }
+
+    abstract void iterate(VirtualUser user, Context context) throws IOException, InterruptedException;
+
+    static void register(VirtualUser user, String email) throws IOException, InterruptedException {
+        user.getForm("/register");
+        user.postForm("/register", Map.of(
+                "firstName", "Load",
+                "lastName", "Test",
+                "email", email,
+                "password", PASSWORD), 302);
+    }
+
+    /**
+     * Shared by all virtual users of a run: the coordinates they pick from, where to
+     * read sent emails and how many accounts have been registered.
+     */
+    record Context(String runId, List<double[]> points, URI stub, HttpClient client, AtomicInteger accounts) {
+
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+        private static final Pattern VERIFY_LINK = Pattern.compile("https?://[^\\s\"<]+/verify-email\\?token=[\\w-]+");
+
+        double[] randomPoint(VirtualUser user) {
+            return points.get(user.random.nextInt(points.size()));
+        }
+
+        String email(VirtualUser user) {
+            return "loadtest-" + runId + "-" + accounts.incrementAndGet() + "@example.com";
+        }
+
+        String awaitVerificationLink(String email) throws IOException, InterruptedException {
+            long deadline = System.nanoTime() + 60_000_000_000L;
+            while (System.nanoTime() < deadline) {
+                HttpResponse<String> response = client.send(HttpRequest.newBuilder(stub.resolve("/__stub/emails?to=" + URLEncoder.encode(email, StandardCharsets.UTF_8))).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                for (JsonNode sent : MAPPER.readTree(response.body())) {
+                    if (sent.path("to").asText().equalsIgnoreCase(email)) {
+                        Matcher link = VERIFY_LINK.matcher(sent.path("htmlContent").asText());
+                        if (link.find()) {
+                            return link.group();
+                        }
+                    }
+                }
+                Thread.sleep(250);
+            }
+            throw new IllegalStateException("No verification email for " + email + " reached the stub at " + stub);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package weatherPhApplication.java.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One simulated browser: its own cookie jar (and so its own session), the CSRF token
+ * of the last form it loaded, and a recorder per kind of request it makes. Redirects
+ * are not followed, so each recorded latency is a single request.
+ */
+final class VirtualUser {
+
+    private static final Pattern CSRF_INPUT = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    final int id;
+    final Random random;
+    private final URI target;
+    private final HttpClient client;
+    private final Map<String, LatencyRecorder> recorders = new HashMap<>();
+    private boolean recording;
+    private String csrfToken;
+
+    VirtualUser(int id, URI target) {
+        this.id = id;
+        this.random = new Random(id);
+        this.target = target;
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /** Requests made before this, such as signing in, are not recorded. */
+    void startRecording() {
+        recording = true;
+    }
+
+    Map<String, LatencyRecorder> recorders() {
+        return recorders;
+    }
+
+    HttpResponse<String> get(String path, int expectedStatus) throws IOException, InterruptedException {
+        return send("GET " + name(path), HttpRequest.newBuilder(target.resolve(path)).GET(), expectedStatus);
+    }
+
+    /** Loads a page and remembers the CSRF token of its form. */
+    HttpResponse<String> getForm(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = get(path, 200);
+        Matcher matcher = CSRF_INPUT.matcher(response.body());
+        if (matcher.find()) {
+            csrfToken = matcher.group(1);
+        }
+        return response;
+    }
+
+    /** Posts a form, with the CSRF token of the last form loaded. */
+    HttpResponse<String> postForm(String path, Map<String, String> fields, int expectedStatus) throws IOException, InterruptedException {
+        StringJoiner body = new StringJoiner("&");
+        fields.forEach((name, value) -> body.add(encode(name) + "=" + encode(value)));
+        if (csrfToken != null) {
+            body.add("_csrf=" + encode(csrfToken));
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(target.resolve(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        return send("POST " + name(path), request, expectedStatus);
+    }
+
+    private HttpResponse<String> send(String name, HttpRequest.Builder request, int expectedStatus) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+        long latency = System.nanoTime() - start;
+        if (recording) {
+            recorders.computeIfAbsent(name, key -> new LatencyRecorder()).record(latency, response.statusCode(), response.statusCode() == expectedStatus);
+        }
+        return response;
+    }
+
+    private static String name(String path) {
+        int query = path.indexOf('?');
+        return query < 0 ? path : path.substring(0, query);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,26 @@
+package weatherPhApplication.java.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Compresses {@code /api} responses (see {@link ApiCompressionFilter}).
+ */
+@Configuration
+public class ApiCompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<ApiCompressionFilter> apiCompressionFilter(
+            @Value("${app.api.compression.enabled:true}") boolean enabled,
+            @Value("${app.api.compression.min-response-size:1KB}") DataSize minResponseSize) {
+        FilterRegistrationBean<ApiCompressionFilter> registration =
+                new FilterRegistrationBean<>(new ApiCompressionFilter((int) minResponseSize.toBytes()));
+        registration.addUrlPatterns("/api/*");
+        registration.setEnabled(enabled);
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+}
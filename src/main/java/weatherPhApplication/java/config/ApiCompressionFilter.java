@@ -0,0 +1,158 @@
+package weatherPhApplication.java.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips JSON responses for clients that accept it. Tomcat's own compression skips
+ * responses with a strong ETag, which all cacheable weather responses have, so the
+ * compressed body gets its own strong ETag instead: the original tag with
+ * {@code -gzip} appended. The suffix is removed from {@code If-None-Match} again
+ * before the request reaches the controller, so revalidation still yields 304.
+ */
+public class ApiCompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP_SUFFIX = "-gzip\"";
+
+    private final int minResponseSize;
+
+    public ApiCompressionFilter(int minResponseSize) {
+        this.minResponseSize = minResponseSize;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Event streams must reach the client as they are written, not buffered
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)
+                || request.getRequestURI().startsWith(request.getContextPath() + "/api/stream/");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Async handlers write their body on the async dispatch
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!acceptsGzip(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        HttpServletRequest requestToUse = WebUtils.getNativeRequest(request, GzipETagRequest.class) != null
+                ? request : new GzipETagRequest(request);
+        HttpServletResponse responseToUse = response;
+        if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper)) {
+            responseToUse = new ContentCachingResponseWrapper(response);
+        }
+        chain.doFilter(requestToUse, responseToUse);
+        if (!isAsyncStarted(requestToUse)) {
+            ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(responseToUse, ContentCachingResponseWrapper.class);
+            if (wrapper != null) {
+                finish(request, wrapper);
+            }
+        }
+    }
+
+    private void finish(HttpServletRequest request, ContentCachingResponseWrapper wrapper) throws IOException {
+        HttpServletResponse raw = (HttpServletResponse) wrapper.getResponse();
+        int status = wrapper.getStatus();
+        if (status == HttpServletResponse.SC_NOT_MODIFIED) {
+            // Echo the tag of the variant the client revalidated
+            GzipETagRequest wrapped = WebUtils.getNativeRequest(request, GzipETagRequest.class);
+            HttpServletRequest original = wrapped != null ? (HttpServletRequest) wrapped.getRequest() : request;
+            String ifNoneMatch = original.getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null && ifNoneMatch.contains(GZIP_SUFFIX)) {
+                tagAsGzip(raw);
+            }
+        } else if (status == HttpServletResponse.SC_OK
+                && wrapper.getContentSize() >= minResponseSize
+                && isJson(wrapper.getContentType())
+                && !raw.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            byte[] compressed = gzip(wrapper.getContentAsByteArray());
+            wrapper.resetBuffer();
+            tagAsGzip(raw);
+            raw.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            raw.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            raw.setContentLength(compressed.length);
+            raw.getOutputStream().write(compressed);
+            return;
+        }
+        if (!raw.containsHeader(HttpHeaders.VARY)) {
+            raw.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static void tagAsGzip(HttpServletResponse response) {
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (etag != null && etag.startsWith("\"") && !etag.endsWith(GZIP_SUFFIX)) {
+            response.setHeader(HttpHeaders.ETAG, etag.substring(0, etag.length() - 1) + GZIP_SUFFIX);
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static boolean isJson(String contentType) {
+        return contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Presents {@code If-None-Match} tags of compressed responses as the plain tags
+     * the controllers compute.
+     */
+    private static final class GzipETagRequest extends HttpServletRequestWrapper {
+
+        GzipETagRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String value = super.getHeader(name);
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) && value != null ? strip(value) : value;
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            Enumeration<String> values = super.getHeaders(name);
+            if (!HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) || values == null) {
+                return values;
+            }
+            List<String> stripped = Collections.list(values).stream().map(GzipETagRequest::strip).toList();
+            return Collections.enumeration(stripped);
+        }
+
+        private static String strip(String value) {
+            return value.replace(GZIP_SUFFIX, "\"");
+        }
+    }
+}
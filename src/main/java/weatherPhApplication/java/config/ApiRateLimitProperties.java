@@ -0,0 +1,43 @@
+package weatherPhApplication.java.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-client request limits for the {@code /api} endpoints, keyed by request path.
+ * Paths without an entry share the default limit.
+ *
+ * @param enabled      whether requests are limited at all
+ * @param defaultLimit limit for {@code /api} paths not listed in {@code endpoints}
+ * @param endpoints    limits for individual paths, e.g. {@code /api/localweather}
+ * @param stripes      number of independently locked partitions of the client table
+ * @param maxClients   clients tracked at once; idle clients are dropped beyond this
+ */
+@ConfigurationProperties(prefix = "app.api.rate-limit")
+public record ApiRateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue Limit defaultLimit,
+        Map<String, Limit> endpoints,
+        @DefaultValue("64") int stripes,
+        @DefaultValue("10000") int maxClients) {
+
+    public ApiRateLimitProperties {
+        endpoints = endpoints == null ? Map.of() : Map.copyOf(endpoints);
+    }
+
+    public Limit forPath(String path) {
+        return endpoints.getOrDefault(path, defaultLimit);
+    }
+
+    /**
+     * @param requests requests a client may make per period, all at once if it likes
+     * @param period   time for a client's full allowance to refill
+     */
+    public record Limit(
+            @DefaultValue("60") int requests,
+            @DefaultValue("1m") Duration period) {
+    }
+}
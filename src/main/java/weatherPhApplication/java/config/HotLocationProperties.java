@@ -0,0 +1,33 @@
+package weatherPhApplication.java.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Locations whose weather and forecast are kept warm in memory.
+ *
+ * @param enabled        whether the warmer runs at all
+ * @param locations      the hot locations
+ * @param interval       time between refresh passes
+ * @param batchSize      locations refreshed concurrently in one batch
+ * @param batchPause     pause between batches, to spread upstream calls out
+ * @param startupTimeout how long startup waits for the first pass before reporting ready anyway
+ */
+@ConfigurationProperties(prefix = "app.warmer")
+public record HotLocationProperties(
+        @DefaultValue("true") boolean enabled,
+        List<Location> locations,
+        @DefaultValue("5m") Duration interval,
+        @DefaultValue("4") int batchSize,
+        @DefaultValue("1s") Duration batchPause,
+        @DefaultValue("30s") Duration startupTimeout) {
+
+    public HotLocationProperties {
+        locations = locations == null ? List.of() : List.copyOf(locations);
+    }
+
+    public record Location(String name, double lat, double lon) {}
+}
@@ -0,0 +1,123 @@
+package weatherPhApplication.java.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * One pooled HTTP client for every upstream call. Connections are kept alive and
+ * reused across requests, so calls to OpenWeatherMap and Brevo skip the TCP and
+ * TLS handshake once the pool is warm. The non-blocking API mode gets an async
+ * client with its own pool, built from the same limits, timeouts and keep-alive
+ * policy and reported under the same pool metrics.
+ */
+@Configuration
+@EnableConfigurationProperties(UpstreamHttpProperties.class)
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager upstreamConnectionManager(UpstreamHttpProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.maxTotal())
+                .setMaxConnPerRoute(properties.maxPerRoute())
+                .setDefaultConnectionConfig(connectionConfig(properties))
+                .build();
+        applyHostLimits(connectionManager, properties);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient upstreamHttpClient(PoolingHttpClientConnectionManager upstreamConnectionManager,
+                                                  UpstreamHttpProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(upstreamConnectionManager)
+                .setDefaultRequestConfig(requestConfig(properties))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.idleEviction()))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient upstreamHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(upstreamHttpClient));
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingAsyncClientConnectionManager upstreamAsyncConnectionManager(UpstreamHttpProperties properties) {
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.maxTotal())
+                .setMaxConnPerRoute(properties.maxPerRoute())
+                .setDefaultConnectionConfig(connectionConfig(properties))
+                .build();
+        applyHostLimits(connectionManager, properties);
+        return connectionManager;
+    }
+
+    /**
+     * Non-blocking client for the asynchronous API mode. Responses are handled on
+     * its I/O threads, so no thread is held per call while waiting.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient upstreamAsyncHttpClient(PoolingAsyncClientConnectionManager upstreamAsyncConnectionManager,
+                                                            UpstreamHttpProperties properties) {
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(upstreamAsyncConnectionManager)
+                .setDefaultRequestConfig(requestConfig(properties))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.idleEviction()))
+                .build();
+        client.start();
+        return client;
+    }
+
+    @Bean
+    public MeterBinder upstreamConnectionPoolMetrics(PoolingHttpClientConnectionManager upstreamConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(upstreamConnectionManager, "upstream");
+    }
+
+    @Bean
+    public MeterBinder upstreamAsyncConnectionPoolMetrics(PoolingAsyncClientConnectionManager upstreamAsyncConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(upstreamAsyncConnectionManager, "upstream-async");
+    }
+
+    private static ConnectionConfig connectionConfig(UpstreamHttpProperties properties) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(properties.connectTimeout()))
+                .setSocketTimeout(Timeout.of(properties.readTimeout()))
+                .setTimeToLive(TimeValue.of(properties.connectionTimeToLive()))
+                .build();
+    }
+
+    private static RequestConfig requestConfig(UpstreamHttpProperties properties) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.connectTimeout()))
+                .setResponseTimeout(Timeout.of(properties.readTimeout()))
+                .build();
+    }
+
+    private static void applyHostLimits(ConnPoolControl<HttpRoute> pool, UpstreamHttpProperties properties) {
+        for (var hostLimit : properties.maxPerHost().entrySet()) {
+            HttpHost host = new HttpHost("https", hostLimit.getKey(), 443);
+            pool.setMaxPerRoute(new HttpRoute(host, null, true), hostLimit.getValue());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package weatherPhApplication.java.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import weatherPhApplication.java.service.UpstreamGuard;
+
+/**
+ * One {@link UpstreamGuard} per upstream, so a failing mail provider cannot trip the
+ * weather breaker or use up its bulkhead, and the other way round.
+ */
+@Configuration
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ResilienceConfig {
+
+    @Bean
+    public UpstreamGuard openWeatherGuard(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        return new UpstreamGuard("openweather", properties.forUpstream("openweather"), meterRegistry);
+    }
+
+    @Bean
+    public UpstreamGuard brevoGuard(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        return new UpstreamGuard("brevo", properties.forUpstream("brevo"), meterRegistry);
+    }
+}
@@ -0,0 +1,42 @@
+package weatherPhApplication.java.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Circuit breaker and bulkhead settings per upstream, keyed by upstream name
+ * ({@code openweather}, {@code brevo}). Upstreams without an entry use the defaults.
+ */
+@ConfigurationProperties(prefix = "app.resilience")
+public record ResilienceProperties(Map<String, Upstream> upstream) {
+
+    public ResilienceProperties {
+        upstream = upstream == null ? Map.of() : Map.copyOf(upstream);
+    }
+
+    public Upstream forUpstream(String name) {
+        return upstream.getOrDefault(name, Upstream.DEFAULTS);
+    }
+
+    /**
+     * @param windowSize           number of most recent calls the failure rate is computed over
+     * @param minimumCalls         calls needed in the window before the breaker may open
+     * @param failureRateThreshold failure percentage at which the breaker opens
+     * @param openDuration         how long the breaker stays open before letting trial calls through
+     * @param halfOpenCalls        trial calls that must all succeed to close the breaker again
+     * @param maxConcurrentCalls   bulkhead size: calls allowed in flight at once
+     */
+    public record Upstream(
+            @DefaultValue("20") int windowSize,
+            @DefaultValue("10") int minimumCalls,
+            @DefaultValue("50") int failureRateThreshold,
+            @DefaultValue("30s") Duration openDuration,
+            @DefaultValue("3") int halfOpenCalls,
+            @DefaultValue("50") int maxConcurrentCalls) {
+
+        static final Upstream DEFAULTS = new Upstream(20, 10, 50, Duration.ofSeconds(30), 3, 50);
+    }
+}
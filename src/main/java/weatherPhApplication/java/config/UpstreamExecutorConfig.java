@@ -0,0 +1,63 @@
+package weatherPhApplication.java.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Bounded pool used to fan out upstream lookups (e.g. origin and destination
+ * weather) so a request waits for the slowest call instead of the sum of all calls.
+ * When the pool and its queue are full, new tasks are rejected rather than
+ * piling up behind a slow upstream.
+ */
+@Configuration
+public class UpstreamExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor upstreamExecutor(
+            @Value("${app.upstream.executor.pool-size:32}") int poolSize,
+            @Value("${app.upstream.executor.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("upstream-");
+        return executor;
+    }
+
+    /**
+     * Small pool that drains the outbound email queue, kept apart from the weather
+     * pool so a slow mail provider cannot starve weather lookups.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor emailExecutor(
+            @Value("${app.email.executor.pool-size:2}") int poolSize,
+            @Value("${app.email.executor.queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("email-");
+        return executor;
+    }
+
+    /**
+     * Pushes refreshed weather to live-update subscribers, so a cell with many
+     * subscribers does not hold up the thread that fetched the weather.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor streamExecutor(
+            @Value("${app.stream.executor.pool-size:4}") int poolSize,
+            @Value("${app.stream.executor.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("stream-");
+        return executor;
+    }
+}
@@ -0,0 +1,33 @@
+package weatherPhApplication.java.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Connection pool and timeout settings for the shared upstream HTTP client.
+ *
+ * @param maxTotal            maximum pooled connections across all hosts
+ * @param maxPerRoute         default maximum pooled connections per host
+ * @param maxPerHost          per-host overrides of {@code maxPerRoute}, keyed by HTTPS host name
+ * @param connectTimeout      TCP/TLS connect timeout
+ * @param readTimeout         socket read timeout
+ * @param connectionTimeToLive how long a pooled connection may be reused before it is closed
+ * @param idleEviction        idle time after which pooled connections are closed
+ */
+@ConfigurationProperties(prefix = "app.http")
+public record UpstreamHttpProperties(
+        @DefaultValue("100") int maxTotal,
+        @DefaultValue("20") int maxPerRoute,
+        Map<String, Integer> maxPerHost,
+        @DefaultValue("3s") Duration connectTimeout,
+        @DefaultValue("5s") Duration readTimeout,
+        @DefaultValue("5m") Duration connectionTimeToLive,
+        @DefaultValue("30s") Duration idleEviction) {
+
+    public UpstreamHttpProperties {
+        maxPerHost = maxPerHost == null ? Map.of() : Map.copyOf(maxPerHost);
+    }
+}
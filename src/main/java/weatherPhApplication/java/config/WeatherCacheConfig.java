@@ -0,0 +1,43 @@
+package weatherPhApplication.java.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.Forecast;
+import weatherPhApplication.java.model.ForecastSummary;
+import weatherPhApplication.java.service.WeatherCache;
+
+import java.time.Duration;
+
+@Configuration
+public class WeatherCacheConfig {
+
+    @Bean
+    public WeatherCache<CurrentWeather> currentWeatherCache(
+            @Value("${app.weather.cache.current.max-entries:5000}") int maxEntries,
+            @Value("${app.weather.cache.current.max-stale-seconds:0}") long maxStaleSeconds,
+            @Value("${app.weather.cache.current.stale-if-error-seconds:0}") long staleIfErrorSeconds,
+            MeterRegistry meterRegistry) {
+        return new WeatherCache<>("weather.current", maxEntries,
+                Duration.ofSeconds(maxStaleSeconds), Duration.ofSeconds(staleIfErrorSeconds), meterRegistry);
+    }
+
+    @Bean
+    public WeatherCache<Forecast> forecastCache(
+            @Value("${app.weather.cache.forecast.max-entries:2000}") int maxEntries,
+            @Value("${app.weather.cache.forecast.max-stale-seconds:1800}") long maxStaleSeconds,
+            @Value("${app.weather.cache.forecast.stale-if-error-seconds:0}") long staleIfErrorSeconds,
+            MeterRegistry meterRegistry) {
+        return new WeatherCache<>("weather.forecast", maxEntries,
+                Duration.ofSeconds(maxStaleSeconds), Duration.ofSeconds(staleIfErrorSeconds), meterRegistry);
+    }
+
+    @Bean
+    public WeatherCache<ForecastSummary> forecastSummaryCache(
+            @Value("${app.weather.cache.forecast.max-entries:2000}") int maxEntries,
+            MeterRegistry meterRegistry) {
+        return new WeatherCache<>("weather.forecast.summary", maxEntries, meterRegistry);
+    }
+}
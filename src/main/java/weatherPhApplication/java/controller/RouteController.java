@@ -1,7 +1,16 @@
 package weatherPhApplication.java.controller;
 
+import weatherPhApplication.java.model.Advisory;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.GeocodingResult;
+import weatherPhApplication.java.model.RouteSegmentHazard;
 import weatherPhApplication.java.model.RouteWeatherResponse;
+import weatherPhApplication.java.model.WeatherCondition;
 import weatherPhApplication.java.security.CustomUserDetails;
+import weatherPhApplication.java.service.AdvisoryEngine;
+import weatherPhApplication.java.service.LocalTimeFormatter;
+import weatherPhApplication.java.service.RouteSampler;
+import weatherPhApplication.java.service.UpstreamPriority;
 import weatherPhApplication.java.service.WeatherService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,8 +22,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Controller
 public class RouteController {
@@ -25,6 +38,33 @@ public class RouteController {
     @Value("${app.mapbox.key}")
     private String mapboxApiKey;
 
+    @Autowired
+    private RouteSampler routeSampler;
+
+    @Autowired
+    private AdvisoryEngine advisoryEngine;
+
+    @Autowired
+    private LocalTimeFormatter timeFormatter;
+
+    @Value("${app.route.deadline:4s}")
+    private Duration routeDeadline;
+
+    @Value("${app.route.sample-interval-km:25}")
+    private double sampleIntervalKm;
+
+    @Value("${app.route.max-waypoints:10}")
+    private int maxWaypoints;
+
+    @Value("${app.route.waypoint-concurrency:4}")
+    private int waypointConcurrency;
+
+    @Value("${app.route.max-polyline-points:5000}")
+    private int maxPolylinePoints;
+
+    @Value("${app.weather.cache.cell-size-degrees:0.01}")
+    private double cellSizeDegrees;
+
     // Helper method to add user details to the model
     private void addUserDetailsToModel(Model model, CustomUserDetails userDetails) {
         if (userDetails != null) {
@@ -55,14 +95,35 @@ public class RouteController {
             @RequestParam(value = "origin_lon", required = false) Double originLon,
             @RequestParam(value = "destination_lat", required = false) Double destinationLat,
             @RequestParam(value = "destination_lon", required = false) Double destinationLon,
+            @RequestParam(value = "route_polyline", required = false) String routePolyline,
             Model model,
             @AuthenticationPrincipal CustomUserDetails userDetails,
             RedirectAttributes redirectAttributes) {
 
-        if (origin.isEmpty() || destination.isEmpty() || originLat == null || originLon == null || destinationLat == null || destinationLon == null) {
+        if (origin.isBlank() || destination.isBlank()) {
              redirectAttributes.addFlashAttribute("formError", "Please select a valid origin and destination from the search suggestions.");
             return "redirect:/route-advisory";
         }
+
+        // Names typed without picking a suggestion come without coordinates
+        if (originLat == null || originLon == null) {
+            GeocodingResult place = geocode(origin);
+            if (place == null) {
+                redirectAttributes.addFlashAttribute("formError", "We could not find \"" + origin + "\". Please select it from the search suggestions.");
+                return "redirect:/route-advisory";
+            }
+            originLat = place.lat();
+            originLon = place.lon();
+        }
+        if (destinationLat == null || destinationLon == null) {
+            GeocodingResult place = geocode(destination);
+            if (place == null) {
+                redirectAttributes.addFlashAttribute("formError", "We could not find \"" + destination + "\". Please select it from the search suggestions.");
+                return "redirect:/route-advisory";
+            }
+            destinationLat = place.lat();
+            destinationLon = place.lon();
+        }
         
         addUserDetailsToModel(model, userDetails);
         model.addAttribute("currentPage", "route-advisory");
@@ -72,137 +133,123 @@ public class RouteController {
         response.setOrigin(origin);
         response.setDestination(destination);
 
-        Map<String, Object> originWeatherRaw = weatherService.getWeather(originLat, originLon);
-        Map<String, Object> destWeatherRaw = weatherService.getWeather(destinationLat, destinationLon);
-        
-        // Use mutable maps and override the name with the more specific one from Mapbox
-        Map<String, Object> originWeather = new HashMap<>(originWeatherRaw);
-        if (!originWeather.containsKey("error")) {
-            originWeather.put("name", origin);
+        // Start both ends and every waypoint before waiting on any, under one shared deadline
+        long deadline = System.nanoTime() + routeDeadline.toNanos();
+        CompletableFuture<CurrentWeather> originFuture = weatherService.getWeatherAsync(originLat, originLon, UpstreamPriority.ROUTE);
+        CompletableFuture<CurrentWeather> destFuture = weatherService.getWeatherAsync(destinationLat, destinationLon, UpstreamPriority.ROUTE);
+        List<RouteSampler.Sample> samples = sampleRoute(routePolyline);
+        List<CompletableFuture<CurrentWeather>> waypointFutures = weatherService.getWeatherForPoints(
+                samples.stream().map(RouteSampler.Sample::point).toList(), waypointConcurrency, UpstreamPriority.ROUTE);
+        CurrentWeather originWeather = awaitWeather(originFuture, deadline, origin);
+        CurrentWeather destWeather = awaitWeather(destFuture, deadline, destination);
+        response.setSegmentHazards(routeHazards(samples, waypointFutures, deadline));
+
+        // Override the name with the more specific one from Mapbox
+        if (!originWeather.hasError()) {
+            originWeather = originWeather.withName(origin);
         }
-
-        Map<String, Object> destWeather = new HashMap<>(destWeatherRaw);
-        if (!destWeather.containsKey("error")) {
-            destWeather.put("name", destination);
+        if (!destWeather.hasError()) {
+            destWeather = destWeather.withName(destination);
         }
 
         response.setOriginWeather(originWeather);
         response.setDestinationWeather(destWeather);
 
-        Map<String, String> originAdvisories = splitWeatherAndTempAdvisory(originWeather);
-        Map<String, String> destAdvisories   = splitWeatherAndTempAdvisory(destWeather);
+        Advisory originAdvisories = advisoryEngine.advise(originWeather);
+        Advisory destAdvisories   = advisoryEngine.advise(destWeather);
 
         model.addAttribute("response", response);
         model.addAttribute("formError", null);
-        model.addAttribute("originHazard", originAdvisories.get("weather"));
-        model.addAttribute("originTravelHazard", originAdvisories.get("temp"));
-        model.addAttribute("destinationHazard", destAdvisories.get("weather"));
-        model.addAttribute("destinationTravelHazard", destAdvisories.get("temp"));
-
-        model.addAttribute("originSunrise", getFormattedTime(originWeather, "sunrise"));
-        model.addAttribute("originSunset", getFormattedTime(originWeather, "sunset"));
-        model.addAttribute("destSunrise", getFormattedTime(destWeather, "sunrise"));
-        model.addAttribute("destSunset", getFormattedTime(destWeather, "sunset"));
+        model.addAttribute("originHazard", originAdvisories.weather());
+        model.addAttribute("originTravelHazard", originAdvisories.temperature());
+        model.addAttribute("destinationHazard", destAdvisories.weather());
+        model.addAttribute("destinationTravelHazard", destAdvisories.temperature());
+
+        model.addAttribute("originSunrise", getFormattedTime(originWeather, true));
+        model.addAttribute("originSunset", getFormattedTime(originWeather, false));
+        model.addAttribute("destSunrise", getFormattedTime(destWeather, true));
+        model.addAttribute("destSunset", getFormattedTime(destWeather, false));
         
         return "route-advisory";
     }
 
-    private String getFormattedTime(Map<String, Object> weatherData, String timeKey) {
-        if (weatherData == null || weatherData.get("sys") == null || weatherData.get("timezone") == null) {
-            return "--:--";
-        }
+    /**
+     * Resolves a place name from the local index, or the remote geocoder if the index
+     * does not know it. Null if neither can place it or the geocoder is unavailable.
+     */
+    private GeocodingResult geocode(String location) {
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> sys = (Map<String, Object>) weatherData.get("sys");
-            Number timestampNum = (Number) sys.get(timeKey);
-            Number timezoneNum = (Number) weatherData.get("timezone");
-
-            if (timestampNum == null || timezoneNum == null) {
-                return "--:--";
-            }
-
-            long timestamp = timestampNum.longValue();
-            long timezone = timezoneNum.longValue();
-
-            Date date = new Date((timestamp + timezone) * 1000L);
-            SimpleDateFormat sdf = new SimpleDateFormat("h:mm a");
-            sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-            
-            return sdf.format(date);
-        } catch (Exception e) {
-            return "--:--";
+            return weatherService.geocode(location);
+        } catch (RuntimeException e) {
+            return null;
         }
     }
 
-
-    private Map<String, String> splitWeatherAndTempAdvisory(Map<String, Object> weather) {
-        String weatherAdvice = "Weather data is currently unavailable.";
-        String tempAdvice = ""; 
-
-        if (weather == null || weather.containsKey("error")) {
-            return Map.of("weather", weatherAdvice, "temp", tempAdvice);
+    /**
+     * Samples the route geometry drawn by the browser. A missing, malformed or
+     * oversized polyline just means no waypoints; the endpoints are still shown.
+     */
+    private List<RouteSampler.Sample> sampleRoute(String routePolyline) {
+        if (routePolyline == null || routePolyline.isBlank()) {
+            return List.of();
         }
-
-        String mainCond = "", description = "";
-        if (weather.get("weather") instanceof List) {
-            List<?> weatherList = (List<?>) weather.get("weather");
-            if (!weatherList.isEmpty() && weatherList.get(0) instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> weatherMain = (Map<String, Object>) weatherList.get(0);
-                mainCond = weatherMain.get("main") != null ? weatherMain.get("main").toString().toLowerCase() : "";
-                description = weatherMain.get("description") != null ? weatherMain.get("description").toString().toLowerCase() : "";
-            }
+        try {
+            return routeSampler.sample(routeSampler.decodePolyline(routePolyline, maxPolylinePoints),
+                    sampleIntervalKm, cellSizeDegrees, maxWaypoints);
+        } catch (IllegalArgumentException e) {
+            return List.of();
         }
-        double temp = Double.NaN;
-        if (weather.containsKey("main") && weather.get("main") instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> main = (Map<String, Object>) weather.get("main");
-            if (main.get("temp") instanceof Number) {
-                temp = ((Number) main.get("temp")).doubleValue();
+    }
+
+    /**
+     * Turns the waypoint lookups into hazards. Samples that miss the deadline are
+     * kept but marked unavailable so the page still shows where along the route they are.
+     */
+    private List<RouteSegmentHazard> routeHazards(List<RouteSampler.Sample> samples,
+                                                  List<CompletableFuture<CurrentWeather>> futures, long deadline) {
+        List<RouteSegmentHazard> hazards = new ArrayList<>(samples.size());
+        for (int i = 0; i < samples.size(); i++) {
+            RouteSampler.Sample sample = samples.get(i);
+            RouteSegmentHazard hazard = new RouteSegmentHazard(sample.distanceKm(), sample.point().lat(), sample.point().lon());
+            CurrentWeather weather = awaitWeather(futures.get(i), deadline, "this point");
+            Advisory advisories = advisoryEngine.advise(weather);
+            hazard.setAvailable(!weather.hasError());
+            hazard.setWeatherHazard(advisories.weather());
+            hazard.setTempHazard(advisories.temperature());
+            if (hazard.isAvailable()) {
+                hazard.setLocationName(weather.name());
+                WeatherCondition condition = weather.primaryCondition();
+                hazard.setDescription(condition != null ? condition.description() : null);
+                hazard.setTemperature(weather.main() != null ? weather.main().temp() : null);
             }
+            hazards.add(hazard);
         }
+        return hazards;
+    }
 
-        if (description.equals("overcast clouds")) {
-            weatherAdvice = "☁️ Overcast Skies: Visibility may be reduced. Ensure your vehicle's headlights are on for safety.";
-        } else if (description.equals("broken clouds")) {
-            weatherAdvice = "🌥️ Partly Cloudy: Expect intermittent sun. Conditions are generally excellent for travel.";
-        } else if (description.equals("scattered clouds")) {
-            weatherAdvice = "⛅ Scattered Clouds: Mostly clear with good visibility. Travel conditions are ideal.";
-        } else if (description.equals("few clouds")) {
-            weatherAdvice = "🌤️ Mostly Sunny: Excellent visibility and road conditions expected. A great day for travel.";
-        } else if (description.contains("light rain")) {
-            weatherAdvice = "🌦️ Light Rain Advisory: Roads may be slick. Activate wipers and increase your following distance.";
-        } else if (description.contains("moderate rain")) {
-            weatherAdvice = "🌧️ Moderate Rain Warning: Reduce speed significantly and use headlights. Be alert for localized flooding.";
-        } else if (description.contains("heavy intensity rain") || description.contains("very heavy rain")) {
-            weatherAdvice = "🌧️ Heavy Rain Warning: High risk of flash floods and zero visibility. It is strongly advised to postpone travel.";
-        } else if (description.contains("clear sky")) {
-            weatherAdvice = "🌞 Clear Skies: Ideal travel conditions. Stay aware of road traffic and hydrate, especially during long drives.";
-        } else if (mainCond.contains("thunderstorm")) {
-            weatherAdvice = "⛈️ Thunderstorm Warning: Severe weather is active. High risk of lightning, flash floods, and strong winds. Do not travel.";
-        } else if (mainCond.contains("snow")) {
-            weatherAdvice = "❄️ Snow/Sleet Advisory: Roads will be extremely slippery and visibility poor. Travel is not recommended unless essential.";
-        } else if (mainCond.contains("fog") || description.contains("fog") || mainCond.contains("mist")) {
-            weatherAdvice = "🌫️ Low Visibility Warning: Dense fog or mist is present. Use low-beam headlights and fog lights, and reduce speed drastically.";
-        } else if (mainCond.contains("wind")) {
-            weatherAdvice = "💨 High Wind Advisory: Be cautious, especially with high-profile vehicles. Watch for falling debris and be prepared for sudden gusts.";
+    /**
+     * Waits for a weather lookup until the shared deadline. A lookup that misses the
+     * deadline is left running so its result still lands in the cache, and the page
+     * renders with an error card for that side only.
+     */
+    private CurrentWeather awaitWeather(CompletableFuture<CurrentWeather> future, long deadline, String location) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return CurrentWeather.error("Weather for " + location + " is taking too long to load. Please try again shortly.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CurrentWeather.error("Weather data for " + location + " is currently unavailable.");
+        } catch (ExecutionException e) {
+            return CurrentWeather.error("Weather data for " + location + " is currently unavailable.");
         }
-        
-        if (!Double.isNaN(temp)) {
-            if (temp >= 37.0) {
-                tempAdvice = "🌡️ Danger - Extreme Heat: Heatstroke risk is high. Avoid non-essential travel and stay hydrated. Never leave people or pets in a vehicle.";
-            } else if (temp >= 34.0) {
-                tempAdvice = "☀️ Heat Caution: Risk of heat exhaustion. Drink plenty of water, wear light clothing, and take breaks in the shade.";
-            } else if (temp >= 28.0) {
-                tempAdvice = "🌤️ Warm Weather: Conditions are pleasant. Ensure you have drinking water available for your journey.";
-            } else if (temp >= 24.0) {
-                tempAdvice = "😊 Pleasant Weather: Ideal temperature for travel. Enjoy the trip safely.";
-            } else if (temp >= 20.0) {
-                tempAdvice = "🌡️ Mild Temperature: Comfortable conditions for any travel plans.";
-            } else if (temp <= 12.0) {
-                tempAdvice = "🧥 Cool Conditions: Temperatures are low. A jacket is recommended, particularly for night travel or trips to higher elevations.";
-            }
+    }
+
+    private String getFormattedTime(CurrentWeather weatherData, boolean sunrise) {
+        if (weatherData == null || weatherData.sys() == null) {
+            return LocalTimeFormatter.UNKNOWN_TIME;
         }
-        return Map.of("weather", weatherAdvice, "temp", tempAdvice);
+        Long timestamp = sunrise ? weatherData.sys().sunrise() : weatherData.sys().sunset();
+        return timeFormatter.clockTime(timestamp, weatherData.timezone());
     }
 }
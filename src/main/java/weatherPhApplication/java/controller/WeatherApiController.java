@@ -1,64 +1,254 @@
 package weatherPhApplication.java.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.server.ResponseStatusException;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.Forecast;
+import weatherPhApplication.java.model.ForecastSummary;
+import weatherPhApplication.java.model.GeocodingResult;
+import weatherPhApplication.java.service.FieldProjection;
+import weatherPhApplication.java.service.GeoPoint;
+import weatherPhApplication.java.service.GeocodingIndex;
+import weatherPhApplication.java.service.WeatherCache;
+import weatherPhApplication.java.service.WeatherService;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * JSON endpoints used by the dashboard. With {@code app.api.non-blocking} on, the
+ * weather and forecast handlers return as soon as the upstream call is started and
+ * the response is written when it completes (Servlet async), so the number of
+ * in-flight upstream calls is not capped by the Tomcat worker pool. With it off they
+ * answer on the request thread and return the response itself, so no async dispatch
+ * happens; hence the {@code Object} return types.
+ * <p>
+ * Weather responses carry a {@code Cache-Control: max-age} equal to the remaining
+ * freshness of the cached data and a strong ETag of its JSON, so browsers and the
+ * CDN can reuse them and revalidate with {@code If-None-Match} (answered with 304).
+ * Error responses are never cached.
+ * <p>
+ * The weather endpoints accept {@code fields=main.temp,weather} to send only the
+ * listed fields (see {@link FieldProjection}).
+ */
 @RestController
 @RequestMapping("/api")
 public class WeatherApiController {
 
-    @Value("${app.openweather.key}")
-    private String openWeatherApiKey;
+    @Value("${app.api.non-blocking:false}")
+    private boolean nonBlocking;
+
+    @Value("${app.api.batch.max-points:100}")
+    private int batchMaxPoints;
+
+    @Value("${app.api.batch.concurrency:8}")
+    private int batchConcurrency;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private GeocodingIndex geocodingIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @GetMapping("/localweather")
-    @SuppressWarnings("unchecked") // Add this annotation here!
-    public Map<String, Object> getLocalWeather(@RequestParam double lat, @RequestParam double lon) {
-        try {
-            RestTemplate restTemplate = new RestTemplate();
-            String url = String.format(
-                "https://api.openweathermap.org/data/2.5/weather?lat=%f&lon=%f&units=metric&appid=%s",
-                lat, lon, openWeatherApiKey
-            );
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            if (response == null || response.isEmpty() || response.containsKey("cod") && !"200".equals(String.valueOf(response.get("cod")))) {
-                Map<String, Object> err = new HashMap<>();
-                err.put("error", "Weather unavailable for this location.");
-                return err;
-            }
-            return response;
-        } catch (Exception e) {
-            Map<String, Object> err = new HashMap<>();
-            err.put("error", "Weather unavailable (" + e.getMessage() + ").");
-            return err;
+    public Object getLocalWeather(@RequestParam double lat, @RequestParam double lon,
+                                  @RequestParam(required = false) String fields) {
+        requireValidCoordinates(lat, lon);
+        FieldProjection projection = projection(fields);
+        if (!nonBlocking) {
+            return weatherResponse(weatherService.getWeather(lat, lon), lat, lon, projection);
         }
+        return weatherService.getWeatherNonBlocking(lat, lon)
+                .thenApply(weather -> weatherResponse(weather, lat, lon, projection));
+    }
+
+    private ResponseEntity<?> weatherResponse(CurrentWeather weather, double lat, double lon, FieldProjection projection) {
+        return weather.hasError()
+                ? uncached(CurrentWeather.error("Weather unavailable for this location."))
+                : cacheable(weather, weatherService.cachedWeather(lat, lon), projection);
+    }
+
+    /**
+     * One point of a batch request. Both coordinates are required; with primitives a
+     * missing one would quietly become 0.
+     */
+    public record BatchPoint(@NotNull Double lat, @NotNull Double lon) {}
+
+    /**
+     * Current weather for a list of {@code {"lat": .., "lon": ..}} points, returned in
+     * the same order. Points are deduplicated by geo cell and cache misses are
+     * fetched in parallel, so one request replaces many single lookups. Not cached
+     * by HTTP caches, being a POST.
+     */
+    @PostMapping("/localweather/batch")
+    public Object getLocalWeatherBatch(@RequestBody @Valid List<@NotNull @Valid BatchPoint> points,
+                                       @RequestParam(required = false) String fields) {
+        FieldProjection projection = projection(fields);
+        if (points.isEmpty() || points.size() > batchMaxPoints) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Between 1 and " + batchMaxPoints + " points may be requested");
+        }
+        List<GeoPoint> geoPoints = new ArrayList<>(points.size());
+        for (BatchPoint point : points) {
+            requireValidCoordinates(point.lat(), point.lon());
+            geoPoints.add(new GeoPoint(point.lat(), point.lon()));
+        }
+        CompletableFuture<List<CurrentWeather>> results = weatherService.getWeatherBatch(geoPoints, batchConcurrency);
+        if (!nonBlocking) {
+            return batchResponse(results.join(), projection);
+        }
+        return results.thenApply(weather -> batchResponse(weather, projection));
+    }
+
+    private static ResponseEntity<?> batchResponse(List<CurrentWeather> results, FieldProjection projection) {
+        List<CurrentWeather> body = results.stream()
+                .map(weather -> weather.hasError() ? CurrentWeather.error("Weather unavailable for this location.") : weather)
+                .toList();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(projection == null ? body : projection.applyTo(body));
     }
 
     @GetMapping("/forecast")
-    @SuppressWarnings("unchecked")
-    public Map<String, Object> getForecast(@RequestParam double lat, @RequestParam double lon) {
+    public Object getForecast(@RequestParam double lat, @RequestParam double lon,
+                              @RequestParam(required = false) String fields) {
+        requireValidCoordinates(lat, lon);
+        FieldProjection projection = projection(fields);
+        // Switched back to the free 5 day / 3 hour forecast API
+        if (!nonBlocking) {
+            return forecastResponse(weatherService.getForecast(lat, lon), lat, lon, projection);
+        }
+        return weatherService.getForecastNonBlocking(lat, lon)
+                .thenApply(forecast -> forecastResponse(forecast, lat, lon, projection));
+    }
+
+    private ResponseEntity<?> forecastResponse(Forecast forecast, double lat, double lon, FieldProjection projection) {
+        return forecast.hasError()
+                ? uncached(Forecast.error("Forecast unavailable for this location."))
+                : cacheable(forecast, weatherService.cachedForecast(lat, lon), projection);
+    }
+
+    @GetMapping("/forecast/summary")
+    public Object getForecastSummary(@RequestParam double lat, @RequestParam double lon,
+                                     @RequestParam(required = false) String fields) {
+        requireValidCoordinates(lat, lon);
+        FieldProjection projection = projection(fields);
+        if (!nonBlocking) {
+            return summaryResponse(weatherService.getForecastSummary(lat, lon), lat, lon, projection);
+        }
+        return weatherService.getForecastSummaryNonBlocking(lat, lon)
+                .thenApply(summary -> summaryResponse(summary, lat, lon, projection));
+    }
+
+    private ResponseEntity<?> summaryResponse(ForecastSummary summary, double lat, double lon, FieldProjection projection) {
+        return summary.hasError()
+                ? uncached(ForecastSummary.error("Forecast unavailable for this location."))
+                : cacheable(summary, weatherService.cachedForecastSummary(lat, lon), projection);
+    }
+
+    @GetMapping("/places")
+    public List<GeocodingResult> suggestPlaces(@RequestParam String q, @RequestParam(defaultValue = "5") int limit) {
+        return geocodingIndex.suggest(q, Math.max(1, Math.min(limit, 20)));
+    }
+
+    /**
+     * Adds caching headers for a value served from the weather caches. If the cached
+     * entry has been replaced since the value was read, the value is sent without
+     * them rather than with another entry's headers. Spring answers a matching
+     * {@code If-None-Match} with 304 based on the ETag set here.
+     * <p>
+     * With a projection, only the requested fields are sent. Its ETag is the
+     * entry's ETag qualified by the normalized field list.
+     */
+    private <T> ResponseEntity<?> cacheable(T body, WeatherCache.Entry<T> entry, FieldProjection projection) {
+        Object projected = projection == null ? body : projection.applyTo(body);
+        if (entry == null || entry.value() != body) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(projected);
+        }
+        String etag = entry.etag(value -> "\"" + hash(serialize(value), 16) + "\"");
+        if (projection != null) {
+            etag = etag.substring(0, etag.length() - 1) + "." + hash(projection.toString().getBytes(StandardCharsets.UTF_8), 8) + "\"";
+        }
+        long maxAge = Math.max(0, Duration.between(Instant.now(), entry.expiresAt()).getSeconds());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePublic())
+                .eTag(etag)
+                .body(projected);
+    }
+
+    private static <T> ResponseEntity<T> uncached(T body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(body);
+    }
+
+    /**
+     * Answers rejected parameters directly, since /api callers cannot follow the
+     * error page redirect to the login form.
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, String>> rejected(ResponseStatusException e) {
+        return ResponseEntity.status(e.getStatusCode()).body(Map.of("error", String.valueOf(e.getReason())));
+    }
+
+    /**
+     * Request bodies that are not valid JSON, or fail their constraints, such as a
+     * batch with a null point or a point without coordinates.
+     */
+    @ExceptionHandler({HttpMessageNotReadableException.class, MethodArgumentNotValidException.class,
+            HandlerMethodValidationException.class})
+    public ResponseEntity<Map<String, String>> invalidBody(Exception e) {
+        return ResponseEntity.badRequest().body(Map.of("error", "Invalid request body"));
+    }
+
+    // Out-of-range coordinates would only earn a 400 from OpenWeatherMap
+    private static void requireValidCoordinates(double lat, double lon) {
+        if (!GeoPoint.isValid(lat, lon)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid coordinates " + lat + "," + lon);
+        }
+    }
+
+    private static FieldProjection projection(String fields) {
         try {
-            RestTemplate restTemplate = new RestTemplate();
-            // Switched back to the free 5 day / 3 hour forecast API
-            String url = String.format(
-                "https://api.openweathermap.org/data/2.5/forecast?lat=%f&lon=%f&units=metric&appid=%s",
-                lat, lon, openWeatherApiKey
-            );
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-             if (response == null || response.isEmpty() || response.containsKey("cod") && !"200".equals(String.valueOf(response.get("cod")))) {
-                Map<String, Object> err = new HashMap<>();
-                err.put("error", "Forecast unavailable for this location.");
-                return err;
-            }
-            return response;
-        } catch (Exception e) {
-            Map<String, Object> err = new HashMap<>();
-            err.put("error", "Forecast unavailable (" + e.getMessage() + ").");
-            return err;
+            return FieldProjection.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not compute ETag", e);
         }
     }
-}
 
+    private static String hash(byte[] bytes, int length) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes), 0, length);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package weatherPhApplication.java.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import weatherPhApplication.java.security.ApiRateLimitFilter;
+import weatherPhApplication.java.service.GeoPoint;
+import weatherPhApplication.java.service.WeatherUpdateBroadcaster;
+
+/**
+ * Server-Sent Events stream of current weather for a location. Each refresh of the
+ * cached weather arrives as a {@code weather} event carrying the same JSON as
+ * {@code /api/localweather}.
+ */
+@RestController
+@RequestMapping("/api/stream")
+public class WeatherStreamController {
+
+    @Autowired
+    private WeatherUpdateBroadcaster broadcaster;
+
+    @GetMapping(value = "/weather", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamWeather(@RequestParam double lat, @RequestParam double lon,
+                                                    HttpServletRequest request) {
+        if (!GeoPoint.isValid(lat, lon)) {
+            return ResponseEntity.badRequest().build();
+        }
+        WeatherUpdateBroadcaster.Subscription subscription = broadcaster.subscribe(ApiRateLimitFilter.client(request), lat, lon);
+        if (!subscription.accepted()) {
+            HttpStatus status = subscription.refusal() == WeatherUpdateBroadcaster.Refusal.CLIENT_LIMIT
+                    ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+            return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "60").build();
+        }
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(subscription.emitter());
+    }
+}
@@ -0,0 +1,7 @@
+package weatherPhApplication.java.model;
+
+/**
+ * Travel advisories for one location: one for the weather condition and one for
+ * the temperature. The temperature advisory is empty when no band applies.
+ */
+public record Advisory(String weather, String temperature) {}
@@ -0,0 +1,89 @@
+package weatherPhApplication.java.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * A current weather observation or forecast for one grid cell, shared by all
+ * instances through the database. The upstream result is kept as gzip-compressed
+ * JSON, so a forecast takes a few kilobytes instead of tens.
+ * <p>
+ * The id is assigned, so it implements {@link Persistable}: an entity built with
+ * {@link #CachedWeather(String, String)} is inserted directly, where Spring Data
+ * would otherwise look each one up first to decide between insert and update.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_cached_weather_expires", columnList = "expiresAt"))
+public class CachedWeather implements Persistable<String> {
+
+    // "<kind>:<cell size>:<cell key>"
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(nullable = false, length = 16)
+    private String kind;
+
+    @Lob
+    @Column(nullable = false, length = 1 << 20)
+    private byte[] payload;
+
+    @Column(nullable = false)
+    private Instant fetchedAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Transient
+    private boolean isNew;
+
+    // REQUIRED: A no-argument constructor for Hibernate
+    public CachedWeather() {
+    }
+
+    public CachedWeather(String id, String kind) {
+        this.id = id;
+        this.kind = kind;
+        this.isNew = true;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // Getters and Setters
+    @Override
+    public String getId() {
+        return id;
+    }
+    public String getKind() {
+        return kind;
+    }
+    public byte[] getPayload() {
+        return payload;
+    }
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+    public void setFetchedAt(Instant fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,51 @@
+package weatherPhApplication.java.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Current conditions for a location, holding only the fields of the OpenWeatherMap
+ * response that we use. Unknown fields are skipped while parsing and null fields
+ * are left out when serializing, so the JSON keeps the upstream shape but is smaller.
+ * A failed lookup is represented by an instance that only carries {@code error}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CurrentWeather(
+        List<WeatherCondition> weather,
+        MainReadings main,
+        Wind wind,
+        Clouds clouds,
+        Integer visibility,
+        SysInfo sys,
+        Integer timezone,
+        Long dt,
+        String name,
+        String error) {
+
+    public static CurrentWeather error(String message) {
+        return new CurrentWeather(null, null, null, null, null, null, null, null, null, message);
+    }
+
+    public boolean hasError() {
+        return error != null;
+    }
+
+    /** True when the upstream payload carried the blocks we rely on. */
+    @JsonIgnore
+    public boolean isComplete() {
+        return error == null && main != null && weather != null && !weather.isEmpty();
+    }
+
+    /** The first (primary) condition, or null if there is none. */
+    public WeatherCondition primaryCondition() {
+        return weather == null || weather.isEmpty() ? null : weather.get(0);
+    }
+
+    public CurrentWeather withName(String newName) {
+        return new CurrentWeather(weather, main, wind, clouds, visibility, sys, timezone, dt, newName, error);
+    }
+}
@@ -0,0 +1,18 @@
+package weatherPhApplication.java.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One day of the forecast in the location's local time: temperature range, average
+ * humidity, strongest wind (km/h) and the most common condition of the day.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DailyForecast(
+        String date,
+        String dayName,
+        Double minTemp,
+        Double maxTemp,
+        Integer avgHumidity,
+        Double maxWind,
+        String description,
+        String icon) {}
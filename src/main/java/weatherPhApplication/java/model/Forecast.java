@@ -0,0 +1,29 @@
+package weatherPhApplication.java.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The 5 day / 3 hour forecast, trimmed to the fields we use. A failed lookup is
+ * represented by an instance that only carries {@code error}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Forecast(List<ForecastEntry> list, ForecastCity city, String error) {
+
+    public static Forecast error(String message) {
+        return new Forecast(null, null, message);
+    }
+
+    public boolean hasError() {
+        return error != null;
+    }
+
+    @JsonIgnore
+    public boolean isComplete() {
+        return error == null && list != null && !list.isEmpty();
+    }
+}
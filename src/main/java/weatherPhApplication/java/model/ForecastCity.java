@@ -0,0 +1,11 @@
+package weatherPhApplication.java.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The location a forecast belongs to. {@code timezone} is the UTC offset in seconds.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ForecastCity(String name, String country, Integer timezone, Long sunrise, Long sunset) {}
@@ -0,0 +1,24 @@
+package weatherPhApplication.java.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One 3-hour step of the 5 day forecast. {@code dt} is the unix timestamp (UTC) of the step.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ForecastEntry(
+        Long dt,
+        MainReadings main,
+        List<WeatherCondition> weather,
+        Wind wind,
+        Clouds clouds) {
+
+    /** The first (primary) condition, or null if there is none. */
+    public WeatherCondition primaryCondition() {
+        return weather == null || weather.isEmpty() ? null : weather.get(0);
+    }
+}
@@ -0,0 +1,23 @@
+package weatherPhApplication.java.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The forecast pre-aggregated for the dashboard: the next 24 hours in 3-hour steps
+ * and one entry per day. A failed lookup only carries {@code error}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ForecastSummary(String name, List<HourlyForecast> hourly, List<DailyForecast> daily, String error) {
+
+    public static ForecastSummary error(String message) {
+        return new ForecastSummary(null, null, null, message);
+    }
+
+    @JsonIgnore
+    public boolean hasError() {
+        return error != null;
+    }
+}
@@ -0,0 +1,9 @@
+package weatherPhApplication.java.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One match from the OpenWeatherMap direct geocoding API.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GeocodingResult(String name, String state, String country, double lat, double lon) {}
@@ -0,0 +1,20 @@
+package weatherPhApplication.java.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One 3-hour forecast step, flattened for the dashboard. {@code time} is already
+ * formatted in the location's local time (e.g. "3 PM"); wind speed is in km/h.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record HourlyForecast(
+        long dt,
+        String time,
+        Double temp,
+        Double feelsLike,
+        Integer humidity,
+        Integer pressure,
+        Double windSpeed,
+        Integer clouds,
+        String description,
+        String icon) {}
@@ -0,0 +1,18 @@
+package weatherPhApplication.java.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The OpenWeatherMap "main" block. Temperatures are in Celsius (metric units).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MainReadings(
+        Double temp,
+        @JsonProperty("feels_like") Double feelsLike,
+        @JsonProperty("temp_min") Double tempMin,
+        @JsonProperty("temp_max") Double tempMax,
+        Integer pressure,
+        Integer humidity) {}
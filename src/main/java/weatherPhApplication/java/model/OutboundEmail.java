@@ -0,0 +1,115 @@
+package weatherPhApplication.java.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * An email waiting to be (or already) handed to Brevo. Rows are claimed by a
+ * worker through the optimistic {@link Version} check, so two instances never
+ * send the same message, and a claim that is never completed (e.g. the instance
+ * died mid-send) becomes due again once {@code nextAttemptAt} passes.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_outbound_email_due", columnList = "status, nextAttemptAt"))
+public class OutboundEmail {
+
+    public enum Status { PENDING, SENDING, SENT, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Version
+    private Long version;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Lob
+    @Column(nullable = false)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant sentAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    // REQUIRED: A no-argument constructor for Hibernate
+    public OutboundEmail() {
+    }
+
+    public OutboundEmail(String recipient, String subject, String body) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.status = Status.PENDING;
+        this.createdAt = Instant.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    public Long getVersion() {
+        return version;
+    }
+    public String getRecipient() {
+        return recipient;
+    }
+    public String getSubject() {
+        return subject;
+    }
+    public String getBody() {
+        return body;
+    }
+    public Status getStatus() {
+        return status;
+    }
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    public int getAttempts() {
+        return attempts;
+    }
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    public Instant getSentAt() {
+        return sentAt;
+    }
+    public void setSentAt(Instant sentAt) {
+        this.sentAt = sentAt;
+    }
+    public String getLastError() {
+        return lastError;
+    }
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,58 @@
+package weatherPhApplication.java.model;
+
+/**
+ * Weather and advisories at one sampled point along a route.
+ */
+public class RouteSegmentHazard {
+    private double distanceKm;
+    private double lat;
+    private double lon;
+    private String locationName;
+    private String description;
+    private Double temperature;
+    private String weatherHazard;
+    private String tempHazard;
+    private boolean available;
+
+    public RouteSegmentHazard() {}
+
+    public RouteSegmentHazard(double distanceKm, double lat, double lon) {
+        this.distanceKm = distanceKm;
+        this.lat = lat;
+        this.lon = lon;
+    }
+
+    public double getDistanceKm() { return distanceKm; }
+    public void setDistanceKm(double distanceKm) { this.distanceKm = distanceKm; }
+    public double getLat() { return lat; }
+    public void setLat(double lat) { this.lat = lat; }
+    public double getLon() { return lon; }
+    public void setLon(double lon) { this.lon = lon; }
+    public String getLocationName() { return locationName; }
+    public void setLocationName(String locationName) { this.locationName = locationName; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public Double getTemperature() { return temperature; }
+    public void setTemperature(Double temperature) { this.temperature = temperature; }
+    public String getWeatherHazard() { return weatherHazard; }
+    public void setWeatherHazard(String weatherHazard) { this.weatherHazard = weatherHazard; }
+    public String getTempHazard() { return tempHazard; }
+    public void setTempHazard(String tempHazard) { this.tempHazard = tempHazard; }
+    public boolean isAvailable() { return available; }
+    public void setAvailable(boolean available) { this.available = available; }
+
+    @Override
+    public String toString() {
+        return "RouteSegmentHazard{" +
+                "distanceKm=" + distanceKm +
+                ", lat=" + lat +
+                ", lon=" + lon +
+                ", locationName='" + locationName + '\'' +
+                ", description='" + description + '\'' +
+                ", temperature=" + temperature +
+                ", weatherHazard='" + weatherHazard + '\'' +
+                ", tempHazard='" + tempHazard + '\'' +
+                ", available=" + available +
+                '}';
+    }
+}
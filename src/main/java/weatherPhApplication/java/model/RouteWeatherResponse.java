@@ -1,13 +1,12 @@
 package weatherPhApplication.java.model;
 
-import java.util.Map;
 import java.util.List;
 
 public class RouteWeatherResponse {
     private String origin;
     private String destination;
-    private Map<String, Object> originWeather;
-    private Map<String, Object> destinationWeather;
+    private CurrentWeather originWeather;
+    private CurrentWeather destinationWeather;
     private String originHazard;
     private String destinationHazard;
 
@@ -20,13 +19,16 @@ public class RouteWeatherResponse {
     private List<String> originHazards;
     private List<String> destinationHazards;
 
+    // Weather sampled along the route between origin and destination, ordered by distance
+    private List<RouteSegmentHazard> segmentHazards;
+
     public RouteWeatherResponse() {}
 
     public RouteWeatherResponse(
         String origin,
         String destination,
-        Map<String, Object> originWeather,
-        Map<String, Object> destinationWeather,
+        CurrentWeather originWeather,
+        CurrentWeather destinationWeather,
         String originHazard,
         String destinationHazard,
         List<String> originHazards,
@@ -54,10 +56,10 @@ public class RouteWeatherResponse {
     public void setOrigin(String origin) { this.origin = origin; }
     public String getDestination() { return destination; }
     public void setDestination(String destination) { this.destination = destination; }
-    public Map<String, Object> getOriginWeather() { return originWeather; }
-    public void setOriginWeather(Map<String, Object> originWeather) { this.originWeather = originWeather; }
-    public Map<String, Object> getDestinationWeather() { return destinationWeather; }
-    public void setDestinationWeather(Map<String, Object> destinationWeather) { this.destinationWeather = destinationWeather; }
+    public CurrentWeather getOriginWeather() { return originWeather; }
+    public void setOriginWeather(CurrentWeather originWeather) { this.originWeather = originWeather; }
+    public CurrentWeather getDestinationWeather() { return destinationWeather; }
+    public void setDestinationWeather(CurrentWeather destinationWeather) { this.destinationWeather = destinationWeather; }
     public String getOriginHazard() { return originHazard; }
     public void setOriginHazard(String originHazard) { this.originHazard = originHazard; }
     public String getDestinationHazard() { return destinationHazard; }
@@ -69,6 +71,9 @@ public class RouteWeatherResponse {
     public List<String> getDestinationHazards() { return destinationHazards; }
     public void setDestinationHazards(List<String> destinationHazards) { this.destinationHazards = destinationHazards; }
 
+    public List<RouteSegmentHazard> getSegmentHazards() { return segmentHazards; }
+    public void setSegmentHazards(List<RouteSegmentHazard> segmentHazards) { this.segmentHazards = segmentHazards; }
+
     public Double getOriginLat() { return originLat; }
     public void setOriginLat(Double originLat) { this.originLat = originLat; }
     public Double getOriginLon() { return originLon; }
@@ -89,6 +94,7 @@ public class RouteWeatherResponse {
                 ", destinationHazard='" + destinationHazard + '\'' +
                 ", originHazards=" + originHazards +
                 ", destinationHazards=" + destinationHazards +
+                ", segmentHazards=" + segmentHazards +
                 ", originLat=" + originLat +
                 ", originLon=" + originLon +
                 ", destinationLat=" + destinationLat +
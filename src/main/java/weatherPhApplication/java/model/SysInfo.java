@@ -0,0 +1,11 @@
+package weatherPhApplication.java.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The OpenWeatherMap "sys" block. Sunrise and sunset are unix timestamps (UTC).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SysInfo(String country, Long sunrise, Long sunset) {}
@@ -0,0 +1,53 @@
+package weatherPhApplication.java.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * How much of an upstream's per-minute quota the instances have leased for one
+ * minute. Instances lease tokens in chunks by bumping {@code used} under the
+ * optimistic {@link Version} check, so the cluster as a whole stays under the limit.
+ */
+@Entity
+public class UpstreamQuotaWindow {
+
+    // "<upstream>:<epoch minute>"
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Version
+    private Long version;
+
+    private int used;
+
+    @Column(nullable = false)
+    private Instant windowStart;
+
+    // REQUIRED: A no-argument constructor for Hibernate
+    public UpstreamQuotaWindow() {
+    }
+
+    public UpstreamQuotaWindow(String id, Instant windowStart) {
+        this.id = id;
+        this.windowStart = windowStart;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    public Long getVersion() {
+        return version;
+    }
+    public int getUsed() {
+        return used;
+    }
+    public void setUsed(int used) {
+        this.used = used;
+    }
+    public Instant getWindowStart() {
+        return windowStart;
+    }
+}
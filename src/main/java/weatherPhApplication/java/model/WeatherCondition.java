@@ -0,0 +1,11 @@
+package weatherPhApplication.java.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One entry of the OpenWeatherMap "weather" array, e.g. id 500 / "Rain" / "light rain".
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WeatherCondition(Integer id, String main, String description, String icon) {}
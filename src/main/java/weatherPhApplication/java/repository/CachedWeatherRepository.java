@@ -0,0 +1,50 @@
+package weatherPhApplication.java.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import weatherPhApplication.java.model.CachedWeather;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface CachedWeatherRepository extends JpaRepository<CachedWeather, String> {
+
+    /**
+     * The entry for the id if it has not expired yet.
+     */
+    Optional<CachedWeather> findByIdAndExpiresAtAfter(String id, Instant now);
+
+    /**
+     * Inserts or updates the rows in one transaction. The ids that already exist are
+     * read with a single query and updated in place; the others are inserted without
+     * a lookup (see {@link CachedWeather#isNew()}).
+     */
+    @Transactional
+    default void upsertAll(List<CachedWeather> rows) {
+        Map<String, CachedWeather> existing = new HashMap<>();
+        for (CachedWeather row : findAllById(rows.stream().map(CachedWeather::getId).toList())) {
+            existing.put(row.getId(), row);
+        }
+        for (CachedWeather row : rows) {
+            CachedWeather stored = existing.get(row.getId());
+            if (stored == null) {
+                save(row);
+            } else {
+                // Managed, so the change is written when the transaction commits
+                stored.setPayload(row.getPayload());
+                stored.setFetchedAt(row.getFetchedAt());
+                stored.setExpiresAt(row.getExpiresAt());
+            }
+        }
+    }
+
+    @Transactional
+    @Modifying
+    @Query("delete from CachedWeather w where w.expiresAt < :cutoff")
+    int deleteExpiredBefore(Instant cutoff);
+}
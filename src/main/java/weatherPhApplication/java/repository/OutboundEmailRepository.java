@@ -0,0 +1,28 @@
+package weatherPhApplication.java.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import weatherPhApplication.java.model.OutboundEmail;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+
+    /**
+     * Emails in one of the given states that are due, oldest first.
+     */
+    List<OutboundEmail> findByStatusInAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+            Collection<OutboundEmail.Status> statuses, Instant now, Pageable page);
+
+    long countByStatusIn(Collection<OutboundEmail.Status> statuses);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboundEmail e where e.status = weatherPhApplication.java.model.OutboundEmail.Status.SENT and e.sentAt < :cutoff")
+    int deleteSentBefore(Instant cutoff);
+}
@@ -0,0 +1,17 @@
+package weatherPhApplication.java.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import weatherPhApplication.java.model.UpstreamQuotaWindow;
+
+import java.time.Instant;
+
+public interface UpstreamQuotaWindowRepository extends JpaRepository<UpstreamQuotaWindow, String> {
+
+    @Transactional
+    @Modifying
+    @Query("delete from UpstreamQuotaWindow w where w.windowStart < :cutoff")
+    int deleteWindowsBefore(Instant cutoff);
+}
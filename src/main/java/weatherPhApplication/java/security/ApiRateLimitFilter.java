@@ -0,0 +1,181 @@
+package weatherPhApplication.java.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import weatherPhApplication.java.config.ApiRateLimitProperties;
+import weatherPhApplication.java.config.ApiRateLimitProperties.Limit;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits how often one client may call each {@code /api} endpoint. Clients are the
+ * signed-in user, or the remote address for anonymous callers. Every client and
+ * endpoint pair gets a token bucket of {@link Limit#requests()} tokens refilled over
+ * {@link Limit#period()}; a request without a token gets {@code 429 Too Many Requests}
+ * with a {@code Retry-After} header.
+ * <p>
+ * Buckets live in a table split into stripes with their own lock, so concurrent
+ * requests from different clients rarely wait on each other. Each stripe keeps its
+ * buckets in least recently used order and evicts from that end when it is full.
+ * <p>
+ * The remote address is only the client's if the proxy in front has been accounted
+ * for; {@code server.forward-headers-strategy} takes care of that.
+ */
+public class ApiRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String API_PREFIX = "/api/";
+
+    private final ApiRateLimitProperties properties;
+    private final Stripe[] stripes;
+    private final int maxPerStripe;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> throttled = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    public ApiRateLimitFilter(ApiRateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    ApiRateLimitFilter(ApiRateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        // A power of two, so the stripe is picked with a mask
+        int count = Integer.highestOneBit(Math.max(1, properties.stripes() - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.maxPerStripe = Math.max(1, properties.maxClients() / count);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled() || !path(request).startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = path(request);
+        Limit limit = properties.forPath(path);
+        // Paths without their own limit share one bucket per client
+        String endpoint = properties.endpoints().containsKey(path) ? path : "default";
+        String key = endpoint + '|' + client(request);
+
+        long waitNanos = stripeFor(key).tryTake(key, limit, nanoClock.getAsLong());
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        throttled.computeIfAbsent(endpoint, e -> Counter.builder("api.ratelimit.throttled")
+                .tag("endpoint", e)
+                .register(meterRegistry)).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests. Please try again in " + retryAfterSeconds + " seconds.\"}");
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Who is calling: the signed-in user, or the remote address for anonymous callers.
+     */
+    public static String client(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private final class Stripe {
+
+        // Access order, so the least recently used bucket comes first
+        private final Map<String, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * Takes a token from the key's bucket and returns 0, or returns how long until
+         * the next token if the bucket is empty.
+         */
+        synchronized long tryTake(String key, Limit limit, long now) {
+            double nanosPerToken = (double) limit.period().toNanos() / limit.requests();
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxPerStripe) {
+                    evict(now);
+                }
+                bucket = new Bucket(limit, now);
+                buckets.put(key, bucket);
+            } else {
+                bucket.tokens = Math.min(limit.requests(), bucket.tokens + (now - bucket.updatedAt) / nanosPerToken);
+                bucket.updatedAt = now;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) * nanosPerToken);
+        }
+
+        /**
+         * Drops the least recently used buckets that have been idle long enough to
+         * refill completely, since a fresh bucket behaves the same. If the oldest one
+         * is still refilling, only that one is dropped, so a caller cycling through new
+         * keys pushes out one bucket per key rather than resetting the whole stripe.
+         */
+        private void evict(long now) {
+            Iterator<Bucket> it = buckets.values().iterator();
+            while (it.hasNext()) {
+                Bucket bucket = it.next();
+                if (now - bucket.updatedAt < bucket.refillNanos) {
+                    if (buckets.size() >= maxPerStripe) {
+                        it.remove();
+                    }
+                    return;
+                }
+                it.remove();
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long updatedAt;
+        private final long refillNanos;
+
+        Bucket(Limit limit, long now) {
+            this.tokens = limit.requests();
+            this.updatedAt = now;
+            this.refillNanos = limit.period().toNanos();
+        }
+    }
+}
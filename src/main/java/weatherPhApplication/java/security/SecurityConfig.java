@@ -1,5 +1,8 @@
 package weatherPhApplication.java.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -9,9 +12,16 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.header.writers.CacheControlHeadersWriter;
+import org.springframework.security.web.header.writers.DelegatingRequestMatcherHeaderWriter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
+import weatherPhApplication.java.config.ApiRateLimitProperties;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(ApiRateLimitProperties.class)
 public class SecurityConfig {
 
     @Bean
@@ -28,14 +38,23 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   ApiRateLimitProperties apiRateLimitProperties,
+                                                   MeterRegistry meterRegistry) throws Exception {
         http
+                // Throttle /api callers once we know who they are, before any work is done
+                .addFilterBefore(new ApiRateLimitFilter(apiRateLimitProperties, meterRegistry), AuthorizationFilter.class)
                 .authorizeHttpRequests(authorizeRequests ->
                         authorizeRequests
                                 // Permit access to static assets
                                 .requestMatchers("/assets/**").permitAll()
                                 // Permit all users to access the landing page, auth pages (GET and POST), and APIs
                                 .requestMatchers("/", "/login", "/register", "/verify-email**", "/forgot-password", "/reset-password**", "/api/**").permitAll()
+                                // Liveness and readiness for the platform's health checks
+                                .requestMatchers("/livez", "/readyz").permitAll()
+                                // Scraped by Prometheus without a session. Actuator only listens on
+                                // management.server.port, which is not routed publicly
+                                .requestMatchers(EndpointRequest.to("prometheus")).permitAll()
                                 // All other requests require authentication
                                 .anyRequest().authenticated()
                 )
@@ -47,6 +66,17 @@ public class SecurityConfig {
                                 .successHandler(loginSuccessHandler())
                                 .permitAll()
                 )
+                // /api is read-only and called by partner integrations without a session,
+                // so POSTs such as the batch lookup do not need a CSRF token
+                .csrf(csrf -> csrf.ignoringRequestMatchers("/api/**"))
+                // The weather API sets its own Cache-Control; everything else stays no-store
+                .headers(headers ->
+                        headers
+                                .cacheControl(cacheControl -> cacheControl.disable())
+                                .addHeaderWriter(new DelegatingRequestMatcherHeaderWriter(
+                                        new NegatedRequestMatcher(PathPatternRequestMatcher.withDefaults().matcher("/api/**")),
+                                        new CacheControlHeadersWriter()))
+                )
                 .logout(logout ->
                         logout
                                 .logoutUrl("/logout")
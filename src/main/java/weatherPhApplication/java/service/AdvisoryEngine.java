@@ -0,0 +1,162 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import weatherPhApplication.java.model.Advisory;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.WeatherCondition;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Maps OpenWeatherMap condition ids and temperatures to travel advisories using
+ * lookup tables compiled from a rules file ({@code app.advisory.rules}). Point the
+ * property at a {@code file:} location to change wording without a deploy; the
+ * file is re-read when its modification time changes.
+ */
+@Component
+public class AdvisoryEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdvisoryEngine.class);
+
+    // OpenWeatherMap condition ids are three digits (200-804)
+    private static final int MAX_CONDITION_ID = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final Resource rulesResource;
+    private volatile RuleTables tables;
+    private volatile long loadedModified;
+
+    @Autowired
+    public AdvisoryEngine(ObjectMapper objectMapper,
+                          ResourceLoader resourceLoader,
+                          @Value("${app.advisory.rules:classpath:advisory-rules.json}") String rulesLocation) {
+        this.objectMapper = objectMapper;
+        this.rulesResource = resourceLoader.getResource(rulesLocation);
+        try {
+            this.loadedModified = lastModified();
+            this.tables = compile(read());
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Could not load advisory rules from " + rulesLocation, e);
+        }
+    }
+
+    /**
+     * Builds an engine from rules that are already loaded, without reloading.
+     */
+    public AdvisoryEngine(AdvisoryRules rules) {
+        this.objectMapper = null;
+        this.rulesResource = null;
+        this.tables = compile(rules);
+    }
+
+    public Advisory advise(CurrentWeather weather) {
+        if (weather == null || weather.hasError()) {
+            return new Advisory(tables.unavailable(), "");
+        }
+        WeatherCondition condition = weather.primaryCondition();
+        Double temp = weather.main() != null ? weather.main().temp() : null;
+        return advise(condition != null ? condition.id() : null, temp);
+    }
+
+    public Advisory advise(Integer conditionId, Double temp) {
+        RuleTables current = tables;
+        return new Advisory(current.conditionAdvice(conditionId), current.temperatureAdvice(temp));
+    }
+
+    @Scheduled(fixedDelayString = "${app.advisory.reload-interval-ms:60000}")
+    public void reloadIfChanged() {
+        if (rulesResource == null) {
+            return;
+        }
+        try {
+            long modified = lastModified();
+            if (modified == loadedModified) {
+                return;
+            }
+            tables = compile(read());
+            loadedModified = modified;
+            logger.info("Reloaded advisory rules from {}", rulesResource.getDescription());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Keeping previous advisory rules; reload from {} failed: {}", rulesResource.getDescription(), e.getMessage());
+        }
+    }
+
+    private AdvisoryRules read() throws IOException {
+        try (InputStream in = rulesResource.getInputStream()) {
+            return objectMapper.readValue(in, AdvisoryRules.class);
+        }
+    }
+
+    private long lastModified() {
+        try {
+            return rulesResource.isFile() ? rulesResource.lastModified() : 0L;
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    static RuleTables compile(AdvisoryRules rules) {
+        String[] byConditionId = new String[MAX_CONDITION_ID];
+        for (AdvisoryRules.ConditionRule rule : rules.conditions()) {
+            String[] bounds = rule.ids().split("-");
+            int from = Integer.parseInt(bounds[0].trim());
+            int to = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : from;
+            if (from < 0 || to >= MAX_CONDITION_ID || from > to) {
+                throw new IllegalArgumentException("Invalid condition id range: " + rule.ids());
+            }
+            for (int id = from; id <= to; id++) {
+                byConditionId[id] = rule.advice();
+            }
+        }
+
+        List<AdvisoryRules.TemperatureBand> bands = rules.temperatureBands();
+        double[] bandMin = new double[bands.size()];
+        double[] bandMax = new double[bands.size()];
+        String[] bandAdvice = new String[bands.size()];
+        for (int i = 0; i < bands.size(); i++) {
+            AdvisoryRules.TemperatureBand band = bands.get(i);
+            bandMin[i] = band.min() != null ? band.min() : Double.NEGATIVE_INFINITY;
+            bandMax[i] = band.max() != null ? band.max() : Double.POSITIVE_INFINITY;
+            bandAdvice[i] = band.advice();
+        }
+        return new RuleTables(rules.unavailable(), rules.unknownCondition(), byConditionId, bandMin, bandMax, bandAdvice);
+    }
+
+    record RuleTables(String unavailable,
+                      String unknownCondition,
+                      String[] byConditionId,
+                      double[] bandMin,
+                      double[] bandMax,
+                      String[] bandAdvice) {
+
+        String conditionAdvice(Integer conditionId) {
+            if (conditionId == null || conditionId < 0 || conditionId >= byConditionId.length) {
+                return unknownCondition;
+            }
+            String advice = byConditionId[conditionId];
+            return advice != null ? advice : unknownCondition;
+        }
+
+        String temperatureAdvice(Double temp) {
+            if (temp == null || temp.isNaN()) {
+                return "";
+            }
+            for (int i = 0; i < bandAdvice.length; i++) {
+                if (temp >= bandMin[i] && temp <= bandMax[i]) {
+                    return bandAdvice[i];
+                }
+            }
+            return "";
+        }
+    }
+}
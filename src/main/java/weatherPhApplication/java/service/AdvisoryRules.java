@@ -0,0 +1,24 @@
+package weatherPhApplication.java.service;
+
+import java.util.List;
+
+/**
+ * Advisory wording as loaded from the rules file. Condition rules are applied in
+ * order, so a later rule for a single id overrides an earlier range. Temperature
+ * bands are checked in order and the first band containing the temperature wins.
+ *
+ * @param unavailable      advisory used when there is no weather data
+ * @param unknownCondition advisory used for condition ids no rule covers
+ * @param conditions       OpenWeatherMap condition ids ("500" or "200-232") and their advisory
+ * @param temperatureBands inclusive temperature ranges in Celsius; a missing bound is open
+ */
+public record AdvisoryRules(
+        String unavailable,
+        String unknownCondition,
+        List<ConditionRule> conditions,
+        List<TemperatureBand> temperatureBands) {
+
+    public record ConditionRule(String ids, String advice) {}
+
+    public record TemperatureBand(Double min, Double max, String advice) {}
+}
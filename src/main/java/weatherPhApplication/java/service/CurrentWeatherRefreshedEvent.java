@@ -0,0 +1,8 @@
+package weatherPhApplication.java.service;
+
+import weatherPhApplication.java.model.CurrentWeather;
+
+/**
+ * Published whenever a new observation for a geo cell has been fetched and cached.
+ */
+public record CurrentWeatherRefreshedEvent(GeoCell cell, CurrentWeather weather) {}
@@ -2,11 +2,16 @@ package weatherPhApplication.java.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import weatherPhApplication.java.model.OutboundEmail;
+import weatherPhApplication.java.repository.OutboundEmailRepository;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -19,6 +24,9 @@ public class EmailService {
 
     // Make the dependency final
     private final RestTemplate restTemplate;
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final UpstreamGuard brevoGuard;
+    private final UpstreamMetrics metrics;
 
     @Value("${brevo.api.url}")
     private String brevoApiUrl;
@@ -34,11 +42,25 @@ public class EmailService {
 
     // Use constructor injection
     // @Autowired // This is often optional on constructors in recent Spring versions
-    public EmailService(RestTemplate restTemplate) {
+    public EmailService(RestTemplate restTemplate,
+                        OutboundEmailRepository outboundEmailRepository,
+                        @Qualifier("brevoGuard") UpstreamGuard brevoGuard,
+                        UpstreamMetrics metrics) {
         this.restTemplate = restTemplate;
+        this.outboundEmailRepository = outboundEmailRepository;
+        this.brevoGuard = brevoGuard;
+        this.metrics = metrics;
+    }
+
+    private ResponseEntity<String> post(HttpEntity<Map<String, Object>> request, String operation) {
+        ResponseEntity<String> response = brevoGuard.call(() -> metrics.time("brevo", operation,
+                () -> restTemplate.exchange(brevoApiUrl, HttpMethod.POST, request, String.class)));
+        if (response.getBody() != null) {
+            metrics.recordResponseSize("brevo", operation, response.getBody().getBytes(StandardCharsets.UTF_8).length);
+        }
+        return response;
     }
 
-    // ... rest of your sendApiEmail, sendVerificationEmail, sendPasswordResetEmail methods ...
     private void sendApiEmail(String toEmail, String subject, String body) {
         try {
             // 1. Set API Headers
@@ -67,12 +89,7 @@ public class EmailService {
             logger.info("Attempting to send email via Brevo API to: {}", toEmail);
 
             // 4. Send the Request (Uses the injected restTemplate)
-            ResponseEntity<String> response = restTemplate.exchange(
-                brevoApiUrl,
-                HttpMethod.POST,
-                request,
-                String.class
-            );
+            ResponseEntity<String> response = post(request, "send");
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 logger.info("Email sent successfully via Brevo API to: {}. Response: {}", toEmail, response.getBody());
@@ -87,11 +104,68 @@ public class EmailService {
         }
     }
 
+    /**
+     * Sends a batch of queued emails in one Brevo call. A single email goes out as a
+     * plain transactional email; several go out as {@code messageVersions} of one
+     * request, which Brevo accepts or rejects as a whole.
+     */
+    void deliver(List<OutboundEmail> batch) {
+        if (batch.size() == 1) {
+            OutboundEmail email = batch.get(0);
+            sendApiEmail(email.getRecipient(), email.getSubject(), email.getBody());
+            return;
+        }
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("api-key", brevoApiKey);
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+
+            Map<String, String> sender = new HashMap<>();
+            sender.put("email", senderEmail);
+            sender.put("name", senderName);
+
+            // Each version overrides recipient, subject and content of the shared message
+            List<Map<String, Object>> versions = new ArrayList<>(batch.size());
+            for (OutboundEmail email : batch) {
+                versions.add(Map.of(
+                    "to", List.of(Map.of("email", email.getRecipient())),
+                    "subject", email.getSubject(),
+                    "htmlContent", email.getBody().replace("\n", "<br>")
+                ));
+            }
+            OutboundEmail first = batch.get(0);
+            Map<String, Object> payload = Map.of(
+                "sender", sender,
+                "subject", first.getSubject(),
+                "htmlContent", first.getBody().replace("\n", "<br>"),
+                "messageVersions", versions
+            );
+
+            logger.info("Attempting to send {} emails via Brevo API in one batch", batch.size());
+
+            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
+            ResponseEntity<String> response = post(request, "send-batch");
+
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                logger.error("Brevo API batch failed. Status: {}, Response: {}", response.getStatusCode(), response.getBody());
+                throw new RuntimeException("Brevo API failure: HTTP " + response.getStatusCode());
+            }
+            logger.info("Batch of {} emails sent successfully via Brevo API", batch.size());
+        } catch (Exception e) {
+            logger.error("Failed to send batch of {} emails. Error: {}", batch.size(), e.getMessage());
+            throw new RuntimeException("Email sending failed via Brevo API", e);
+        }
+    }
+
+    /**
+     * Queues the email and returns immediately; {@link OutboundEmailWorker} sends it.
+     */
     public void sendVerificationEmail(String to, String subject, String body) {
-        sendApiEmail(to, subject, body);
+        outboundEmailRepository.save(new OutboundEmail(to, subject, body));
     }
 
     public void sendPasswordResetEmail(String to, String subject, String body) {
-        sendApiEmail(to, subject, body);
+        outboundEmailRepository.save(new OutboundEmail(to, subject, body));
     }
-}
\ No newline at end of file
+}
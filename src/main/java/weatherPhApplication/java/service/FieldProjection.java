@@ -0,0 +1,131 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.filter.FilteringGeneratorDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A set of dotted field paths to keep from a JSON document, parsed from a
+ * {@code fields=main.temp,weather} request parameter. A path keeps the whole value it
+ * names; paths through arrays apply to every element, so {@code list.main.temp} keeps
+ * the temperature of each forecast step. Objects left without any requested field
+ * are dropped.
+ * <p>
+ * The projection is applied while the value is serialized, by filtering the
+ * generator's tokens, so no intermediate tree is built.
+ */
+public final class FieldProjection extends TokenFilter {
+
+    private static final int MAX_PATHS = 32;
+    private static final int MAX_DEPTH = 6;
+
+    private final Map<String, FieldProjection> children = new TreeMap<>();
+    // Keeps the whole value, so children do not matter
+    private boolean whole;
+
+    private FieldProjection() {}
+
+    /**
+     * Parses a comma-separated list of dotted paths. Returns null for a blank list,
+     * meaning "everything".
+     *
+     * @throws IllegalArgumentException if the list has too many or too deep paths
+     */
+    public static FieldProjection parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        String[] paths = fields.split(",");
+        if (paths.length > MAX_PATHS) {
+            throw new IllegalArgumentException("At most " + MAX_PATHS + " fields may be requested");
+        }
+        FieldProjection root = new FieldProjection();
+        for (String path : paths) {
+            String[] names = path.trim().split("\\.");
+            if (names.length > MAX_DEPTH) {
+                throw new IllegalArgumentException("Field paths may be at most " + MAX_DEPTH + " levels deep");
+            }
+            FieldProjection node = root;
+            for (String name : names) {
+                if (name.isEmpty() || node.whole) {
+                    break;
+                }
+                node = node.children.computeIfAbsent(name, n -> new FieldProjection());
+            }
+            if (node != root) {
+                node.whole = true;
+                node.children.clear();
+            }
+        }
+        return root.children.isEmpty() ? null : root;
+    }
+
+    /**
+     * Wraps a value so that serializing it writes only the projected fields.
+     */
+    public JsonSerializable applyTo(Object value) {
+        return new Projected(value, this);
+    }
+
+    @Override
+    public TokenFilter includeProperty(String name) {
+        FieldProjection child = children.get(name);
+        if (child == null) {
+            return null;
+        }
+        return child.whole ? TokenFilter.INCLUDE_ALL : child;
+    }
+
+    @Override
+    public TokenFilter includeElement(int index) {
+        // Array elements are projected like the array itself
+        return this;
+    }
+
+    /**
+     * The normalized path list, identical for equivalent requests regardless of order
+     * or duplicates.
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        append(out, "");
+        return out.toString();
+    }
+
+    private void append(StringBuilder out, String prefix) {
+        for (Map.Entry<String, FieldProjection> child : children.entrySet()) {
+            String path = prefix + child.getKey();
+            if (child.getValue().whole) {
+                if (!out.isEmpty()) {
+                    out.append(',');
+                }
+                out.append(path);
+            } else {
+                child.getValue().append(out, path + ".");
+            }
+        }
+    }
+
+    private record Projected(Object value, FieldProjection projection) implements JsonSerializable {
+
+        @Override
+        public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            JsonGenerator filtered = new FilteringGeneratorDelegate(gen, projection,
+                    TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true);
+            serializers.findTypedValueSerializer(value.getClass(), true, null).serialize(value, filtered, serializers);
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+            serialize(gen, serializers);
+        }
+    }
+}
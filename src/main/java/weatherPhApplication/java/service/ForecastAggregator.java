@@ -0,0 +1,143 @@
+package weatherPhApplication.java.service;
+
+import org.springframework.stereotype.Component;
+import weatherPhApplication.java.model.DailyForecast;
+import weatherPhApplication.java.model.Forecast;
+import weatherPhApplication.java.model.ForecastEntry;
+import weatherPhApplication.java.model.ForecastSummary;
+import weatherPhApplication.java.model.HourlyForecast;
+import weatherPhApplication.java.model.WeatherCondition;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns the 40-step 5 day / 3 hour forecast into the hourly and daily views the
+ * dashboard shows, so the browser receives a few dozen numbers instead of the full
+ * upstream payload. Days are bucketed in the forecast location's own time zone.
+ */
+@Component
+public class ForecastAggregator {
+
+    private static final int HOURLY_STEPS = 8; // 8 x 3 hours = next 24 hours
+    private static final int MAX_DAYS = 7;
+    private static final double MPS_TO_KMH = 3.6;
+
+    private final LocalTimeFormatter timeFormatter;
+
+    public ForecastAggregator(LocalTimeFormatter timeFormatter) {
+        this.timeFormatter = timeFormatter;
+    }
+
+    public ForecastSummary summarize(Forecast forecast) {
+        if (forecast == null || !forecast.isComplete()) {
+            return ForecastSummary.error("Forecast data for this point is currently unavailable.");
+        }
+        ZoneOffset offset = timeFormatter.offset(forecast.city() != null ? forecast.city().timezone() : null);
+        String name = forecast.city() != null ? forecast.city().name() : null;
+        return new ForecastSummary(name, hourly(forecast.list(), offset), daily(forecast.list(), offset), null);
+    }
+
+    private List<HourlyForecast> hourly(List<ForecastEntry> entries, ZoneOffset offset) {
+        List<HourlyForecast> hourly = new ArrayList<>(HOURLY_STEPS);
+        for (ForecastEntry entry : entries.subList(0, Math.min(HOURLY_STEPS, entries.size()))) {
+            if (entry.dt() == null || entry.main() == null) {
+                continue;
+            }
+            WeatherCondition condition = entry.primaryCondition();
+            hourly.add(new HourlyForecast(
+                    entry.dt(),
+                    timeFormatter.hour(entry.dt(), offset),
+                    entry.main().temp(),
+                    entry.main().feelsLike(),
+                    entry.main().humidity(),
+                    entry.main().pressure(),
+                    entry.wind() != null && entry.wind().speed() != null ? entry.wind().speed() * MPS_TO_KMH : null,
+                    entry.clouds() != null ? entry.clouds().all() : null,
+                    condition != null ? condition.description() : null,
+                    condition != null ? condition.icon() : null));
+        }
+        return hourly;
+    }
+
+    private List<DailyForecast> daily(List<ForecastEntry> entries, ZoneOffset offset) {
+        Map<LocalDate, DayBucket> days = new LinkedHashMap<>();
+        for (ForecastEntry entry : entries) {
+            if (entry.dt() == null || entry.main() == null) {
+                continue;
+            }
+            LocalDate date = timeFormatter.localDate(entry.dt(), offset);
+            DayBucket bucket = days.get(date);
+            if (bucket == null) {
+                if (days.size() == MAX_DAYS) {
+                    break;
+                }
+                bucket = new DayBucket();
+                days.put(date, bucket);
+            }
+            bucket.add(entry);
+        }
+
+        List<DailyForecast> daily = new ArrayList<>(days.size());
+        days.forEach((date, bucket) -> daily.add(bucket.toDailyForecast(date, timeFormatter.dayName(date))));
+        return daily;
+    }
+
+    private static final class DayBucket {
+        private double minTemp = Double.POSITIVE_INFINITY;
+        private double maxTemp = Double.NEGATIVE_INFINITY;
+        private long humiditySum;
+        private int humidityCount;
+        private double maxWind = Double.NaN;
+        private final Map<String, Integer> icons = new HashMap<>();
+        private final Map<String, Integer> descriptions = new HashMap<>();
+        private String dominantIcon;
+        private String dominantDescription;
+
+        void add(ForecastEntry entry) {
+            if (entry.main().temp() != null) {
+                minTemp = Math.min(minTemp, entry.main().temp());
+                maxTemp = Math.max(maxTemp, entry.main().temp());
+            }
+            if (entry.main().humidity() != null) {
+                humiditySum += entry.main().humidity();
+                humidityCount++;
+            }
+            if (entry.wind() != null && entry.wind().speed() != null) {
+                maxWind = Double.isNaN(maxWind) ? entry.wind().speed() : Math.max(maxWind, entry.wind().speed());
+            }
+            WeatherCondition condition = entry.primaryCondition();
+            if (condition != null) {
+                if (condition.icon() != null) {
+                    // Count night icons as their day variant so a day is not labelled by its night hours
+                    dominantIcon = count(icons, condition.icon().replace('n', 'd'), dominantIcon);
+                }
+                if (condition.description() != null) {
+                    dominantDescription = count(descriptions, condition.description(), dominantDescription);
+                }
+            }
+        }
+
+        private static String count(Map<String, Integer> counts, String key, String currentLeader) {
+            int count = counts.merge(key, 1, Integer::sum);
+            return currentLeader == null || count > counts.get(currentLeader) ? key : currentLeader;
+        }
+
+        DailyForecast toDailyForecast(LocalDate date, String dayName) {
+            return new DailyForecast(
+                    date.toString(),
+                    dayName,
+                    Double.isInfinite(minTemp) ? null : minTemp,
+                    Double.isInfinite(maxTemp) ? null : maxTemp,
+                    humidityCount == 0 ? null : (int) Math.round((double) humiditySum / humidityCount),
+                    Double.isNaN(maxWind) ? null : maxWind * MPS_TO_KMH,
+                    dominantDescription,
+                    dominantIcon);
+        }
+    }
+}
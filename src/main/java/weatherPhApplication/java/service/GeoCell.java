@@ -0,0 +1,29 @@
+package weatherPhApplication.java.service;
+
+import java.util.Locale;
+
+/**
+ * A square cell on a lat/lon grid. Coordinates that fall in the same cell are
+ * treated as the same location for caching and upstream lookups, so a cell size
+ * of 0.01 degrees groups requests that are roughly 1 km apart.
+ */
+public record GeoCell(long latIndex, long lonIndex, double cellSize) {
+
+    public static GeoCell of(double lat, double lon, double cellSize) {
+        return new GeoCell(Math.round(lat / cellSize), Math.round(lon / cellSize), cellSize);
+    }
+
+    /** Latitude of the cell center. */
+    public double lat() {
+        return latIndex * cellSize;
+    }
+
+    /** Longitude of the cell center. */
+    public double lon() {
+        return lonIndex * cellSize;
+    }
+
+    public String key() {
+        return String.format(Locale.ROOT, "%.4f,%.4f", lat(), lon());
+    }
+}
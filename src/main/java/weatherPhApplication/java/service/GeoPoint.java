@@ -0,0 +1,29 @@
+package weatherPhApplication.java.service;
+
+/**
+ * A WGS84 coordinate.
+ */
+public record GeoPoint(double lat, double lon) {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /** True for a latitude within +/-90 and a longitude within +/-180 (so not NaN). */
+    public static boolean isValid(double lat, double lon) {
+        return Math.abs(lat) <= 90 && Math.abs(lon) <= 180;
+    }
+
+    /** Great-circle (haversine) distance in kilometres. */
+    public double distanceKmTo(GeoPoint other) {
+        double dLat = Math.toRadians(other.lat - lat);
+        double dLon = Math.toRadians(other.lon - lon);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat)) * Math.cos(Math.toRadians(other.lat))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /** Point at fraction {@code t} (0..1) of the straight line towards {@code other}. */
+    public GeoPoint interpolate(GeoPoint other, double t) {
+        return new GeoPoint(lat + (other.lat - lat) * t, lon + (other.lon - lon) * t);
+    }
+}
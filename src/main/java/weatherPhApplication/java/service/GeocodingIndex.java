@@ -0,0 +1,276 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import weatherPhApplication.java.model.GeocodingResult;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of Philippine place names, loaded from a bundled tab-separated
+ * file ({@code app.geocoding.index}). Names are matched after normalisation (case,
+ * accents, punctuation and a "City"/"City of" affix are ignored). The index is far
+ * from every place in the country, so a near miss is more likely a real town it
+ * does not know than a typo: edit-distance matching is only offered through
+ * {@link #resolveApproximate} for callers to try after the remote geocoder. Places
+ * the remote geocoder resolves are written back, so each location name goes
+ * upstream at most once per process.
+ */
+@Component
+public class GeocodingIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeocodingIndex.class);
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+    // Caps how much the index can grow from remote lookups
+    private static final int MAX_LEARNED = 10_000;
+
+    private final ConcurrentSkipListMap<String, List<GeocodingResult>> places = new ConcurrentSkipListMap<>();
+    private final AtomicInteger learned = new AtomicInteger();
+
+    private final Counter exactHits;
+    private final Counter fuzzyHits;
+    private final Counter misses;
+
+    @Autowired
+    public GeocodingIndex(ResourceLoader resourceLoader,
+                          @Value("${app.geocoding.index:classpath:geo/ph-places.tsv}") String indexLocation,
+                          MeterRegistry meterRegistry) {
+        this.exactHits = Counter.builder("geocoding.index.lookups").tag("result", "exact").register(meterRegistry);
+        this.fuzzyHits = Counter.builder("geocoding.index.lookups").tag("result", "fuzzy").register(meterRegistry);
+        this.misses = Counter.builder("geocoding.index.lookups").tag("result", "miss").register(meterRegistry);
+        try {
+            load(resourceLoader.getResource(indexLocation));
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Could not load geocoding index from " + indexLocation, e);
+        }
+        logger.info("Loaded {} place names into the geocoding index", places.size());
+    }
+
+    /**
+     * Resolves a free-text location such as "Cebu City" or "San Fernando, Pampanga".
+     * Text after the first comma is used to pick between places with the same name.
+     * Only names the index knows (after normalisation) match.
+     *
+     * @return the best match, or null if the index does not know the place
+     */
+    public GeocodingResult resolve(String location) {
+        if (location == null) {
+            return null;
+        }
+        int comma = location.indexOf(',');
+        String key = normalize(comma < 0 ? location : location.substring(0, comma));
+        List<GeocodingResult> candidates = key.isEmpty() ? null : places.get(key);
+        if (candidates == null) {
+            misses.increment();
+            return null;
+        }
+        exactHits.increment();
+        return pick(candidates, province(location, comma));
+    }
+
+    /**
+     * Treats {@code location} as a typo of an indexed name: one edit away for short
+     * names, two for longer ones. Only answers when exactly one place is that close,
+     * so callers should try the remote geocoder first.
+     *
+     * @return the only close match, or null if there is none or it is ambiguous
+     */
+    public GeocodingResult resolveApproximate(String location) {
+        if (location == null) {
+            return null;
+        }
+        int comma = location.indexOf(',');
+        List<GeocodingResult> candidates = closest(normalize(comma < 0 ? location : location.substring(0, comma)));
+        if (candidates == null) {
+            return null;
+        }
+        fuzzyHits.increment();
+        return pick(candidates, province(location, comma));
+    }
+
+    /**
+     * Places whose normalised name starts with {@code prefix}, for autocomplete.
+     */
+    public List<GeocodingResult> suggest(String prefix, int limit) {
+        String key = normalize(prefix == null ? "" : prefix);
+        List<GeocodingResult> suggestions = new ArrayList<>(limit);
+        if (key.isEmpty()) {
+            return suggestions;
+        }
+        for (List<GeocodingResult> matches : places.subMap(key, key + Character.MAX_VALUE).values()) {
+            for (GeocodingResult match : matches) {
+                if (suggestions.size() == limit) {
+                    return suggestions;
+                }
+                if (!suggestions.contains(match)) {
+                    suggestions.add(match);
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Records a place the remote geocoder resolved, under both the text that was
+     * looked up and the place's own name.
+     */
+    public void learn(String location, GeocodingResult place) {
+        if (learned.get() >= MAX_LEARNED) {
+            return;
+        }
+        int comma = location.indexOf(',');
+        if (add(normalize(comma < 0 ? location : location.substring(0, comma)), place)
+                | add(normalize(place.name()), place)) {
+            learned.incrementAndGet();
+        }
+    }
+
+    public int size() {
+        return places.size();
+    }
+
+    /**
+     * Lower-cases, strips accents and punctuation, and drops a leading "city of" or
+     * trailing "city" so "Iloilo City", "City of Iloilo" and "iloilo" share a key.
+     */
+    static String normalize(String text) {
+        String key = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        key = NON_ALPHANUMERIC.matcher(key.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        if (key.startsWith("city of ")) {
+            key = key.substring("city of ".length());
+        } else if (key.endsWith(" city")) {
+            key = key.substring(0, key.length() - " city".length());
+        }
+        return key;
+    }
+
+    private void load(Resource resource) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split("\t");
+                GeocodingResult place = new GeocodingResult(columns[0], columns[1], "PH",
+                        Double.parseDouble(columns[2]), Double.parseDouble(columns[3]));
+                add(normalize(place.name()), place);
+                if (columns.length > 4) {
+                    for (String alias : columns[4].split(";")) {
+                        add(normalize(alias), place);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean add(String key, GeocodingResult place) {
+        if (key.isEmpty()) {
+            return false;
+        }
+        List<GeocodingResult> before = places.get(key);
+        List<GeocodingResult> after = places.merge(key, List.of(place), (existing, added) -> {
+            if (existing.contains(place)) {
+                return existing;
+            }
+            List<GeocodingResult> merged = new ArrayList<>(existing);
+            merged.add(place);
+            return List.copyOf(merged);
+        });
+        return after != before;
+    }
+
+    private static String province(String location, int comma) {
+        return comma < 0 ? "" : normalize(location.substring(comma + 1));
+    }
+
+    private static GeocodingResult pick(List<GeocodingResult> candidates, String province) {
+        if (!province.isEmpty()) {
+            for (GeocodingResult candidate : candidates) {
+                if (candidate.state() != null && normalize(candidate.state()).startsWith(province)) {
+                    return candidate;
+                }
+            }
+        }
+        return candidates.get(0);
+    }
+
+    /**
+     * The places whose keys are within a small edit distance of {@code key}: one edit
+     * for short names, two for longer ones. Null if nothing is that close, or if
+     * different places are equally close.
+     */
+    private List<GeocodingResult> closest(String key) {
+        if (key.length() < 4) {
+            return null;
+        }
+        int maxDistance = key.length() < 8 ? 1 : 2;
+        List<GeocodingResult> best = null;
+        boolean ambiguous = false;
+        int bestDistance = maxDistance + 1;
+        for (Map.Entry<String, List<GeocodingResult>> entry : places.entrySet()) {
+            String candidate = entry.getKey();
+            if (Math.abs(candidate.length() - key.length()) > bestDistance) {
+                continue;
+            }
+            int distance = editDistance(key, candidate, bestDistance);
+            if (distance < bestDistance) {
+                best = entry.getValue();
+                bestDistance = distance;
+                ambiguous = false;
+            } else if (distance == bestDistance && best != null && !best.equals(entry.getValue())) {
+                ambiguous = true;
+            }
+        }
+        return ambiguous ? null : best;
+    }
+
+    /**
+     * Levenshtein distance, giving up early with {@code limit + 1} once every path
+     * exceeds {@code limit}.
+     */
+    private static int editDistance(String a, String b, int limit) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
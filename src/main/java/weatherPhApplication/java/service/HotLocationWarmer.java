@@ -0,0 +1,165 @@
+package weatherPhApplication.java.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import weatherPhApplication.java.config.HotLocationProperties;
+import weatherPhApplication.java.config.HotLocationProperties.Location;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps current weather and forecasts for the configured hot locations in memory.
+ * The first pass runs as an {@link ApplicationRunner}, which Spring Boot finishes
+ * before the application reports itself ready, so a fresh deploy does not send its
+ * first visitors upstream. After that the locations are refreshed on a fixed
+ * cadence, a small batch at a time, so the warmer never bursts the API key.
+ * <p>
+ * A pass never blocks the thread that starts it: batches run on the upstream
+ * executor and the pause between them is a delayed continuation, so the scheduled
+ * trigger returns at once and does not hold up the other scheduled tasks.
+ */
+@Component
+@EnableConfigurationProperties(HotLocationProperties.class)
+public class HotLocationWarmer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotLocationWarmer.class);
+
+    private final HotLocationProperties properties;
+    private final WeatherService weatherService;
+    private final Executor upstreamExecutor;
+    private final AtomicBoolean passRunning = new AtomicBoolean();
+
+    @Autowired
+    public HotLocationWarmer(HotLocationProperties properties, WeatherService weatherService,
+                             @Qualifier("upstreamExecutor") ThreadPoolTaskExecutor upstreamExecutor) {
+        this(properties, weatherService, (Executor) upstreamExecutor);
+    }
+
+    HotLocationWarmer(HotLocationProperties properties, WeatherService weatherService, Executor upstreamExecutor) {
+        this.properties = properties;
+        this.weatherService = weatherService;
+        this.upstreamExecutor = upstreamExecutor;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.enabled() || properties.locations().isEmpty()) {
+            return;
+        }
+        for (Location location : properties.locations()) {
+            weatherService.pin(location.lat(), location.lon());
+        }
+        passRunning.set(true);
+        try {
+            int warmed = warm(properties.startupTimeout()).join();
+            logger.info("Warmed {} of {} hot locations before startup", warmed, properties.locations().size());
+        } finally {
+            passRunning.set(false);
+        }
+    }
+
+    /**
+     * Starts a refresh pass and returns without waiting for it. A pass still running
+     * (from the previous trigger, or the startup pass) is left to finish instead of
+     * starting another.
+     */
+    @Scheduled(initialDelayString = "${app.warmer.interval:5m}", fixedDelayString = "${app.warmer.interval:5m}")
+    public void refresh() {
+        if (!properties.enabled() || properties.locations().isEmpty() || !passRunning.compareAndSet(false, true)) {
+            return;
+        }
+        warm(properties.interval()).whenComplete((warmed, error) -> {
+            passRunning.set(false);
+            if (error != null) {
+                logger.warn("Hot location refresh pass failed: {}", error.getMessage());
+            } else if (warmed < properties.locations().size()) {
+                logger.warn("Refreshed only {} of {} hot locations", warmed, properties.locations().size());
+            }
+        });
+    }
+
+    /**
+     * Refreshes every hot location in batches, giving up once {@code budget} is spent.
+     *
+     * @return how many locations were refreshed successfully
+     */
+    CompletableFuture<Integer> warm(Duration budget) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        return warmFrom(0, 0, deadline, budget);
+    }
+
+    private CompletableFuture<Integer> warmFrom(int start, int warmedSoFar, long deadline, Duration budget) {
+        List<Location> locations = properties.locations();
+        int batchSize = Math.max(1, properties.batchSize());
+        List<CompletableFuture<Boolean>> batch = new ArrayList<>(batchSize);
+        for (Location location : locations.subList(start, Math.min(start + batchSize, locations.size()))) {
+            batch.add(refreshAsync(location));
+        }
+        long remaining = Math.max(0, deadline - System.nanoTime());
+        return CompletableFuture.allOf(batch.toArray(CompletableFuture[]::new))
+                .handle((done, error) -> null)
+                .completeOnTimeout(null, remaining, TimeUnit.NANOSECONDS)
+                .thenCompose(ignored -> {
+                    int warmed = warmedSoFar;
+                    boolean timedOut = false;
+                    for (CompletableFuture<Boolean> refresh : batch) {
+                        if (!refresh.isDone()) {
+                            timedOut = true;
+                        } else if (refresh.isCompletedExceptionally()) {
+                            logger.warn("Hot location refresh failed: {}", failure(refresh));
+                        } else if (refresh.join()) {
+                            warmed++;
+                        }
+                    }
+                    int next = start + batchSize;
+                    if (timedOut) {
+                        logger.warn("Hot location warm-up ran out of time after {}", budget);
+                        return CompletableFuture.completedFuture(warmed);
+                    }
+                    long pauseNanos = properties.batchPause().toNanos();
+                    if (next >= locations.size() || System.nanoTime() + pauseNanos >= deadline) {
+                        return CompletableFuture.completedFuture(warmed);
+                    }
+                    int warmedNow = warmed;
+                    // Continues on the common pool, which only submits the next batch
+                    Executor afterPause = CompletableFuture.delayedExecutor(pauseNanos, TimeUnit.NANOSECONDS);
+                    return CompletableFuture.supplyAsync(() -> next, afterPause)
+                            .thenCompose(from -> warmFrom(from, warmedNow, deadline, budget));
+                });
+    }
+
+    private CompletableFuture<Boolean> refreshAsync(Location location) {
+        try {
+            return CompletableFuture.supplyAsync(() -> UpstreamPriority.BACKGROUND.call(
+                    () -> weatherService.refresh(location.lat(), location.lon(), properties.interval())), upstreamExecutor);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static String failure(CompletableFuture<?> refresh) {
+        try {
+            refresh.join();
+            return "";
+        } catch (CompletionException e) {
+            return e.getCause() == null ? e.getMessage() : e.getCause().getMessage();
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+}
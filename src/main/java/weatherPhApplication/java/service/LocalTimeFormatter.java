@@ -0,0 +1,82 @@
+package weatherPhApplication.java.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Formats OpenWeatherMap timestamps in the location's own time, which the API gives
+ * as a UTC offset in seconds rather than a zone. The formatters are immutable and
+ * shared, and offsets on the quarter hour (all real ones) come from a table built at
+ * start-up, so formatting a time allocates little beyond the resulting string.
+ */
+@Component
+public class LocalTimeFormatter {
+
+    public static final String UNKNOWN_TIME = "--:--";
+
+    private static final DateTimeFormatter CLOCK = DateTimeFormatter.ofPattern("h:mm a", Locale.ENGLISH);
+    private static final DateTimeFormatter HOUR = DateTimeFormatter.ofPattern("h a", Locale.ENGLISH);
+    private static final DateTimeFormatter DAY_NAME = DateTimeFormatter.ofPattern("EEEE", Locale.ENGLISH);
+
+    private static final int QUARTER_HOUR = 15 * 60;
+    private static final int MAX_OFFSET = 18 * 60 * 60;
+    private static final ZoneOffset[] QUARTER_HOUR_OFFSETS = new ZoneOffset[2 * MAX_OFFSET / QUARTER_HOUR + 1];
+
+    static {
+        for (int i = 0; i < QUARTER_HOUR_OFFSETS.length; i++) {
+            QUARTER_HOUR_OFFSETS[i] = ZoneOffset.ofTotalSeconds(i * QUARTER_HOUR - MAX_OFFSET);
+        }
+    }
+
+    /**
+     * Offset for OpenWeatherMap's {@code timezone} field; a missing value means UTC.
+     *
+     * @throws DateTimeException if the offset is beyond +/-18 hours
+     */
+    public ZoneOffset offset(Integer totalSeconds) {
+        if (totalSeconds == null) {
+            return ZoneOffset.UTC;
+        }
+        int seconds = totalSeconds;
+        if (seconds % QUARTER_HOUR == 0 && seconds >= -MAX_OFFSET && seconds <= MAX_OFFSET) {
+            return QUARTER_HOUR_OFFSETS[(seconds + MAX_OFFSET) / QUARTER_HOUR];
+        }
+        return ZoneOffset.ofTotalSeconds(seconds);
+    }
+
+    /** Clock time such as "5:32 AM", or {@link #UNKNOWN_TIME} if either value is missing or invalid. */
+    public String clockTime(Long epochSecond, Integer offsetSeconds) {
+        if (epochSecond == null || offsetSeconds == null) {
+            return UNKNOWN_TIME;
+        }
+        try {
+            return CLOCK.format(localDateTime(epochSecond, offset(offsetSeconds)));
+        } catch (DateTimeException e) {
+            return UNKNOWN_TIME;
+        }
+    }
+
+    /** Hour of day such as "3 PM". */
+    public String hour(long epochSecond, ZoneOffset offset) {
+        return HOUR.format(localDateTime(epochSecond, offset));
+    }
+
+    public LocalDate localDate(long epochSecond, ZoneOffset offset) {
+        return localDateTime(epochSecond, offset).toLocalDate();
+    }
+
+    /** Day of the week such as "Monday". */
+    public String dayName(LocalDate date) {
+        return DAY_NAME.format(date);
+    }
+
+    private static LocalDateTime localDateTime(long epochSecond, ZoneOffset offset) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, offset);
+    }
+}
@@ -0,0 +1,180 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.Forecast;
+import weatherPhApplication.java.model.GeocodingResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Thin wrapper around the OpenWeatherMap endpoints we use. All calls go through the
+ * shared pooled {@link RestTemplate} and are bound straight to the typed model, so
+ * fields we do not use are skipped while parsing. Failures surface as exceptions so
+ * callers can decide how to degrade.
+ * <p>
+ * The {@code *Async} variants use the pooled async client instead, which does not
+ * hold a thread while waiting for the response. Every call goes through the
+ * OpenWeatherMap {@link UpstreamGuard}, so calls fail fast while it is struggling,
+ * after taking a token from the {@link UpstreamRateLimiter} that keeps the shared key
+ * under its quota. Each call is timed and its response size recorded through
+ * {@link UpstreamMetrics}.
+ */
+@Component
+public class OpenWeatherClient {
+
+    private static final String UPSTREAM = "openweather";
+
+    private final RestTemplate restTemplate;
+    private final CloseableHttpAsyncClient asyncHttpClient;
+    private final ObjectMapper objectMapper;
+    private final UpstreamGuard guard;
+    private final UpstreamRateLimiter rateLimiter;
+    private final UpstreamMetrics metrics;
+
+    @Value("${app.openweather.base-url}")
+    private String baseUrl;
+
+    @Value("${app.openweather.key}")
+    private String apiKey;
+
+    public OpenWeatherClient(RestTemplate restTemplate,
+                             CloseableHttpAsyncClient asyncHttpClient,
+                             ObjectMapper objectMapper,
+                             @Qualifier("openWeatherGuard") UpstreamGuard guard,
+                             UpstreamRateLimiter rateLimiter,
+                             UpstreamMetrics metrics) {
+        this.restTemplate = restTemplate;
+        this.asyncHttpClient = asyncHttpClient;
+        this.objectMapper = objectMapper;
+        this.guard = guard;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+    }
+
+    public CurrentWeather currentWeather(double lat, double lon) {
+        return get(pointUri("/data/2.5/weather", lat, lon), "weather", CurrentWeather.class);
+    }
+
+    public Forecast forecast(double lat, double lon) {
+        return get(pointUri("/data/2.5/forecast", lat, lon), "forecast", Forecast.class);
+    }
+
+    public CompletableFuture<CurrentWeather> currentWeatherAsync(double lat, double lon) {
+        return getAsync(pointUri("/data/2.5/weather", lat, lon), "weather", CurrentWeather.class);
+    }
+
+    public CompletableFuture<Forecast> forecastAsync(double lat, double lon) {
+        return getAsync(pointUri("/data/2.5/forecast", lat, lon), "forecast", Forecast.class);
+    }
+
+    public List<GeocodingResult> geocode(String location) {
+        URI uri = UriComponentsBuilder.fromUriString(baseUrl)
+                .path("/geo/1.0/direct")
+                .queryParam("q", location + ",PH")
+                .queryParam("limit", 1)
+                .queryParam("appid", apiKey)
+                .encode()
+                .build()
+                .toUri();
+        return get(uri, "geocode", new TypeReference<List<GeocodingResult>>() {});
+    }
+
+    private <T> T get(URI uri, String operation, Class<T> type) {
+        return get(uri, operation, objectMapper.getTypeFactory().constructType(type));
+    }
+
+    private <T> T get(URI uri, String operation, TypeReference<T> type) {
+        return get(uri, operation, objectMapper.getTypeFactory().constructType(type));
+    }
+
+    private <T> T get(URI uri, String operation, JavaType type) {
+        rateLimiter.acquire();
+        byte[] body = guard.call(() -> metrics.time(UPSTREAM, operation, () -> restTemplate.getForObject(uri, byte[].class)));
+        if (body == null) {
+            return null;
+        }
+        metrics.recordResponseSize(UPSTREAM, operation, body.length);
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> CompletableFuture<T> getAsync(URI uri, String operation, Class<T> type) {
+        return rateLimiter.acquireAsync()
+                .thenCompose(token -> guard.callAsync(() -> metrics.timeAsync(UPSTREAM, operation,
+                        () -> send(uri).thenApply(OpenWeatherClient::requireSuccess))))
+                .thenApply(body -> {
+                    metrics.recordResponseSize(UPSTREAM, operation, body.length);
+                    try {
+                        return objectMapper.readValue(body, type);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private CompletableFuture<SimpleHttpResponse> send(URI uri) {
+        CompletableFuture<SimpleHttpResponse> response = new CompletableFuture<>();
+        asyncHttpClient.execute(SimpleRequestBuilder.get(uri).setHeader("Accept", "application/json").build(),
+                new FutureCallback<>() {
+                    @Override
+                    public void completed(SimpleHttpResponse result) {
+                        response.complete(result);
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        response.completeExceptionally(e);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        response.cancel(false);
+                    }
+                });
+        return response;
+    }
+
+    // Checked inside the guard, and raised as RestTemplate would, so the guard classifies both alike
+    private static byte[] requireSuccess(SimpleHttpResponse response) {
+        byte[] body = response.getBodyBytes() != null ? response.getBodyBytes() : new byte[0];
+        if (response.getCode() / 100 != 2) {
+            throw new RestClientResponseException("OpenWeatherMap returned HTTP " + response.getCode(),
+                    HttpStatusCode.valueOf(response.getCode()), "", HttpHeaders.EMPTY, body, null);
+        }
+        return body;
+    }
+
+    private URI pointUri(String path, double lat, double lon) {
+        return UriComponentsBuilder.fromUriString(baseUrl)
+                .path(path)
+                .queryParam("lat", lat)
+                .queryParam("lon", lon)
+                .queryParam("units", "metric")
+                .queryParam("appid", apiKey)
+                .encode()
+                .build()
+                .toUri();
+    }
+}
@@ -0,0 +1,217 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import weatherPhApplication.java.model.OutboundEmail;
+import weatherPhApplication.java.model.OutboundEmail.Status;
+import weatherPhApplication.java.repository.OutboundEmailRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbound email queue. Every poll claims the due emails, sends them in
+ * batches on the email pool, and either marks them sent or schedules a retry with
+ * exponential backoff. Emails Brevo rejects outright (4xx other than 429), or that
+ * run out of attempts, are marked failed and kept for inspection. Brevo rejects a
+ * batch as a whole, so a rejected batch is sent again one email at a time and only
+ * the emails rejected on their own fail.
+ * <p>
+ * Publishes {@code email.queue.depth} (emails waiting or in flight) and an
+ * {@code email.send} timer tagged with the result.
+ */
+@Component
+public class OutboundEmailWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundEmailWorker.class);
+
+    private static final List<Status> DUE = List.of(Status.PENDING, Status.SENDING);
+
+    @Value("${app.email.batch-size:10}")
+    private int batchSize;
+
+    @Value("${app.email.max-batches-per-poll:4}")
+    private int maxBatchesPerPoll;
+
+    @Value("${app.email.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.email.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${app.email.max-backoff:30m}")
+    private Duration maxBackoff;
+
+    @Value("${app.email.send-lease:2m}")
+    private Duration sendLease;
+
+    @Value("${app.email.retention:7d}")
+    private Duration retention;
+
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private ThreadPoolTaskExecutor emailExecutor;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Timer sent;
+    private final Timer failed;
+
+    public OutboundEmailWorker(MeterRegistry meterRegistry) {
+        Gauge.builder("email.queue.depth", queueDepth, AtomicLong::get).register(meterRegistry);
+        this.sent = Timer.builder("email.send").tag("result", "sent").register(meterRegistry);
+        this.failed = Timer.builder("email.send").tag("result", "failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.poll-interval:2s}")
+    public void drain() {
+        queueDepth.set(outboundEmailRepository.countByStatusIn(DUE));
+        Instant now = Instant.now();
+        List<OutboundEmail> due = outboundEmailRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                DUE, now, PageRequest.of(0, batchSize * maxBatchesPerPoll));
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<OutboundEmail> batch = new ArrayList<>(batchSize);
+        for (OutboundEmail email : due) {
+            OutboundEmail claimed = claim(email, now);
+            if (claimed != null) {
+                batch.add(claimed);
+            }
+            if (batch.size() == batchSize) {
+                submit(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            submit(batch);
+        }
+    }
+
+    @Scheduled(cron = "${app.email.purge-cron:0 0 3 * * *}")
+    public void purgeSent() {
+        int purged = outboundEmailRepository.deleteSentBefore(Instant.now().minus(retention));
+        if (purged > 0) {
+            logger.info("Purged {} sent emails older than {}", purged, retention);
+        }
+    }
+
+    /**
+     * Marks the email as being sent until the lease runs out. Returns null if another
+     * worker changed it first.
+     */
+    private OutboundEmail claim(OutboundEmail email, Instant now) {
+        email.setStatus(Status.SENDING);
+        email.setAttempts(email.getAttempts() + 1);
+        email.setNextAttemptAt(now.plus(sendLease));
+        try {
+            return outboundEmailRepository.saveAndFlush(email);
+        } catch (OptimisticLockingFailureException e) {
+            return null;
+        }
+    }
+
+    private void submit(List<OutboundEmail> batch) {
+        try {
+            emailExecutor.execute(() -> send(batch));
+        } catch (RuntimeException e) {
+            // Pool is full: the claims lapse after the lease and the emails are picked up again
+            logger.warn("Email pool is busy, deferring {} emails", batch.size());
+        }
+    }
+
+    private void send(List<OutboundEmail> batch) {
+        long start = System.nanoTime();
+        try {
+            emailService.deliver(batch);
+            sent.record(Duration.ofNanos(System.nanoTime() - start));
+            Instant now = Instant.now();
+            for (OutboundEmail email : batch) {
+                email.setStatus(Status.SENT);
+                email.setSentAt(now);
+                email.setLastError(null);
+                update(email);
+            }
+        } catch (RuntimeException e) {
+            failed.record(Duration.ofNanos(System.nanoTime() - start));
+            boolean retryable = isRetryable(e);
+            if (!retryable && batch.size() > 1) {
+                // One bad recipient fails the whole request, so find it by sending each on its own
+                logger.warn("Brevo rejected a batch of {} emails, sending them one at a time", batch.size());
+                for (OutboundEmail email : batch) {
+                    send(List.of(email));
+                }
+                return;
+            }
+            Instant now = Instant.now();
+            for (OutboundEmail email : batch) {
+                email.setLastError(truncate(rootMessage(e)));
+                if (retryable && email.getAttempts() < maxAttempts) {
+                    email.setStatus(Status.PENDING);
+                    email.setNextAttemptAt(now.plus(backoff(email.getAttempts())));
+                } else {
+                    email.setStatus(Status.FAILED);
+                    logger.error("Giving up on email {} to {} after {} attempts", email.getId(), email.getRecipient(), email.getAttempts());
+                }
+                update(email);
+            }
+        }
+    }
+
+    private void update(OutboundEmail email) {
+        try {
+            outboundEmailRepository.save(email);
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Email {} was reclaimed by another worker before its result was saved", email.getId());
+        }
+    }
+
+    /**
+     * initialBackoff, doubled for every further attempt, capped at maxBackoff.
+     */
+    Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpClientErrorException clientError) {
+                return clientError.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+            }
+        }
+        return true;
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -0,0 +1,132 @@
+package weatherPhApplication.java.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns a route geometry into a bounded set of points worth checking the weather at.
+ */
+@Component
+public class RouteSampler {
+
+    /**
+     * Upper bound on the marks laid along the route for each sample kept, so a very
+     * long route or a tiny interval cannot make the walk unbounded before thinning.
+     */
+    static final int MARKS_PER_SAMPLE = 50;
+
+    /**
+     * A sampled point and how far along the route it lies.
+     */
+    public record Sample(GeoPoint point, double distanceKm) {}
+
+    /**
+     * Decodes a Google/Mapbox encoded polyline with 5 digits of precision. The
+     * polyline comes from the browser, so it is rejected as soon as it holds more
+     * than {@code maxPoints} points or a point outside the valid coordinate range.
+     *
+     * @throws IllegalArgumentException if the string is not a valid polyline
+     */
+    public List<GeoPoint> decodePolyline(String encoded, int maxPoints) {
+        List<GeoPoint> points = new ArrayList<>();
+        int index = 0;
+        long lat = 0;
+        long lon = 0;
+        while (index < encoded.length()) {
+            if (points.size() == maxPoints) {
+                throw new IllegalArgumentException("Polyline has more than " + maxPoints + " points");
+            }
+            long[] latResult = decodeValue(encoded, index);
+            long[] lonResult = decodeValue(encoded, (int) latResult[1]);
+            lat += latResult[0];
+            lon += lonResult[0];
+            index = (int) lonResult[1];
+            GeoPoint point = new GeoPoint(lat / 1e5, lon / 1e5);
+            if (!GeoPoint.isValid(point.lat(), point.lon())) {
+                throw new IllegalArgumentException("Polyline point out of range: " + point);
+            }
+            points.add(point);
+        }
+        return points;
+    }
+
+    private long[] decodeValue(String encoded, int index) {
+        long result = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (index >= encoded.length() || shift > 60) {
+                throw new IllegalArgumentException("Malformed polyline");
+            }
+            b = encoded.charAt(index++) - 63;
+            if (b < 0 || b > 63) {
+                throw new IllegalArgumentException("Malformed polyline");
+            }
+            result |= (long) (b & 0x1f) << shift;
+            shift += 5;
+        } while (b >= 0x20);
+        long value = (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+        return new long[] {value, index};
+    }
+
+    /**
+     * Samples the path every {@code intervalKm}, skipping the two endpoints and any
+     * point whose geo cell is already covered (by an endpoint or an earlier sample).
+     * If more than {@code maxSamples} remain, they are thinned evenly along the route.
+     * The interval is widened when the route would otherwise need more than
+     * {@link #MARKS_PER_SAMPLE} marks per sample kept.
+     */
+    public List<Sample> sample(List<GeoPoint> path, double intervalKm, double cellSizeDegrees, int maxSamples) {
+        if (path.size() < 2 || intervalKm <= 0 || maxSamples <= 0) {
+            return List.of();
+        }
+        Set<GeoCell> seen = new HashSet<>();
+        GeoPoint start = path.get(0);
+        GeoPoint end = path.get(path.size() - 1);
+        seen.add(GeoCell.of(start.lat(), start.lon(), cellSizeDegrees));
+        seen.add(GeoCell.of(end.lat(), end.lon(), cellSizeDegrees));
+
+        double routeKm = 0;
+        for (int i = 1; i < path.size(); i++) {
+            routeKm += path.get(i - 1).distanceKmTo(path.get(i));
+        }
+        double stepKm = Math.max(intervalKm, routeKm / ((long) maxSamples * MARKS_PER_SAMPLE));
+
+        List<Sample> samples = new ArrayList<>();
+        double travelled = 0;
+        double nextMark = stepKm;
+        for (int i = 1; i < path.size(); i++) {
+            GeoPoint from = path.get(i - 1);
+            GeoPoint to = path.get(i);
+            double segmentKm = from.distanceKmTo(to);
+            while (segmentKm > 0 && nextMark <= travelled + segmentKm) {
+                GeoPoint point = from.interpolate(to, (nextMark - travelled) / segmentKm);
+                if (seen.add(GeoCell.of(point.lat(), point.lon(), cellSizeDegrees))) {
+                    samples.add(new Sample(point, nextMark));
+                }
+                nextMark += stepKm;
+            }
+            travelled += segmentKm;
+        }
+        // The last mark can coincide with the destination; it is covered by the endpoint lookup
+        double totalKm = travelled;
+        samples.removeIf(sample -> sample.distanceKm() >= totalKm);
+        return thin(samples, maxSamples);
+    }
+
+    private List<Sample> thin(List<Sample> samples, int maxSamples) {
+        if (samples.size() <= maxSamples) {
+            return samples;
+        }
+        List<Sample> thinned = new ArrayList<>(maxSamples);
+        double step = (double) samples.size() / maxSamples;
+        for (int i = 0; i < maxSamples; i++) {
+            thinned.add(samples.get((int) (i * step + step / 2)));
+        }
+        return thinned;
+    }
+}
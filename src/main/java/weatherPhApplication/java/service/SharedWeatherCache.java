@@ -0,0 +1,235 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import weatherPhApplication.java.model.CachedWeather;
+import weatherPhApplication.java.repository.CachedWeatherRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Second cache tier behind the in-memory {@link WeatherCache}s, kept in the
+ * application database as {@link CachedWeather} rows. Every instance reads it before
+ * going upstream, so a cell fetched by one instance is not fetched again by the
+ * others, and an instance that restarts comes back with what was cached before.
+ * <p>
+ * Writes are behind: {@link #put} only queues the value, and a scheduled flush
+ * compresses what is queued and saves it in batches. Repeated writes for the same
+ * cell before a flush collapse into the latest one, and once {@code max-pending}
+ * cells are queued further writes are dropped rather than held in memory. Database
+ * errors never fail a lookup; they are logged and the caller goes upstream.
+ * <p>
+ * Lookups are blocking JDBC reads. The non-blocking request paths use
+ * {@link #getAsync}, which runs them on the upstream executor.
+ */
+@Component
+public class SharedWeatherCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedWeatherCache.class);
+
+    public static final String CURRENT = "current";
+    public static final String FORECAST = "forecast";
+
+    /** A value read from the shared tier and when it expires. */
+    public record Hit<V>(V value, Instant expiresAt) {}
+
+    private record PendingWrite(String kind, Object value, Instant fetchedAt, Instant expiresAt) {}
+
+    private final CachedWeatherRepository repository;
+    private final CompressedJson json;
+    private final Executor executor;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxPending;
+
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final Map<String, Counter> hits = new HashMap<>();
+    private final Map<String, Counter> misses = new HashMap<>();
+    private final Map<String, Counter> puts = new HashMap<>();
+    private final Counter lookupErrors;
+    private final Counter dropped;
+    private final Counter writeErrors;
+
+    @Autowired
+    public SharedWeatherCache(CachedWeatherRepository repository,
+                              ObjectMapper objectMapper,
+                              @Value("${app.weather.shared-cache.enabled:true}") boolean enabled,
+                              @Value("${app.weather.shared-cache.batch-size:50}") int batchSize,
+                              @Value("${app.weather.shared-cache.max-pending:2000}") int maxPending,
+                              @Qualifier("upstreamExecutor") ThreadPoolTaskExecutor upstreamExecutor,
+                              MeterRegistry meterRegistry) {
+        this(repository, objectMapper, enabled, batchSize, maxPending, (Executor) upstreamExecutor, meterRegistry);
+    }
+
+    SharedWeatherCache(CachedWeatherRepository repository,
+                       ObjectMapper objectMapper,
+                       boolean enabled,
+                       int batchSize,
+                       int maxPending,
+                       Executor executor,
+                       MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.json = new CompressedJson(objectMapper);
+        this.executor = executor;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        for (String kind : List.of(CURRENT, FORECAST)) {
+            String name = "weather." + kind + ".shared";
+            hits.put(kind, Counter.builder("cache.gets").tag("cache", name).tag("result", "hit").register(meterRegistry));
+            misses.put(kind, Counter.builder("cache.gets").tag("cache", name).tag("result", "miss").register(meterRegistry));
+            puts.put(kind, Counter.builder("cache.puts").tag("cache", name).register(meterRegistry));
+        }
+        this.lookupErrors = Counter.builder("cache.shared.errors").tag("operation", "lookup").register(meterRegistry);
+        this.writeErrors = Counter.builder("cache.shared.errors").tag("operation", "write").register(meterRegistry);
+        this.dropped = Counter.builder("cache.shared.dropped").register(meterRegistry);
+        Gauge.builder("cache.shared.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * The shared value for the cell if it is still valid at {@code validAt}, otherwise
+     * null. Refresh-ahead passes a time in the future, so a value that is about to
+     * expire does not count as a refresh.
+     */
+    public <V> Hit<V> get(String kind, GeoCell cell, Class<V> type, Instant validAt) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            Optional<CachedWeather> row = repository.findByIdAndExpiresAtAfter(id(kind, cell), validAt);
+            if (row.isEmpty()) {
+                misses.get(kind).increment();
+                return null;
+            }
+            hits.get(kind).increment();
+            return new Hit<>(json.read(row.get().getPayload(), type), row.get().getExpiresAt());
+        } catch (RuntimeException e) {
+            lookupErrors.increment();
+            logger.warn("Shared cache lookup for {} {} failed: {}", kind, cell, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * {@link #get} run on the upstream executor, so the calling thread never waits on
+     * the database. Completes with null when the executor is saturated, which sends
+     * the caller upstream as a miss would.
+     */
+    public <V> CompletableFuture<Hit<V>> getAsync(String kind, GeoCell cell, Class<V> type, Instant validAt) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> get(kind, cell, type, validAt), executor);
+        } catch (RejectedExecutionException e) {
+            lookupErrors.increment();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Queues the value to be written on the next flush.
+     */
+    public void put(String kind, GeoCell cell, Object value, Instant fetchedAt, Instant expiresAt) {
+        if (!enabled) {
+            return;
+        }
+        String id = id(kind, cell);
+        if (pending.size() >= maxPending && !pending.containsKey(id)) {
+            dropped.increment();
+            return;
+        }
+        pending.put(id, new PendingWrite(kind, value, fetchedAt, expiresAt));
+    }
+
+    @Scheduled(fixedDelayString = "${app.weather.shared-cache.flush-interval:1s}")
+    public void flush() {
+        List<CachedWeather> batch = new ArrayList<>(batchSize);
+        for (String id : pending.keySet()) {
+            PendingWrite write = pending.remove(id);
+            if (write == null) {
+                continue;
+            }
+            CachedWeather row = new CachedWeather(id, write.kind());
+            row.setPayload(json.write(write.value()));
+            row.setFetchedAt(write.fetchedAt());
+            row.setExpiresAt(write.expiresAt());
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                save(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            save(batch);
+        }
+    }
+
+    private void save(List<CachedWeather> batch) {
+        try {
+            repository.upsertAll(batch);
+            batch.forEach(row -> puts.get(row.getKind()).increment());
+            return;
+        } catch (DataAccessException e) {
+            // Most likely another instance inserted one of the cells first; save the rest one by one
+            logger.debug("Shared cache batch of {} failed, retrying rows individually: {}", batch.size(), e.getMessage());
+        }
+        for (CachedWeather row : batch) {
+            try {
+                repository.upsertAll(List.of(row));
+                puts.get(row.getKind()).increment();
+            } catch (DataAccessException e) {
+                writeErrors.increment();
+                logger.warn("Shared cache write for {} failed: {}", row.getId(), e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.weather.shared-cache.purge-interval:15m}")
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int purged = repository.deleteExpiredBefore(Instant.now());
+            if (purged > 0) {
+                logger.debug("Purged {} expired shared cache entries", purged);
+            }
+        } catch (DataAccessException e) {
+            // Expired rows are never served, so they can wait for the next run
+            writeErrors.increment();
+            logger.warn("Shared cache purge failed: {}", e.getMessage());
+        }
+    }
+
+    /** Writes what is still queued, so it survives the shutdown. */
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    static String id(String kind, GeoCell cell) {
+        return kind + ":" + cell.cellSize() + ":" + cell.key();
+    }
+}
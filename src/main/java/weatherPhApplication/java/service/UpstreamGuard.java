@@ -0,0 +1,231 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.RestClientResponseException;
+import weatherPhApplication.java.config.ResilienceProperties;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker plus bulkhead for one upstream. The breaker opens when the failure
+ * rate over the last {@code windowSize} calls reaches the threshold, rejects calls
+ * for {@code openDuration}, then lets a few trial calls through and closes again if
+ * they all succeed. The bulkhead caps how many calls are in flight at once. Either
+ * way a rejected call fails immediately with {@link UpstreamRejectedException}
+ * instead of waiting on a struggling upstream.
+ * <p>
+ * Only calls that say something about the upstream's health count as failures.
+ * A 4xx response other than 429 means the request itself was bad (e.g. coordinates
+ * out of range, an invalid recipient), so it is recorded as a success and the
+ * exception is passed on to the caller unchanged.
+ * <p>
+ * Publishes {@code upstream.circuit.state} (0 closed, 1 half-open, 2 open),
+ * {@code upstream.calls{outcome}} and {@code upstream.rejected{reason}}, each tagged
+ * with the upstream name.
+ */
+public class UpstreamGuard {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final String name;
+    private final ResilienceProperties.Upstream settings;
+    private final Clock clock;
+    private final Semaphore bulkhead;
+
+    // Ring buffer of recent outcomes, true = failure
+    private final boolean[] window;
+    private int windowIndex;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private Instant openedAt;
+    private int trialsStarted;
+    private int trialSuccesses;
+
+    private final Counter successes;
+    private final Counter failuresCounter;
+    private final Counter rejectedOpen;
+    private final Counter rejectedFull;
+
+    public UpstreamGuard(String name, ResilienceProperties.Upstream settings, MeterRegistry meterRegistry) {
+        this(name, settings, meterRegistry, Clock.systemUTC());
+    }
+
+    public UpstreamGuard(String name, ResilienceProperties.Upstream settings, MeterRegistry meterRegistry, Clock clock) {
+        this.name = name;
+        this.settings = settings;
+        this.clock = clock;
+        this.bulkhead = new Semaphore(settings.maxConcurrentCalls());
+        this.window = new boolean[settings.windowSize()];
+        this.successes = Counter.builder("upstream.calls").tag("upstream", name).tag("outcome", "success").register(meterRegistry);
+        this.failuresCounter = Counter.builder("upstream.calls").tag("upstream", name).tag("outcome", "failure").register(meterRegistry);
+        this.rejectedOpen = Counter.builder("upstream.rejected").tag("upstream", name).tag("reason", "circuit_open").register(meterRegistry);
+        this.rejectedFull = Counter.builder("upstream.rejected").tag("upstream", name).tag("reason", "bulkhead_full").register(meterRegistry);
+        Gauge.builder("upstream.circuit.state", this, guard -> guard.state().ordinal()).tag("upstream", name).register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> action) {
+        acquire();
+        try {
+            T result = action.get();
+            onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            onOutcome(e);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> action) {
+        try {
+            acquire();
+        } catch (UpstreamRejectedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> call;
+        try {
+            call = action.get();
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            onOutcome(e);
+            return CompletableFuture.failedFuture(e);
+        }
+        return call.whenComplete((result, error) -> {
+            bulkhead.release();
+            onOutcome(error);
+        });
+    }
+
+    /**
+     * Whether an exception thrown by a call means the upstream is unhealthy: error
+     * statuses other than client errors, and anything that is not a response at all
+     * (timeouts, connection and I/O errors).
+     */
+    static boolean isFailure(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RestClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status / 100 != 4 || status == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        return true;
+    }
+
+    private void onOutcome(Throwable error) {
+        if (error == null || !isFailure(error)) {
+            onSuccess();
+        } else {
+            onFailure();
+        }
+    }
+
+    public synchronized State state() {
+        if (state == State.OPEN && openDurationElapsed()) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private void acquire() {
+        if (!permit()) {
+            rejectedOpen.increment();
+            throw new UpstreamRejectedException(name + " is unavailable (circuit open)");
+        }
+        if (!bulkhead.tryAcquire()) {
+            releaseTrial();
+            rejectedFull.increment();
+            throw new UpstreamRejectedException(name + " is busy (bulkhead full)");
+        }
+    }
+
+    private synchronized boolean permit() {
+        if (state == State.OPEN && openDurationElapsed()) {
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= settings.halfOpenCalls()) {
+                return false;
+            }
+            trialsStarted++;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    private synchronized void releaseTrial() {
+        if (state == State.HALF_OPEN && trialsStarted > 0) {
+            trialsStarted--;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        successes.increment();
+        if (state == State.HALF_OPEN) {
+            if (++trialSuccesses >= settings.halfOpenCalls()) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    private synchronized void onFailure() {
+        failuresCounter.increment();
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED
+                && recorded >= settings.minimumCalls()
+                && failures * 100 >= settings.failureRateThreshold() * recorded) {
+            open();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window.length) {
+            if (window[windowIndex]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            failures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.instant();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowIndex = 0;
+        recorded = 0;
+        failures = 0;
+    }
+
+    private boolean openDurationElapsed() {
+        return !clock.instant().isBefore(openedAt.plus(settings.openDuration()));
+    }
+}
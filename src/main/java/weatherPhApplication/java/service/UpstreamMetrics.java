@@ -0,0 +1,67 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Timings and response sizes of calls to upstream services. Calls are timed under
+ * {@code upstream.requests}, tagged with the upstream, the operation (e.g.
+ * {@code weather}, {@code geocode}, {@code send}) and whether they succeeded; bytes
+ * received are recorded under {@code upstream.response.size}. The latency histogram
+ * is switched on in {@code application.properties}.
+ */
+@Component
+public class UpstreamMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public UpstreamMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T time(String upstream, String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(timer(upstream, operation, outcome));
+        }
+    }
+
+    public <T> CompletableFuture<T> timeAsync(String upstream, String operation, Supplier<CompletableFuture<T>> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            sample.stop(timer(upstream, operation, "error"));
+            throw e;
+        }
+        return result.whenComplete((value, error) -> sample.stop(timer(upstream, operation, error == null ? "success" : "error")));
+    }
+
+    public void recordResponseSize(String upstream, String operation, long bytes) {
+        DistributionSummary.builder("upstream.response.size")
+                .baseUnit("bytes")
+                .tag("upstream", upstream)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private Timer timer(String upstream, String operation, String outcome) {
+        return Timer.builder("upstream.requests")
+                .tag("upstream", upstream)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
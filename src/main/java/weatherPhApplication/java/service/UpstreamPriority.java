@@ -0,0 +1,38 @@
+package weatherPhApplication.java.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Who an upstream call is for, used by {@link UpstreamRateLimiter} to decide who gets
+ * the last tokens. Route advisories win over dashboard API calls, which win over
+ * background refreshes. The priority travels with the thread making the call; code
+ * that does not set one runs as {@link #API}.
+ */
+public enum UpstreamPriority {
+
+    ROUTE, API, BACKGROUND;
+
+    private static final ThreadLocal<UpstreamPriority> CURRENT = new ThreadLocal<>();
+
+    public static UpstreamPriority current() {
+        UpstreamPriority priority = CURRENT.get();
+        return priority != null ? priority : API;
+    }
+
+    /**
+     * Runs the action with this priority, restoring the previous one afterwards.
+     */
+    public <T> T call(Supplier<T> action) {
+        UpstreamPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import weatherPhApplication.java.model.UpstreamQuotaWindow;
+import weatherPhApplication.java.repository.UpstreamQuotaWindowRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket in front of the shared OpenWeatherMap key. Tokens refill at
+ * {@code per-minute} and the bucket holds at most {@code burst}, so a spike of cache
+ * misses is smoothed out instead of tripping the provider's 429s.
+ * <p>
+ * Lower priorities must leave a reserve in the bucket: dashboard calls cannot take
+ * the last {@code api-reserve} tokens, background refreshes the last
+ * {@code background-reserve}. A caller that finds no token waits briefly for one and
+ * is otherwise rejected with {@link UpstreamRejectedException}, which the weather
+ * service answers from cache.
+ * <p>
+ * With {@code cluster.enabled}, tokens do not refill by time. Instead each instance
+ * leases chunks of the per-minute budget from a shared {@link UpstreamQuotaWindow}
+ * row in the database, so all instances together stay under the key's limit. One
+ * thread at a time takes a lease, without holding the bucket's lock, so callers
+ * that still find a token are never held up by the database round-trip.
+ */
+@Component
+public class UpstreamRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamRateLimiter.class);
+
+    private static final String UPSTREAM = "openweather";
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long LEASE_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final boolean enabled;
+    private final int perMinute;
+    private final int burst;
+    private final Map<UpstreamPriority, Integer> reserves = new EnumMap<>(UpstreamPriority.class);
+    private final Map<UpstreamPriority, Duration> maxWaits = new EnumMap<>(UpstreamPriority.class);
+    private final boolean clusterEnabled;
+    private final int leaseSize;
+
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    private long leasedMinute = -1;
+    private long exhaustedMinute = -1;
+    private boolean leasing;
+
+    @Autowired
+    private UpstreamQuotaWindowRepository quotaWindowRepository;
+
+    private final Map<UpstreamPriority, Counter> acquired = new EnumMap<>(UpstreamPriority.class);
+    private final Map<UpstreamPriority, Counter> rejected = new EnumMap<>(UpstreamPriority.class);
+
+    public UpstreamRateLimiter(@Value("${app.openweather.rate-limit.enabled:true}") boolean enabled,
+                               @Value("${app.openweather.rate-limit.per-minute:55}") int perMinute,
+                               @Value("${app.openweather.rate-limit.burst:10}") int burst,
+                               @Value("${app.openweather.rate-limit.api-reserve:2}") int apiReserve,
+                               @Value("${app.openweather.rate-limit.background-reserve:5}") int backgroundReserve,
+                               @Value("${app.openweather.rate-limit.max-wait:1s}") Duration maxWait,
+                               @Value("${app.openweather.rate-limit.background-max-wait:10s}") Duration backgroundMaxWait,
+                               @Value("${app.openweather.rate-limit.cluster.enabled:false}") boolean clusterEnabled,
+                               @Value("${app.openweather.rate-limit.cluster.lease-size:10}") int leaseSize,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.perMinute = perMinute;
+        this.burst = burst;
+        this.tokens = clusterEnabled ? 0 : burst;
+        this.clusterEnabled = clusterEnabled;
+        this.leaseSize = leaseSize;
+        reserves.put(UpstreamPriority.ROUTE, 0);
+        reserves.put(UpstreamPriority.API, apiReserve);
+        reserves.put(UpstreamPriority.BACKGROUND, backgroundReserve);
+        maxWaits.put(UpstreamPriority.ROUTE, maxWait);
+        maxWaits.put(UpstreamPriority.API, maxWait);
+        maxWaits.put(UpstreamPriority.BACKGROUND, backgroundMaxWait);
+        for (UpstreamPriority priority : UpstreamPriority.values()) {
+            String tag = priority.name().toLowerCase();
+            acquired.put(priority, Counter.builder("upstream.ratelimit.acquired")
+                    .tag("upstream", UPSTREAM).tag("priority", tag).register(meterRegistry));
+            rejected.put(priority, Counter.builder("upstream.ratelimit.rejected")
+                    .tag("upstream", UPSTREAM).tag("priority", tag).register(meterRegistry));
+        }
+        Gauge.builder("upstream.ratelimit.tokens", this, UpstreamRateLimiter::availableTokens)
+                .tag("upstream", UPSTREAM).register(meterRegistry);
+    }
+
+    /**
+     * Takes a token for the calling thread's {@link UpstreamPriority}, waiting up to
+     * that priority's max wait for one to become available.
+     */
+    public void acquire() {
+        if (!enabled) {
+            return;
+        }
+        UpstreamPriority priority = UpstreamPriority.current();
+        long deadline = System.nanoTime() + maxWaits.get(priority).toNanos();
+        while (true) {
+            long waitNanos = tryTake(priority);
+            if (waitNanos == 0) {
+                acquired.get(priority).increment();
+                return;
+            }
+            if (System.nanoTime() + waitNanos > deadline) {
+                throw reject(priority);
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject(priority);
+            }
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #acquire()}: the future completes once a token is
+     * taken, or fails with {@link UpstreamRejectedException}. No thread waits meanwhile.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        UpstreamPriority priority = UpstreamPriority.current();
+        CompletableFuture<Void> token = new CompletableFuture<>();
+        acquireLater(priority, System.nanoTime() + maxWaits.get(priority).toNanos(), token);
+        return token;
+    }
+
+    private void acquireLater(UpstreamPriority priority, long deadline, CompletableFuture<Void> token) {
+        long waitNanos;
+        try {
+            waitNanos = tryTake(priority);
+        } catch (RuntimeException e) {
+            token.completeExceptionally(e);
+            return;
+        }
+        if (waitNanos == 0) {
+            acquired.get(priority).increment();
+            token.complete(null);
+        } else if (System.nanoTime() + waitNanos > deadline) {
+            token.completeExceptionally(reject(priority));
+        } else {
+            CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> acquireLater(priority, deadline, token));
+        }
+    }
+
+    /**
+     * Takes a token if this priority may, otherwise returns how long to wait before
+     * trying again.
+     */
+    private long tryTake(UpstreamPriority priority) {
+        int needed = 1 + reserves.get(priority);
+        if (!clusterEnabled) {
+            return takeRefilled(needed);
+        }
+        long minute = Math.floorDiv(epochNanos(), MINUTE_NANOS);
+        synchronized (this) {
+            startWindow(minute);
+            if (tokens >= needed) {
+                tokens -= 1;
+                return 0;
+            }
+            if (exhaustedMinute == minute) {
+                return untilNextWindow();
+            }
+            if (leasing) {
+                // Another thread is already leasing; its tokens will be here shortly
+                return LEASE_RETRY_NANOS;
+            }
+            leasing = true;
+        }
+        // A database round-trip, so the lock is not held while it runs
+        int granted = lease(minute, Math.max(leaseSize, needed));
+        synchronized (this) {
+            leasing = false;
+            if (leasedMinute != minute) {
+                // The window closed meanwhile and what was granted is spent with it; try the new one
+                return 1;
+            }
+            tokens += granted;
+            if (granted == 0) {
+                exhaustedMinute = minute;
+            }
+            if (tokens >= needed) {
+                tokens -= 1;
+                return 0;
+            }
+            return untilNextWindow();
+        }
+    }
+
+    private synchronized long takeRefilled(int needed) {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * (double) perMinute / MINUTE_NANOS);
+        refilledAt = now;
+        if (tokens >= needed) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((needed - tokens) * MINUTE_NANOS / perMinute);
+    }
+
+    private void startWindow(long minute) {
+        if (minute > leasedMinute) {
+            // Leftovers belong to the previous window's budget
+            tokens = 0;
+            leasedMinute = minute;
+        }
+    }
+
+    private static long untilNextWindow() {
+        // Nothing more to lease this minute; try again when the next window opens
+        return Math.max(1, MINUTE_NANOS - Math.floorMod(epochNanos(), MINUTE_NANOS));
+    }
+
+    private int lease(long minute, int wanted) {
+        String id = UPSTREAM + ":" + minute;
+        for (int attempt = 0; attempt < 3; attempt++) {
+            try {
+                UpstreamQuotaWindow window = quotaWindowRepository.findById(id)
+                        .orElseGet(() -> new UpstreamQuotaWindow(id, Instant.ofEpochSecond(minute * 60)));
+                int granted = Math.min(wanted, perMinute - window.getUsed());
+                if (granted <= 0) {
+                    return 0;
+                }
+                window.setUsed(window.getUsed() + granted);
+                quotaWindowRepository.saveAndFlush(window);
+                return granted;
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                // Another instance leased from the same window first; read it again
+            } catch (RuntimeException e) {
+                logger.warn("Could not lease upstream quota: {}", e.getMessage());
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.openweather.rate-limit.cluster.cleanup-interval:1h}")
+    public void deleteOldWindows() {
+        if (clusterEnabled) {
+            quotaWindowRepository.deleteWindowsBefore(Instant.now().minus(Duration.ofHours(1)));
+        }
+    }
+
+    private UpstreamRejectedException reject(UpstreamPriority priority) {
+        rejected.get(priority).increment();
+        return new UpstreamRejectedException(UPSTREAM + " rate limit reached");
+    }
+
+    private synchronized double availableTokens() {
+        return tokens;
+    }
+
+    private static long epochNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+}
@@ -0,0 +1,12 @@
+package weatherPhApplication.java.service;
+
+/**
+ * Thrown instead of calling an upstream whose circuit is open or whose bulkhead is
+ * full. The call was never attempted.
+ */
+public class UpstreamRejectedException extends RuntimeException {
+
+    public UpstreamRejectedException(String message) {
+        super(message);
+    }
+}
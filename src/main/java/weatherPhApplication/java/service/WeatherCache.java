@@ -0,0 +1,262 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Size-bounded, TTL-aware in-memory cache keyed by {@link GeoCell}.
+ * Entries are kept in access order and the least recently used cell is evicted
+ * once the cache is full. Hits, misses, puts and evictions are published under
+ * the standard Micrometer {@code cache.*} meters, tagged with the cache name.
+ * <p>
+ * A cache built with a {@code maxStale} window keeps expired entries around for
+ * that long so {@link #lookup(GeoCell)} can serve them while a refresh is under way
+ * (stale-while-revalidate). Served lookups are counted under {@code cache.served},
+ * tagged {@code freshness=fresh|stale}. Each entry also counts its hits since it was
+ * last written, which {@link #refreshCandidates(Duration, int)} uses to pick the
+ * popular entries worth refreshing ahead of expiry.
+ * <p>
+ * With a {@code staleIfError} window, expired entries are kept even longer, but only
+ * handed out through {@link #lastGood(GeoCell)} when fetching a replacement failed.
+ * <p>
+ * Pinned cells are never evicted for size; they are meant for a small set of
+ * locations that something else keeps refreshed.
+ */
+public class WeatherCache<V> {
+
+    private final int maxEntries;
+    private final Duration maxStale;
+    private final Duration retention;
+    private final Clock clock;
+    private final LinkedHashMap<GeoCell, Slot<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<GeoCell> pinned = new HashSet<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter evictions;
+    private final Counter servedFresh;
+    private final Counter servedStale;
+    private final Counter servedStaleIfError;
+
+    public WeatherCache(String name, int maxEntries, MeterRegistry meterRegistry) {
+        this(name, maxEntries, Duration.ZERO, meterRegistry, Clock.systemUTC());
+    }
+
+    public WeatherCache(String name, int maxEntries, MeterRegistry meterRegistry, Clock clock) {
+        this(name, maxEntries, Duration.ZERO, meterRegistry, clock);
+    }
+
+    public WeatherCache(String name, int maxEntries, Duration maxStale, MeterRegistry meterRegistry) {
+        this(name, maxEntries, maxStale, meterRegistry, Clock.systemUTC());
+    }
+
+    public WeatherCache(String name, int maxEntries, Duration maxStale, MeterRegistry meterRegistry, Clock clock) {
+        this(name, maxEntries, maxStale, Duration.ZERO, meterRegistry, clock);
+    }
+
+    public WeatherCache(String name, int maxEntries, Duration maxStale, Duration staleIfError, MeterRegistry meterRegistry) {
+        this(name, maxEntries, maxStale, staleIfError, meterRegistry, Clock.systemUTC());
+    }
+
+    public WeatherCache(String name, int maxEntries, Duration maxStale, Duration staleIfError,
+                        MeterRegistry meterRegistry, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.maxStale = maxStale;
+        this.retention = maxStale.compareTo(staleIfError) >= 0 ? maxStale : staleIfError;
+        this.clock = clock;
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss").register(meterRegistry);
+        this.puts = Counter.builder("cache.puts").tag("cache", name).register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", name).register(meterRegistry);
+        this.servedFresh = Counter.builder("cache.served").tag("cache", name).tag("freshness", "fresh").register(meterRegistry);
+        this.servedStale = Counter.builder("cache.served").tag("cache", name).tag("freshness", "stale").register(meterRegistry);
+        this.servedStaleIfError = Counter.builder("cache.served").tag("cache", name).tag("freshness", "stale-if-error").register(meterRegistry);
+        Gauge.builder("cache.size", this, WeatherCache::size).tag("cache", name).register(meterRegistry);
+        // Since startup; for a recent window, divide the rates of the cache.gets counters instead
+        Gauge.builder("cache.hit.ratio", this, WeatherCache::hitRatio).tag("cache", name).register(meterRegistry);
+    }
+
+    double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    /**
+     * Returns the cached value for the cell, or null if there is none or it has expired.
+     */
+    public synchronized V get(GeoCell cell) {
+        Entry<V> entry = find(cell, false);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Returns the entry for the cell if it is fresh or still within the stale window,
+     * otherwise null. Callers check {@link Entry#isFresh(Instant)} to decide whether
+     * to refresh it.
+     */
+    public synchronized Entry<V> lookup(GeoCell cell) {
+        return find(cell, true);
+    }
+
+    private Entry<V> find(GeoCell cell, boolean allowStale) {
+        Slot<V> slot = entries.get(cell);
+        Instant now = clock.instant();
+        if (slot != null && !slot.entry.isServable(now, retention)) {
+            entries.remove(cell);
+            slot = null;
+        }
+        if (slot == null || !(slot.entry.isFresh(now) || allowStale && slot.entry.isServable(now, maxStale))) {
+            misses.increment();
+            return null;
+        }
+        slot.hits++;
+        hits.increment();
+        if (slot.entry.isFresh(now)) {
+            servedFresh.increment();
+        } else {
+            servedStale.increment();
+        }
+        return slot.entry;
+    }
+
+    /**
+     * The last value stored for the cell, however old, as long as it is within the
+     * stale-if-error window. Meant for when fetching a fresh value just failed.
+     */
+    public synchronized V lastGood(GeoCell cell) {
+        Slot<V> slot = entries.get(cell);
+        if (slot == null || !slot.entry.isServable(clock.instant(), retention)) {
+            return null;
+        }
+        servedStaleIfError.increment();
+        return slot.entry.value();
+    }
+
+    /**
+     * The entry currently stored for the cell, fresh or not, without counting as a
+     * lookup. Meant for reading metadata about a value obtained through a lookup.
+     */
+    public synchronized Entry<V> peek(GeoCell cell) {
+        Slot<V> slot = entries.get(cell);
+        return slot == null ? null : slot.entry;
+    }
+
+    public synchronized void put(GeoCell cell, V value, Instant expiresAt) {
+        entries.put(cell, new Slot<>(new Entry<>(value, clock.instant(), expiresAt)));
+        puts.increment();
+        Iterator<GeoCell> eldest = entries.keySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            if (!pinned.contains(eldest.next())) {
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Exempts the cell from size-based eviction. Expiry still applies.
+     */
+    public synchronized void pin(GeoCell cell) {
+        pinned.add(cell);
+    }
+
+    /**
+     * Cells that expire within {@code window} (or already have, but are still
+     * servable) and were read at least {@code minHits} times since they were written.
+     * Reading the candidates does not change their access order.
+     */
+    public synchronized List<GeoCell> refreshCandidates(Duration window, int minHits) {
+        Instant now = clock.instant();
+        Instant horizon = now.plus(window);
+        List<GeoCell> candidates = new ArrayList<>();
+        for (Map.Entry<GeoCell, Slot<V>> e : entries.entrySet()) {
+            Slot<V> slot = e.getValue();
+            if (slot.hits >= minHits
+                    && slot.entry.expiresAt().isBefore(horizon)
+                    && slot.entry.isServable(now, maxStale)) {
+                candidates.add(e.getKey());
+            }
+        }
+        return candidates;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Instant now() {
+        return clock.instant();
+    }
+
+    /**
+     * A cached value with its fetch and expiry times. The entity tag is derived from
+     * the value on first use and then kept with the entry, since the value never
+     * changes once cached.
+     */
+    public static final class Entry<V> {
+
+        private final V value;
+        private final Instant fetchedAt;
+        private final Instant expiresAt;
+        private volatile String etag;
+
+        Entry(V value, Instant fetchedAt, Instant expiresAt) {
+            this.value = value;
+            this.fetchedAt = fetchedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public V value() {
+            return value;
+        }
+
+        public Instant fetchedAt() {
+            return fetchedAt;
+        }
+
+        public Instant expiresAt() {
+            return expiresAt;
+        }
+
+        public boolean isFresh(Instant now) {
+            return now.isBefore(expiresAt);
+        }
+
+        boolean isServable(Instant now, Duration maxStale) {
+            return now.isBefore(expiresAt.plus(maxStale));
+        }
+
+        public String etag(Function<? super V, String> compute) {
+            String tag = etag;
+            if (tag == null) {
+                // Racing callers compute the same tag, so no lock is needed
+                tag = compute.apply(value);
+                etag = tag;
+            }
+            return tag;
+        }
+    }
+
+    private static final class Slot<V> {
+        private final Entry<V> entry;
+        private int hits;
+
+        private Slot(Entry<V> entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -1,29 +1,91 @@
 package weatherPhApplication.java.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.Forecast;
+import weatherPhApplication.java.model.ForecastSummary;
+import weatherPhApplication.java.model.GeocodingResult;
 import weatherPhApplication.java.model.RouteWeatherResponse;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @Service
 public class WeatherService {
 
-    @Value("${app.openweather.key}")
-    private String openWeatherApiKey;
+    private static final Logger logger = LoggerFactory.getLogger(WeatherService.class);
 
-    public RouteWeatherResponse getRouteWeather(String origin, String destination) {
-        RestTemplate restTemplate = new RestTemplate();
+    @Value("${app.weather.cache.cell-size-degrees:0.01}")
+    private double cellSizeDegrees;
+
+    @Value("${app.weather.cache.current.max-age-seconds:600}")
+    private long currentMaxAgeSeconds;
+
+    @Value("${app.weather.cache.current.min-ttl-seconds:60}")
+    private long currentMinTtlSeconds;
+
+    @Value("${app.weather.cache.forecast.max-age-seconds:3600}")
+    private long forecastMaxAgeSeconds;
+
+    @Value("${app.weather.cache.forecast.refresh-ahead-seconds:600}")
+    private long forecastRefreshAheadSeconds;
+
+    @Value("${app.weather.cache.forecast.refresh-min-hits:2}")
+    private int forecastRefreshMinHits;
+
+    @Autowired
+    private WeatherCache<CurrentWeather> currentWeatherCache;
+
+    @Autowired
+    private WeatherCache<Forecast> forecastCache;
+
+    @Autowired
+    private WeatherCache<ForecastSummary> forecastSummaryCache;
+
+    @Autowired
+    private SharedWeatherCache sharedCache;
+
+    @Autowired
+    private ForecastAggregator forecastAggregator;
+
+    @Autowired
+    private OpenWeatherClient openWeatherClient;
+
+    @Autowired
+    private GeocodingIndex geocodingIndex;
+
+    @Autowired
+    private ThreadPoolTaskExecutor upstreamExecutor;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-        Map<String, Object> originWeather = fetchWeatherByLocationName(restTemplate, origin);
-        Map<String, Object> destinationWeather = fetchWeatherByLocationName(restTemplate, destination);
+    private final SingleFlight<GeoCell, CurrentWeather> currentWeatherFlights;
+    private final SingleFlight<GeoCell, Forecast> forecastFlights;
+
+    public WeatherService(MeterRegistry meterRegistry) {
+        this.currentWeatherFlights = new SingleFlight<>("weather.current", meterRegistry);
+        this.forecastFlights = new SingleFlight<>("weather.forecast", meterRegistry);
+    }
+
+    public RouteWeatherResponse getRouteWeather(String origin, String destination) {
+        CurrentWeather originWeather = fetchWeatherByLocationName(origin);
+        CurrentWeather destinationWeather = fetchWeatherByLocationName(destination);
 
         RouteWeatherResponse response = new RouteWeatherResponse();
         response.setOrigin(origin);
@@ -34,53 +96,445 @@ public class WeatherService {
         return response;
     }
 
-    @SuppressWarnings("unchecked")
-    public Map<String, Object> getWeather(double lat, double lon) {
+    /**
+     * Current weather for a point. Lookups are served from a cache keyed on the
+     * surrounding {@link GeoCell}, so nearby coordinates share one upstream result,
+     * and concurrent misses for the same cell share a single upstream call. Like
+     * forecasts, an expired entry is served briefly while it is refetched.
+     */
+    public CurrentWeather getWeather(double lat, double lon) {
+        GeoCell cell = GeoCell.of(lat, lon, cellSizeDegrees);
+        WeatherCache.Entry<CurrentWeather> cached = currentWeatherCache.lookup(cell);
+        if (cached != null) {
+            if (!cached.isFresh(currentWeatherCache.now())) {
+                refreshAsync(cell, currentWeatherFlights, () -> loadCurrentWeather(cell, currentWeatherCache.now()));
+            }
+            return cached.value();
+        }
+        return currentWeatherFlights.execute(cell, () -> loadCurrentWeather(cell, currentWeatherCache.now()));
+    }
+
+    /**
+     * Reloads the current weather and forecast for a point regardless of what this
+     * instance has cached, and stores both. Used to keep hot locations warm. Values in
+     * the shared tier that stay valid for at least {@code validFor} are taken as they
+     * are, so instances warming the same locations only go upstream once between them.
+     *
+     * @return true if both lookups succeeded
+     */
+    public boolean refresh(double lat, double lon, Duration validFor) {
+        GeoCell cell = GeoCell.of(lat, lon, cellSizeDegrees);
+        Instant validUntil = currentWeatherCache.now().plus(validFor);
+        CurrentWeather weather = currentWeatherFlights.execute(cell, () -> loadCurrentWeather(cell, validUntil));
+        Forecast forecast = forecastFlights.execute(cell, () -> loadForecast(cell, validUntil));
+        return !weather.hasError() && !forecast.hasError();
+    }
+
+    /**
+     * Starts a background refresh of the current weather for a point if what is cached
+     * has expired or is missing, without waiting for it. Listeners are told about the
+     * new observation through a {@link CurrentWeatherRefreshedEvent}.
+     */
+    public void refreshCurrentWeatherIfExpired(double lat, double lon) {
+        GeoCell cell = GeoCell.of(lat, lon, cellSizeDegrees);
+        WeatherCache.Entry<CurrentWeather> cached = currentWeatherCache.peek(cell);
+        if (cached == null || !cached.isFresh(currentWeatherCache.now())) {
+            refreshAsync(cell, currentWeatherFlights, () -> loadCurrentWeather(cell, currentWeatherCache.now()));
+        }
+    }
+
+    /**
+     * Keeps the cached weather and forecast for a point from being evicted when the
+     * caches fill up.
+     */
+    public void pin(double lat, double lon) {
+        GeoCell cell = GeoCell.of(lat, lon, cellSizeDegrees);
+        currentWeatherCache.pin(cell);
+        forecastCache.pin(cell);
+        forecastSummaryCache.pin(cell);
+    }
+
+    /**
+     * Non-blocking variant of {@link #getWeather(double, double)}: a cache miss is
+     * fetched with the asynchronous client, so no thread waits on the upstream call.
+     * The shared cache tier is read on the upstream executor before going upstream,
+     * so the calling thread never blocks on the database either.
+     */
+    public CompletableFuture<CurrentWeather> getWeatherNonBlocking(double lat, double lon) {
+        GeoCell cell = GeoCell.of(lat, lon, cellSizeDegrees);
+        WeatherCache.Entry<CurrentWeather> cached = currentWeatherCache.lookup(cell);
+        if (cached != null) {
+            if (!cached.isFresh(currentWeatherCache.now())) {
+                refreshAsync(cell, currentWeatherFlights, () -> loadCurrentWeather(cell, currentWeatherCache.now()));
+            }
+            return CompletableFuture.completedFuture(cached.value());
+        }
+        return currentWeatherFlights.executeAsync(cell, () -> sharedCache
+                .getAsync(SharedWeatherCache.CURRENT, cell, CurrentWeather.class, currentWeatherCache.now())
+                .thenCompose(hit -> hit != null
+                        ? CompletableFuture.completedFuture(cacheCurrentWeather(cell, hit.value(), hit.expiresAt()))
+                        : openWeatherClient.currentWeatherAsync(cell.lat(), cell.lon())
+                                .thenApply(weather -> storeCurrentWeather(cell, weather)))
+                .exceptionally(e -> {
+                    logger.warn("Get weather for {} failed: {}", cell, e.getMessage());
+                    return currentWeatherUnavailable(cell);
+                }));
+    }
+
+    /**
+     * Fills a miss in this instance's cache from the shared tier if another instance
+     * (or this one, before a restart) already fetched the cell and it is still valid
+     * at {@code validAt}, and from upstream otherwise.
+     */
+    private CurrentWeather loadCurrentWeather(GeoCell cell, Instant validAt) {
+        CurrentWeather shared = sharedCurrentWeather(cell, validAt);
+        return shared != null ? shared : fetchCurrentWeather(cell);
+    }
+
+    private CurrentWeather sharedCurrentWeather(GeoCell cell, Instant validAt) {
+        SharedWeatherCache.Hit<CurrentWeather> hit = sharedCache.get(SharedWeatherCache.CURRENT, cell,
+                CurrentWeather.class, validAt);
+        return hit == null ? null : cacheCurrentWeather(cell, hit.value(), hit.expiresAt());
+    }
+
+    private CurrentWeather fetchCurrentWeather(GeoCell cell) {
         try {
-            RestTemplate restTemplate = new RestTemplate();
-            String url = String.format(
-                    "https://api.openweathermap.org/data/2.5/weather?lat=%f&lon=%f&units=metric&appid=%s",
-                    lat, lon, openWeatherApiKey);
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            if (response == null || response.isEmpty() || (response.containsKey("cod") && !"200".equals(String.valueOf(response.get("cod"))))) {
-                return Map.of("error", "Weather data for this point is currently unavailable.");
+            return storeCurrentWeather(cell, openWeatherClient.currentWeather(cell.lat(), cell.lon()));
+        } catch (Exception e) {
+            logger.warn("Get weather for {} failed: {}", cell, e.getMessage());
+            return currentWeatherUnavailable(cell);
+        }
+    }
+
+    private CurrentWeather storeCurrentWeather(GeoCell cell, CurrentWeather weather) {
+        if (weather == null || !weather.isComplete()) {
+            return currentWeatherUnavailable(cell);
+        }
+        Instant expiresAt = currentExpiry(weather);
+        sharedCache.put(SharedWeatherCache.CURRENT, cell, weather, currentWeatherCache.now(), expiresAt);
+        return cacheCurrentWeather(cell, weather, expiresAt);
+    }
+
+    private CurrentWeather cacheCurrentWeather(GeoCell cell, CurrentWeather weather, Instant expiresAt) {
+        currentWeatherCache.put(cell, weather, expiresAt);
+        eventPublisher.publishEvent(new CurrentWeatherRefreshedEvent(cell, weather));
+        return weather;
+    }
+
+    /**
+     * 5 day / 3 hour forecast for a point, cached per {@link GeoCell}. An entry past
+     * its expiry is still served for a short stale window while it is refetched in
+     * the background, and concurrent misses for the same cell share one upstream call.
+     */
+    public Forecast getForecast(double lat, double lon) {
+        return forecastFor(GeoCell.of(lat, lon, cellSizeDegrees));
+    }
+
+    private Forecast forecastFor(GeoCell cell) {
+        WeatherCache.Entry<Forecast> cached = forecastCache.lookup(cell);
+        if (cached != null) {
+            if (!cached.isFresh(forecastCache.now())) {
+                refreshAsync(cell, forecastFlights, () -> loadForecast(cell, forecastCache.now()));
+            }
+            return cached.value();
+        }
+        return forecastFlights.execute(cell, () -> loadForecast(cell, forecastCache.now()));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getForecast(double, double)}.
+     */
+    public CompletableFuture<Forecast> getForecastNonBlocking(double lat, double lon) {
+        return forecastForNonBlocking(GeoCell.of(lat, lon, cellSizeDegrees));
+    }
+
+    private CompletableFuture<Forecast> forecastForNonBlocking(GeoCell cell) {
+        WeatherCache.Entry<Forecast> cached = forecastCache.lookup(cell);
+        if (cached != null) {
+            if (!cached.isFresh(forecastCache.now())) {
+                refreshAsync(cell, forecastFlights, () -> loadForecast(cell, forecastCache.now()));
             }
-            return response;
+            return CompletableFuture.completedFuture(cached.value());
+        }
+        return forecastFlights.executeAsync(cell, () -> sharedCache
+                .getAsync(SharedWeatherCache.FORECAST, cell, Forecast.class, forecastCache.now())
+                .thenCompose(hit -> hit != null
+                        ? CompletableFuture.completedFuture(cacheForecast(cell, hit.value(), hit.expiresAt()))
+                        : openWeatherClient.forecastAsync(cell.lat(), cell.lon())
+                                .thenApply(forecast -> storeForecast(cell, forecast)))
+                .exceptionally(e -> {
+                    logger.warn("Get forecast for {} failed: {}", cell, e.getMessage());
+                    return forecastUnavailable(cell);
+                }));
+    }
+
+    /**
+     * Forecast counterpart of {@link #loadCurrentWeather(GeoCell, Instant)}.
+     */
+    private Forecast loadForecast(GeoCell cell, Instant validAt) {
+        Forecast shared = sharedForecast(cell, validAt);
+        return shared != null ? shared : fetchForecast(cell);
+    }
+
+    private Forecast sharedForecast(GeoCell cell, Instant validAt) {
+        SharedWeatherCache.Hit<Forecast> hit = sharedCache.get(SharedWeatherCache.FORECAST, cell, Forecast.class, validAt);
+        return hit == null ? null : cacheForecast(cell, hit.value(), hit.expiresAt());
+    }
+
+    private Forecast fetchForecast(GeoCell cell) {
+        try {
+            return storeForecast(cell, openWeatherClient.forecast(cell.lat(), cell.lon()));
         } catch (Exception e) {
-            System.err.println("Get weather failed. Error: " + e.getMessage());
-            return Map.of("error", "Weather data for this point is currently unavailable.");
+            logger.warn("Get forecast for {} failed: {}", cell, e.getMessage());
+            return forecastUnavailable(cell);
+        }
+    }
+
+    private Forecast storeForecast(GeoCell cell, Forecast forecast) {
+        if (forecast == null || !forecast.isComplete()) {
+            return forecastUnavailable(cell);
+        }
+        Instant fetchedAt = forecastCache.now();
+        Instant expiresAt = fetchedAt.plusSeconds(forecastMaxAgeSeconds);
+        sharedCache.put(SharedWeatherCache.FORECAST, cell, forecast, fetchedAt, expiresAt);
+        return cacheForecast(cell, forecast, expiresAt);
+    }
+
+    private Forecast cacheForecast(GeoCell cell, Forecast forecast, Instant expiresAt) {
+        forecastCache.put(cell, forecast, expiresAt);
+        forecastSummaryCache.put(cell, forecastAggregator.summarize(forecast), expiresAt);
+        return forecast;
+    }
+
+    /**
+     * Refresh-ahead: popular forecasts that are about to expire (or already serving
+     * stale) are refetched in the background, so dashboard loads keep hitting the cache.
+     * A forecast another instance already refreshed is taken from the shared tier.
+     */
+    @Scheduled(fixedDelayString = "${app.weather.cache.forecast.refresh-interval-ms:60000}")
+    public void refreshPopularForecasts() {
+        Duration window = Duration.ofSeconds(forecastRefreshAheadSeconds);
+        for (GeoCell cell : forecastCache.refreshCandidates(window, forecastRefreshMinHits)) {
+            refreshAsync(cell, forecastFlights, () -> loadForecast(cell, forecastCache.now().plus(window)));
+        }
+    }
+
+    private <V> void refreshAsync(GeoCell cell, SingleFlight<GeoCell, V> flights, Supplier<V> fetch) {
+        if (flights.isInFlight(cell)) {
+            return;
         }
+        try {
+            upstreamExecutor.execute(() -> UpstreamPriority.BACKGROUND.call(() -> flights.execute(cell, fetch)));
+        } catch (RuntimeException e) {
+            // Executor saturated: keep serving what we have and try again on the next pass
+        }
+    }
+
+    /**
+     * The forecast for a point already aggregated into hourly and daily views.
+     * Summaries are computed once per fetched forecast and expire with it; the
+     * lookup still goes through the forecast cache so it counts towards popularity.
+     */
+    public ForecastSummary getForecastSummary(double lat, double lon) {
+        GeoCell cell = GeoCell.of(lat, lon, cellSizeDegrees);
+        return summarize(cell, forecastFor(cell));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getForecastSummary(double, double)}.
+     */
+    public CompletableFuture<ForecastSummary> getForecastSummaryNonBlocking(double lat, double lon) {
+        GeoCell cell = GeoCell.of(lat, lon, cellSizeDegrees);
+        return forecastForNonBlocking(cell).thenApply(forecast -> summarize(cell, forecast));
+    }
+
+    private ForecastSummary summarize(GeoCell cell, Forecast forecast) {
+        if (forecast.hasError()) {
+            return ForecastSummary.error(forecast.error());
+        }
+        ForecastSummary summary = forecastSummaryCache.get(cell);
+        return summary != null ? summary : forecastAggregator.summarize(forecast);
+    }
+
+    /**
+     * The cache entries behind the values returned for a point, for callers that need
+     * to know when a value expires (e.g. to set HTTP caching headers). Null when
+     * nothing is cached for the point's cell.
+     */
+    public WeatherCache.Entry<CurrentWeather> cachedWeather(double lat, double lon) {
+        return currentWeatherCache.peek(GeoCell.of(lat, lon, cellSizeDegrees));
+    }
+
+    public WeatherCache.Entry<Forecast> cachedForecast(double lat, double lon) {
+        return forecastCache.peek(GeoCell.of(lat, lon, cellSizeDegrees));
+    }
+
+    public WeatherCache.Entry<ForecastSummary> cachedForecastSummary(double lat, double lon) {
+        return forecastSummaryCache.peek(GeoCell.of(lat, lon, cellSizeDegrees));
     }
 
-    private Map<String, Object> fetchWeatherByLocationName(RestTemplate restTemplate, String location) {
+    /**
+     * Same as {@link #getWeather(double, double)} but runs on the bounded upstream
+     * executor, so several lookups can be in flight at once. Upstream calls it makes
+     * are rate limited at {@code priority}. If the executor is saturated the returned
+     * future completes exceptionally.
+     */
+    public CompletableFuture<CurrentWeather> getWeatherAsync(double lat, double lon, UpstreamPriority priority) {
         try {
-            String encodedLocation = URLEncoder.encode(location, StandardCharsets.UTF_8);
-            String geocodingUrl = "http://api.openweathermap.org/geo/1.0/direct?q=" +
-                    encodedLocation + ",PH&limit=1&appid=" + openWeatherApiKey;
-            
-            ResponseEntity<List<Map<String, Object>>> geoResp = restTemplate.exchange(
-                geocodingUrl,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<>() {}
-            );
-
-            List<Map<String, Object>> geoResults = geoResp.getBody();
-            if (geoResults != null && !geoResults.isEmpty()) {
-                Map<String, Object> primaryResult = geoResults.get(0);
-                double lat = ((Number) primaryResult.get("lat")).doubleValue();
-                double lon = ((Number) primaryResult.get("lon")).doubleValue();
-                Map<String, Object> weatherData = getWeather(lat, lon);
-                // Ensure the resolved name from geocoding is in the final map
-                weatherData.put("name", primaryResult.get("name") + ", " + primaryResult.get("country"));
+            return CompletableFuture.supplyAsync(() -> priority.call(() -> getWeather(lat, lon)), upstreamExecutor);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Looks up the weather for many points with at most {@code maxConcurrency}
+     * upstream calls in flight. Returns one future per point, in the same order, so
+     * callers can wait on each individually.
+     */
+    public List<CompletableFuture<CurrentWeather>> getWeatherForPoints(List<GeoPoint> points, int maxConcurrency, UpstreamPriority priority) {
+        List<CompletableFuture<CurrentWeather>> results = new ArrayList<>(points.size());
+        for (int i = 0; i < points.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+        // Each lane works through the shared index, so no more than maxConcurrency run at once
+        AtomicInteger next = new AtomicInteger();
+        int lanes = Math.min(Math.max(1, maxConcurrency), points.size());
+        for (int lane = 0; lane < lanes; lane++) {
+            try {
+                upstreamExecutor.execute(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < points.size()) {
+                        GeoPoint point = points.get(i);
+                        // A failing point must not end the lane and strand the points after it
+                        try {
+                            results.get(i).complete(priority.call(() -> getWeather(point.lat(), point.lon())));
+                        } catch (RuntimeException e) {
+                            results.get(i).completeExceptionally(e);
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Lanes that did start still drain every point; only fail if none could start
+                if (lane == 0) {
+                    results.forEach(result -> result.completeExceptionally(e));
+                }
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Current weather for many points in one go. Points in the same {@link GeoCell}
+     * are looked up once; cells already cached are answered straight away, and the
+     * rest are fetched with at most {@code maxConcurrency} upstream calls in flight.
+     * The results are in the order of {@code points}, with an error entry for any
+     * point that could not be loaded.
+     */
+    public CompletableFuture<List<CurrentWeather>> getWeatherBatch(List<GeoPoint> points, int maxConcurrency) {
+        Map<GeoCell, CompletableFuture<CurrentWeather>> byCell = new LinkedHashMap<>();
+        List<GeoPoint> misses = new ArrayList<>();
+        List<CompletableFuture<CurrentWeather>> missResults = new ArrayList<>();
+        List<GeoCell> cells = new ArrayList<>(points.size());
+        for (GeoPoint point : points) {
+            GeoCell cell = GeoCell.of(point.lat(), point.lon(), cellSizeDegrees);
+            cells.add(cell);
+            byCell.computeIfAbsent(cell, c -> {
+                WeatherCache.Entry<CurrentWeather> cached = currentWeatherCache.lookup(c);
+                if (cached != null) {
+                    if (!cached.isFresh(currentWeatherCache.now())) {
+                        refreshAsync(c, currentWeatherFlights, () -> loadCurrentWeather(c, currentWeatherCache.now()));
+                    }
+                    return CompletableFuture.completedFuture(cached.value());
+                }
+                CompletableFuture<CurrentWeather> result = new CompletableFuture<>();
+                misses.add(new GeoPoint(c.lat(), c.lon()));
+                missResults.add(result);
+                return result;
+            });
+        }
+
+        List<CompletableFuture<CurrentWeather>> fetched = getWeatherForPoints(misses, maxConcurrency, UpstreamPriority.API);
+        for (int i = 0; i < fetched.size(); i++) {
+            CompletableFuture<CurrentWeather> result = missResults.get(i);
+            fetched.get(i).whenComplete((weather, error) -> result.complete(error == null ? weather
+                    : CurrentWeather.error("Weather data for this point is currently unavailable.")));
+        }
+
+        return CompletableFuture.allOf(byCell.values().toArray(CompletableFuture[]::new))
+                .thenApply(done -> cells.stream().map(cell -> byCell.get(cell).join()).toList());
+    }
+
+    /**
+     * Stale-if-error: when a fetch fails, the last good observation for the cell is
+     * better than nothing, even if it is past its stale window.
+     */
+    private CurrentWeather currentWeatherUnavailable(GeoCell cell) {
+        CurrentWeather lastGood = currentWeatherCache.lastGood(cell);
+        return lastGood != null ? lastGood : CurrentWeather.error("Weather data for this point is currently unavailable.");
+    }
+
+    private Forecast forecastUnavailable(GeoCell cell) {
+        Forecast lastGood = forecastCache.lastGood(cell);
+        return lastGood != null ? lastGood : Forecast.error("Forecast data for this point is currently unavailable.");
+    }
+
+    /**
+     * OpenWeatherMap refreshes an observation roughly every ten minutes, so an entry
+     * stays fresh until its observation time ({@code dt}) plus the max age, but never
+     * shorter than the minimum TTL so late observations are not refetched in a loop.
+     */
+    private Instant currentExpiry(CurrentWeather weather) {
+        Instant now = currentWeatherCache.now();
+        Instant latest = now.plusSeconds(currentMaxAgeSeconds);
+        Instant earliest = now.plusSeconds(currentMinTtlSeconds);
+        if (weather.dt() == null) {
+            return latest;
+        }
+        Instant expiry = Instant.ofEpochSecond(weather.dt()).plusSeconds(currentMaxAgeSeconds);
+        if (expiry.isAfter(latest)) {
+            return latest;
+        }
+        return expiry.isBefore(earliest) ? earliest : expiry;
+    }
+
+    private CurrentWeather fetchWeatherByLocationName(String location) {
+        try {
+            GeocodingResult place = geocode(location);
+            if (place == null) {
+                return CurrentWeather.error("Location not found in the Philippines: " + location);
+            }
+            CurrentWeather weatherData = getWeather(place.lat(), place.lon());
+            if (weatherData.hasError()) {
                 return weatherData;
-            } else {
-                 return Map.of("error", "Location not found in the Philippines: " + location);
             }
+            // Ensure the resolved name from geocoding is in the final result
+            return weatherData.withName(place.name() + ", " + place.country());
         } catch (Exception ex) {
-            System.err.println("Geocoding/weather error for location '" + location + "': " + ex.getMessage());
-            return Map.of("error", "Could not retrieve weather for " + location);
+            logger.warn("Geocoding/weather error for location '{}': {}", location, ex.getMessage());
+            return CurrentWeather.error("Could not retrieve weather for " + location);
         }
     }
-}
 
+    /**
+     * Resolves a location name from the local index, falling back to the remote
+     * geocoder on a miss and remembering what it returns. Only when the remote
+     * geocoder does not know the name either is it treated as a typo of an indexed place.
+     *
+     * @return the place, or null if neither knows it
+     */
+    public GeocodingResult geocode(String location) {
+        GeocodingResult place = geocodingIndex.resolve(location);
+        if (place != null) {
+            return place;
+        }
+        List<GeocodingResult> geoResults = openWeatherClient.geocode(location);
+        if (geoResults == null || geoResults.isEmpty()) {
+            return geocodingIndex.resolveApproximate(location);
+        }
+        place = geoResults.get(0);
+        geocodingIndex.learn(location, place);
+        return place;
+    }
+}
@@ -0,0 +1,233 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import weatherPhApplication.java.model.CurrentWeather;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live weather updates over Server-Sent Events. Subscribers are grouped by
+ * {@link GeoCell}; when the weather for a cell is refreshed, the new observation is
+ * serialized once and pushed to everyone subscribed to that cell.
+ * <p>
+ * A subscription is an async Servlet response parked in Tomcat, so idle subscribers
+ * hold a connection but no thread. Subscribed cells are checked every
+ * {@code refresh-interval} and refetched in the background once they expire, which is
+ * what produces the updates. A comment line is sent every {@code heartbeat-interval}
+ * to keep proxies from closing idle streams and to notice clients that went away.
+ * Each client (signed-in user or remote address) may hold at most
+ * {@code max-per-client} streams, so one caller cannot use up the connections.
+ */
+@Component
+public class WeatherUpdateBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeatherUpdateBroadcaster.class);
+
+    /** Why a subscription was refused. */
+    public enum Refusal { NODE_FULL, CLIENT_LIMIT }
+
+    /** The stream for an accepted subscription, or why it was refused. */
+    public record Subscription(SseEmitter emitter, Refusal refusal) {
+
+        public boolean accepted() {
+            return emitter != null;
+        }
+    }
+
+    private final double cellSizeDegrees;
+    private final Duration timeout;
+    private final int maxSubscribers;
+    private final int maxPerClient;
+    private final WeatherService weatherService;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor streamExecutor;
+
+    private final Map<GeoCell, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, Integer> streamsPerClient = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter eventsSent;
+
+    public WeatherUpdateBroadcaster(@Value("${app.weather.cache.cell-size-degrees:0.01}") double cellSizeDegrees,
+                                    @Value("${app.stream.timeout:30m}") Duration timeout,
+                                    @Value("${app.stream.max-subscribers:20000}") int maxSubscribers,
+                                    @Value("${app.stream.max-per-client:5}") int maxPerClient,
+                                    WeatherService weatherService,
+                                    ObjectMapper objectMapper,
+                                    @Qualifier("streamExecutor") ThreadPoolTaskExecutor streamExecutor,
+                                    MeterRegistry meterRegistry) {
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        this.maxPerClient = maxPerClient;
+        this.weatherService = weatherService;
+        this.objectMapper = objectMapper;
+        this.streamExecutor = streamExecutor;
+        Gauge.builder("stream.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("stream.cells", subscribers, Map::size).register(meterRegistry);
+        this.eventsSent = Counter.builder("stream.events.sent").register(meterRegistry);
+    }
+
+    /**
+     * Subscribes {@code client} to updates for the cell around a point. The current
+     * weather is sent as soon as it is available. Refused if this node already holds
+     * {@code max-subscribers} streams, or the client {@code max-per-client}.
+     */
+    public Subscription subscribe(String client, double lat, double lon) {
+        if (!acquireClientSlot(client)) {
+            return new Subscription(null, Refusal.CLIENT_LIMIT);
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            releaseClientSlot(client);
+            return new Subscription(null, Refusal.NODE_FULL);
+        }
+        GeoCell cell = GeoCell.of(lat, lon, cellSizeDegrees);
+        SseEmitter emitter = newEmitter(timeout.toMillis());
+        // Added inside compute so a concurrent unsubscribe cannot drop the set in between
+        subscribers.compute(cell, (c, emitters) -> {
+            Set<SseEmitter> set = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            set.add(emitter);
+            return set;
+        });
+        Runnable unsubscribe = () -> unsubscribe(client, cell, emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        weatherService.getWeatherNonBlocking(lat, lon).thenAccept(weather -> {
+            if (!weather.hasError()) {
+                send(emitter, weatherEvent(weather));
+            }
+        });
+        return new Subscription(emitter, null);
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private boolean acquireClientSlot(String client) {
+        boolean[] acquired = {false};
+        streamsPerClient.compute(client, (c, open) -> {
+            int count = open == null ? 0 : open;
+            if (count >= maxPerClient) {
+                return open;
+            }
+            acquired[0] = true;
+            return count + 1;
+        });
+        return acquired[0];
+    }
+
+    private void releaseClientSlot(String client) {
+        streamsPerClient.computeIfPresent(client, (c, open) -> open <= 1 ? null : open - 1);
+    }
+
+    // Completion, timeout and error can each fire for one emitter; only the first counts
+    private void unsubscribe(String client, GeoCell cell, SseEmitter emitter) {
+        boolean[] removed = {false};
+        subscribers.computeIfPresent(cell, (c, emitters) -> {
+            removed[0] = emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+        if (removed[0]) {
+            subscriberCount.decrementAndGet();
+            releaseClientSlot(client);
+        }
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @EventListener
+    public void onRefresh(CurrentWeatherRefreshedEvent event) {
+        Set<SseEmitter> emitters = subscribers.get(event.cell());
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> update = weatherEvent(event.weather());
+        try {
+            streamExecutor.execute(() -> emitters.forEach(emitter -> send(emitter, update)));
+        } catch (RuntimeException e) {
+            // Subscribers get the next refresh instead
+            logger.warn("Dropped weather update for {}: {}", event.cell(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.refresh-interval:60s}")
+    public void refreshSubscribedCells() {
+        for (GeoCell cell : subscribers.keySet()) {
+            weatherService.refreshCurrentWeatherIfExpired(cell.lat(), cell.lon());
+        }
+    }
+
+    /**
+     * Pings every stream. The writes are split across the stream pool rather than done
+     * on the scheduler thread, which other scheduled jobs share.
+     */
+    @Scheduled(fixedDelayString = "${app.stream.heartbeat-interval:25s}")
+    public void heartbeat() {
+        List<SseEmitter> all = new ArrayList<>(subscriberCount.get());
+        subscribers.values().forEach(all::addAll);
+        if (all.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        int chunks = Math.min(all.size(), Math.max(1, streamExecutor.getMaxPoolSize()));
+        int chunkSize = (all.size() + chunks - 1) / chunks;
+        for (int start = 0; start < all.size(); start += chunkSize) {
+            List<SseEmitter> chunk = all.subList(start, Math.min(start + chunkSize, all.size()));
+            try {
+                streamExecutor.execute(() -> chunk.forEach(emitter -> send(emitter, ping)));
+            } catch (RuntimeException e) {
+                // These streams are pinged on the next beat instead
+                logger.warn("Skipped heartbeat for {} streams: {}", chunk.size(), e.getMessage());
+            }
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> weatherEvent(CurrentWeather weather) {
+        try {
+            // Built and serialized once, then written as is to every subscriber
+            return SseEmitter.event()
+                    .name("weather")
+                    .data(objectMapper.writeValueAsString(weather), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize weather update", e);
+        }
+    }
+
+    private void send(SseEmitter emitter, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        try {
+            emitter.send(event);
+            eventsSent.increment();
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; completing the emitter unsubscribes it
+            emitter.completeWithError(e);
+        }
+    }
+}
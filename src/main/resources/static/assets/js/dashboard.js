@@ -8,7 +8,7 @@ document.addEventListener('DOMContentLoaded', function () {
 
     let map;
     let marker;
-    let hourlyDataStore = [];
+    let weatherStream;
 
     const locationNameEl = document.getElementById('location-name');
     const currentWeatherCardEl = document.getElementById('current-weather-card');
@@ -85,7 +85,7 @@ document.addEventListener('DOMContentLoaded', function () {
                 currentWeatherContentEl.innerHTML = `<p>Could not load weather data.</p>`;
             });
 
-        fetch(`/api/forecast?lat=${lat}&lon=${lon}`)
+        fetch(`/api/forecast/summary?lat=${lat}&lon=${lon}`)
             .then(response => response.json())
             .then(data => {
                 if (data.error) {
@@ -93,14 +93,29 @@ document.addEventListener('DOMContentLoaded', function () {
                     dailyForecastEl.innerHTML = `<p>${data.error}</p>`;
                     return;
                 }
-                hourlyDataStore = data.list; // Store for reuse
-                displayHourlyForecast(data.list);
-                displayDailyForecast(data.list);
+                displayHourlyForecast(data.hourly);
+                displayDailyForecast(data.daily);
             })
             .catch(error => {
                  console.error('Error fetching forecast:', error);
                 hourlyForecastEl.innerHTML = `<p>Could not load forecast data.</p>`;
             });
+
+        subscribeToWeatherUpdates(lat, lon);
+    }
+
+    // Keep the current weather card live while the tab stays open
+    function subscribeToWeatherUpdates(lat, lon) {
+        if (weatherStream) {
+            weatherStream.close();
+        }
+        if (typeof EventSource === 'undefined') {
+            return;
+        }
+        weatherStream = new EventSource(`/api/stream/weather?lat=${lat}&lon=${lon}`);
+        weatherStream.addEventListener('weather', event => {
+            displayCurrentWeather(JSON.parse(event.data));
+        });
     }
 
     function setWeatherBackground(weatherMain) {
@@ -129,18 +144,6 @@ document.addEventListener('DOMContentLoaded', function () {
         bgOverlay.style.backgroundImage = `url('${imageUrl}')`;
     }
 
-    function formatTime(unix, timezoneOffset) {
-      if (!unix) return '--:--';
-      const date = new Date((unix + timezoneOffset) * 1000);
-      let hours = date.getUTCHours();
-      const minutes = date.getUTCMinutes();
-      const ampm = hours >= 12 ? 'PM' : 'AM';
-      hours = hours % 12;
-      hours = hours ? hours : 12; // the hour '0' should be '12'
-      const minutesStr = minutes < 10 ? '0' + minutes : minutes;
-      return hours + ':' + minutesStr + ' ' + ampm;
-    }
-
     function displayCurrentWeather(data) {
         if (!locationNameEl.textContent.includes(',')) {
             locationNameEl.textContent = data.name;
@@ -149,8 +152,8 @@ document.addEventListener('DOMContentLoaded', function () {
         const iconUrl = `https://openweathermap.org/img/wn/${weather.icon}@4x.png`;
         const windSpeedKmh = (data.wind.speed * 3.6).toFixed(1);
         const visibilityKm = (data.visibility / 1000).toFixed(1);
-        const sunrise = formatTime(data.sys.sunrise, data.timezone);
-        const sunset = formatTime(data.sys.sunset, data.timezone);
+        const sunrise = formatLocalTime(data.sys.sunrise, data.timezone);
+        const sunset = formatLocalTime(data.sys.sunset, data.timezone);
 
 
         setWeatherBackground(weather.main);
@@ -172,26 +175,17 @@ document.addEventListener('DOMContentLoaded', function () {
         `;
     }
 
-    function displayHourlyForecast(list) {
-        if (!list || list.length === 0) {
+    function displayHourlyForecast(hourly) {
+        if (!hourly || hourly.length === 0) {
             hourlyForecastEl.innerHTML = '<p>Hourly forecast not available.</p>';
             return;
         }
         hourlyForecastEl.innerHTML = ''; 
 
-        const next8Hours = list.slice(0, 8);
-
-        next8Hours.forEach((item) => {
-            const date = new Date(item.dt * 1000);
-            let hours = date.getHours();
-            const ampm = hours >= 12 ? 'PM' : 'AM';
-            hours = hours % 12;
-            hours = hours ? hours : 12;
-            const timeString = `${hours} ${ampm}`;
-            
-            const iconUrl = `https://openweathermap.org/img/wn/${item.weather[0].icon}@2x.png`;
-            const temp = `${(item.main.temp).toFixed(0)}°`;
-            const description = item.weather[0].description;
+        hourly.forEach((item) => {
+            const iconUrl = `https://openweathermap.org/img/wn/${item.icon}@2x.png`;
+            const temp = `${(item.temp).toFixed(0)}°`;
+            const description = item.description;
             
             const itemWrapper = document.createElement('div');
             
@@ -199,7 +193,7 @@ document.addEventListener('DOMContentLoaded', function () {
             hourlyItem.className = 'daily-item';
             hourlyItem.innerHTML = `
                 <div class="daily-date">
-                    <div>${timeString}</div>
+                    <div>${item.time}</div>
                     <div class="daily-desc">${description}</div>
                 </div>
                 <img src="${iconUrl}" alt="${description}">
@@ -209,11 +203,11 @@ document.addEventListener('DOMContentLoaded', function () {
             const detailsItem = document.createElement('div');
             detailsItem.className = 'daily-details';
             detailsItem.innerHTML = `
-                <div><strong>Feels like</strong><span>${(item.main.feels_like).toFixed(1)}°C</span></div>
-                <div><strong>Wind</strong><span>${(item.wind.speed * 3.6).toFixed(1)} km/h</span></div>
-                <div><strong>Humidity</strong><span>${item.main.humidity}%</span></div>
-                <div><strong>Pressure</strong><span>${item.main.pressure} hPa</span></div>
-                <div style="grid-column: 1 / -1;"><strong>Cloud Cover</strong><span>${item.clouds.all}%</span></div>
+                <div><strong>Feels like</strong><span>${(item.feelsLike).toFixed(1)}°C</span></div>
+                <div><strong>Wind</strong><span>${(item.windSpeed).toFixed(1)} km/h</span></div>
+                <div><strong>Humidity</strong><span>${item.humidity}%</span></div>
+                <div><strong>Pressure</strong><span>${item.pressure} hPa</span></div>
+                <div style="grid-column: 1 / -1;"><strong>Cloud Cover</strong><span>${item.clouds}%</span></div>
             `;
 
             hourlyItem.addEventListener('click', () => {
@@ -227,46 +221,20 @@ document.addEventListener('DOMContentLoaded', function () {
         });
     }
 
-    function displayDailyForecast(list) {
-        if (!list) {
+    function displayDailyForecast(daily) {
+        if (!daily || daily.length === 0) {
              dailyForecastEl.innerHTML = '<p>Daily forecast not available.</p>';
             return;
         }
-        
-        const dailyData = {};
-        list.forEach(item => {
-            const date = new Date(item.dt * 1000);
-            const day = date.toISOString().split('T')[0];
-            if (!dailyData[day]) {
-                dailyData[day] = {
-                    temps: [],
-                    humidity: [],
-                    wind: [],
-                    icons: {},
-                    descriptions: {}
-                };
-            }
-            dailyData[day].temps.push(item.main.temp);
-            dailyData[day].humidity.push(item.main.humidity);
-            dailyData[day].wind.push(item.wind.speed);
-            const icon = item.weather[0].icon.replace('n', 'd');
-            dailyData[day].icons[icon] = (dailyData[day].icons[icon] || 0) + 1;
-            dailyData[day].descriptions[item.weather[0].description] = (dailyData[day].descriptions[item.weather[0].description] || 0) + 1;
-        });
 
         dailyForecastEl.innerHTML = '';
 
-        Object.keys(dailyData).slice(0, 7).forEach(day => {
-            const dayData = dailyData[day];
-            const date = new Date(day);
-            const dayName = date.toLocaleDateString(undefined, { weekday: 'long' });
-            const maxTemp = Math.round(Math.max(...dayData.temps));
-            const minTemp = Math.round(Math.min(...dayData.temps));
-            const avgHumidity = Math.round(dayData.humidity.reduce((a, b) => a + b, 0) / dayData.humidity.length);
-            const maxWind = (Math.max(...dayData.wind) * 3.6).toFixed(1);
-            const mostCommonIcon = Object.keys(dayData.icons).reduce((a, b) => dayData.icons[a] > dayData.icons[b] ? a : b);
-            const iconUrl = `https://openweathermap.org/img/wn/${mostCommonIcon}@2x.png`;
-            const mostCommonDesc = Object.keys(dayData.descriptions).reduce((a, b) => dayData.descriptions[a] > dayData.descriptions[b] ? a : b);
+        daily.forEach(day => {
+            const maxTemp = Math.round(day.maxTemp);
+            const minTemp = Math.round(day.minTemp);
+            const maxWind = (day.maxWind).toFixed(1);
+            const iconUrl = `https://openweathermap.org/img/wn/${day.icon}@2x.png`;
+            const description = day.description;
 
             const itemWrapper = document.createElement('div');
             
@@ -274,19 +242,19 @@ document.addEventListener('DOMContentLoaded', function () {
             dailyItem.className = 'daily-item';
             dailyItem.innerHTML = `
                 <div class="daily-date">
-                    <div>${dayName}</div>
-                    <div class="daily-desc">${mostCommonDesc}</div>
+                    <div>${day.dayName}</div>
+                    <div class="daily-desc">${description}</div>
                 </div>
-                <img src="${iconUrl}" alt="${mostCommonDesc}">
+                <img src="${iconUrl}" alt="${description}">
                 <div class="daily-temp">${maxTemp}° / ${minTemp}°</div>
             `;
             
             const detailsItem = document.createElement('div');
             detailsItem.className = 'daily-details';
             detailsItem.innerHTML = `
-                <div><strong>Avg. Humidity</strong><span>${avgHumidity}%</span></div>
+                <div><strong>Avg. Humidity</strong><span>${day.avgHumidity}%</span></div>
                 <div><strong>Max Wind</strong><span>${maxWind} km/h</span></div>
-                <div style="grid-column: 1 / -1;"><strong>Condition</strong><span style="text-transform:capitalize;">${mostCommonDesc}</span></div>
+                <div style="grid-column: 1 / -1;"><strong>Condition</strong><span style="text-transform:capitalize;">${description}</span></div>
             `;
 
             dailyItem.addEventListener('click', () => {
@@ -36,6 +36,7 @@ document.addEventListener('DOMContentLoaded', function() {
                     latInput.value = e.result.center[1];
                     lonInput.value = e.result.center[0];
                 }
+                clearRoutePolyline();
             });
 
             geocoder.on('clear', function() {
@@ -45,16 +46,50 @@ document.addEventListener('DOMContentLoaded', function() {
                 if (hiddenInput) hiddenInput.value = '';
                 if (latInput) latInput.value = '';
                 if (lonInput) lonInput.value = '';
+                clearRoutePolyline();
             });
         }
     }
     
+    // A new origin or destination invalidates the previously fetched route
+    function clearRoutePolyline() {
+        const polylineInput = document.getElementById('route_polyline');
+        if (polylineInput) polylineInput.value = '';
+    }
+
+    function fetchRoutePolyline() {
+        const originLat = document.getElementById('origin_lat').value;
+        const originLon = document.getElementById('origin_lon').value;
+        const destLat = document.getElementById('destination_lat').value;
+        const destLon = document.getElementById('destination_lon').value;
+        if (!originLat || !originLon || !destLat || !destLon) {
+            return Promise.resolve('');
+        }
+        const url = `https://api.mapbox.com/directions/v5/mapbox/driving/${originLon},${originLat};${destLon},${destLat}` +
+            `?geometries=polyline&overview=full&access_token=${mapboxgl.accessToken}`;
+        return fetch(url)
+            .then(response => response.json())
+            .then(data => (data.routes && data.routes.length > 0) ? data.routes[0].geometry : '');
+    }
+
     createGeocoder('origin-geocoder', 'origin', 'e.g., Quezon City');
     createGeocoder('destination-geocoder', 'destination', 'e.g., Baguio City');
     
     const routeForm = document.querySelector('.route-form');
     if(routeForm) {
+        // Text typed without picking a suggestion is sent as is and resolved by the server
+        function useTypedText(containerId, inputId) {
+            const hiddenInput = document.getElementById(inputId);
+            const container = document.getElementById(containerId);
+            const geocoderInput = container ? container.querySelector('.mapboxgl-ctrl-geocoder--input') : null;
+            if (hiddenInput && !hiddenInput.value && geocoderInput && geocoderInput.value.trim() !== '') {
+                hiddenInput.value = geocoderInput.value.trim();
+            }
+        }
+
         routeForm.addEventListener('submit', function(e) {
+            useTypedText('origin-geocoder', 'origin');
+            useTypedText('destination-geocoder', 'destination');
             const originInput = document.getElementById('origin').value;
             const destInput = document.getElementById('destination').value;
 
@@ -64,9 +99,20 @@ document.addEventListener('DOMContentLoaded', function() {
                 const errorModal = document.getElementById('error-modal');
                 const errorModalText = errorModal.querySelector('p');
                 if (errorModal && errorModalText) {
-                    errorModalText.textContent = 'Please select a valid origin and destination from the search suggestions before getting an advisory.';
+                    errorModalText.textContent = 'Please enter an origin and destination before getting an advisory.';
                     errorModal.style.display = 'flex';
                 }
+                return;
+            }
+
+            // Attach the driving route so the server can check the weather along the way
+            const polylineInput = document.getElementById('route_polyline');
+            if (polylineInput && !polylineInput.value) {
+                e.preventDefault();
+                fetchRoutePolyline()
+                    .then(polyline => { polylineInput.value = polyline || ''; })
+                    .catch(error => console.error('Error fetching route geometry:', error))
+                    .finally(() => routeForm.submit());
             }
         });
     }
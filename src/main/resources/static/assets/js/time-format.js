@@ -0,0 +1,14 @@
+// Sunrise and sunset in the location's own time. OpenWeatherMap gives a UTC offset in
+// seconds rather than a time zone, so the timestamp is shifted by the offset and
+// formatted as UTC. The formatter is built once per page and reused for every call.
+const LOCAL_TIME_FORMAT = new Intl.DateTimeFormat('en-US', {
+    hour: 'numeric',
+    minute: '2-digit',
+    hour12: true,
+    timeZone: 'UTC'
+});
+
+function formatLocalTime(unix, offsetSeconds) {
+    if (!unix) return '--:--';
+    return LOCAL_TIME_FORMAT.format((unix + (offsetSeconds || 0)) * 1000);
+}
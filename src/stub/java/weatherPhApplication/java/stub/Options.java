@@ -0,0 +1,27 @@
+package weatherPhApplication.java.stub;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads {@code name=value} command-line options. A leading {@code --} is accepted and
+ * a bare {@code name} means true.
+ */
+public final class Options {
+
+    private Options() {}
+
+    public static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int equals = option.indexOf('=');
+            if (equals < 0) {
+                options.put(option, "true");
+            } else {
+                options.put(option.substring(0, equals), option.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+}
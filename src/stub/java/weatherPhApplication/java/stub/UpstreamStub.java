@@ -0,0 +1,252 @@
+package weatherPhApplication.java.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for OpenWeatherMap and Brevo that replays the recorded responses
+ * under {@code src/stub/resources}, so benchmarks and load tests never spend the
+ * paid API quotas. Point the application at it with
+ * {@code app.openweather.base-url=<baseUrl>} and {@code brevo.api.url=<brevoUrl>}.
+ * <p>
+ * Every response can be delayed and a share of them failed (see {@link Faults}),
+ * either at start-up or while running through {@code POST /__stub/faults}. Current
+ * weather is picked from the corpus by the requested coordinates and stamped with
+ * the current time, so the application caches it as it would a live observation.
+ * Emails accepted on the Brevo endpoint are kept and listed at
+ * {@code GET /__stub/emails[?to=address]}, which lets a load test follow
+ * verification links.
+ * <p>
+ * Run it on its own with {@code java ... weatherPhApplication.java.stub.UpstreamStub
+ * port=18099 latency=200ms jitter=100ms error-rate=0.05}.
+ */
+public final class UpstreamStub implements AutoCloseable {
+
+    /**
+     * Injected latency and failures. Each response waits {@code latency} plus a random
+     * share of {@code jitter}; a fraction {@code errorRate} of them is answered with
+     * {@code errorStatus} instead of the recorded body.
+     */
+    public record Faults(Duration latency, Duration jitter, double errorRate, int errorStatus) {
+
+        public static final Faults NONE = new Faults(Duration.ZERO, Duration.ZERO, 0, 503);
+
+        public static Faults parse(Map<String, String> options) {
+            return new Faults(
+                    DurationStyle.detectAndParse(options.getOrDefault("latency", "0ms")),
+                    DurationStyle.detectAndParse(options.getOrDefault("jitter", "0ms")),
+                    Double.parseDouble(options.getOrDefault("error-rate", "0")),
+                    Integer.parseInt(options.getOrDefault("error-status", "503")));
+        }
+    }
+
+    /** One recipient of an email accepted on the Brevo endpoint. */
+    public record SentEmail(String to, String subject, String htmlContent) {}
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<ObjectNode> currentWeather;
+    private final byte[] forecast;
+    private final byte[] geocode;
+    private final byte[] brevoSent;
+    private final List<SentEmail> sentEmails = new CopyOnWriteArrayList<>();
+    private final Map<String, AtomicLong> requests = new ConcurrentHashMap<>();
+    private volatile Faults faults;
+
+    private UpstreamStub(int port, Faults faults) throws IOException {
+        this.faults = faults;
+        this.currentWeather = new ArrayList<>();
+        for (JsonNode node : MAPPER.readTree(resource("/owm/current-weather-corpus.json"))) {
+            currentWeather.add((ObjectNode) node);
+        }
+        this.forecast = resource("/owm/forecast.json");
+        this.geocode = resource("/owm/geocode.json");
+        this.brevoSent = resource("/brevo/send.json");
+
+        // Injected latency is spent sleeping, so threads are not capped
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "upstream-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.createContext("/data/2.5/weather", upstream("openweather.weather", this::currentWeather));
+        server.createContext("/data/2.5/forecast", upstream("openweather.forecast", exchange -> respond(exchange, 200, forecast)));
+        server.createContext("/geo/1.0/direct", upstream("openweather.geocode", exchange -> respond(exchange, 200, geocode)));
+        server.createContext("/v3/smtp/email", upstream("brevo.send", this::sendEmail));
+        server.createContext("/__stub/emails", this::listEmails);
+        server.createContext("/__stub/faults", this::updateFaults);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public static UpstreamStub start(int port, Faults faults) throws IOException {
+        return new UpstreamStub(port, faults);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String brevoUrl() {
+        return baseUrl() + "/v3/smtp/email";
+    }
+
+    public Faults faults() {
+        return faults;
+    }
+
+    public void setFaults(Faults faults) {
+        this.faults = faults;
+    }
+
+    /** Requests served so far per upstream operation, e.g. {@code openweather.weather}. */
+    public Map<String, Long> requestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        requests.forEach((operation, count) -> counts.put(operation, count.get()));
+        return counts;
+    }
+
+    private HttpHandler upstream(String operation, HttpHandler handler) {
+        AtomicLong count = requests.computeIfAbsent(operation, key -> new AtomicLong());
+        return exchange -> {
+            count.incrementAndGet();
+            Faults current = faults;
+            try {
+                long delay = current.latency().toMillis();
+                if (!current.jitter().isZero()) {
+                    delay += ThreadLocalRandom.current().nextLong(current.jitter().toMillis() + 1);
+                }
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (ThreadLocalRandom.current().nextDouble() < current.errorRate()) {
+                exchange.getRequestBody().readAllBytes();
+                respond(exchange, current.errorStatus(),
+                        ("{\"cod\":" + current.errorStatus() + ",\"message\":\"injected by upstream stub\"}").getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            handler.handle(exchange);
+        };
+    }
+
+    private void currentWeather(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        ObjectNode recorded = currentWeather.get(Math.floorMod(query == null ? 0 : query.hashCode(), currentWeather.size()));
+        ObjectNode weather = recorded.deepCopy();
+        weather.put("dt", Instant.now().getEpochSecond());
+        respond(exchange, 200, MAPPER.writeValueAsBytes(weather));
+    }
+
+    private void sendEmail(HttpExchange exchange) throws IOException {
+        JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+        if (request.has("messageVersions")) {
+            for (JsonNode version : request.get("messageVersions")) {
+                record(version, request);
+            }
+        } else {
+            record(request, request);
+        }
+        respond(exchange, 201, brevoSent);
+    }
+
+    private void record(JsonNode message, JsonNode defaults) {
+        String subject = message.path("subject").asText(defaults.path("subject").asText());
+        String html = message.path("htmlContent").asText(defaults.path("htmlContent").asText());
+        for (JsonNode recipient : message.path("to")) {
+            sentEmails.add(new SentEmail(recipient.path("email").asText(), subject, html));
+        }
+    }
+
+    private void listEmails(HttpExchange exchange) throws IOException {
+        String to = query(exchange).get("to");
+        List<SentEmail> emails = to == null ? sentEmails
+                : sentEmails.stream().filter(email -> email.to().equalsIgnoreCase(to)).toList();
+        respond(exchange, 200, MAPPER.writeValueAsBytes(emails));
+    }
+
+    private void updateFaults(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestMethod().equals("POST")) {
+            faults = Faults.parse(query(exchange));
+        }
+        respond(exchange, 200, MAPPER.writeValueAsBytes(faults));
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                String[] parts = pair.split("=", 2);
+                parameters.put(URLDecoder.decode(parts[0], StandardCharsets.UTF_8),
+                        parts.length > 1 ? URLDecoder.decode(parts[1], StandardCharsets.UTF_8) : "");
+            }
+        }
+        return parameters;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        try (exchange; OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            out.write(body);
+        }
+    }
+
+    private static byte[] resource(String path) {
+        try (InputStream in = UpstreamStub.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing stub resource " + path);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = Options.parse(args);
+        UpstreamStub stub = start(Integer.parseInt(options.getOrDefault("port", "18099")), Faults.parse(options));
+        System.out.printf("Upstream stub listening on %s (Brevo at %s) with %s%n", stub.baseUrl(), stub.brevoUrl(), stub.faults());
+    }
+}
@@ -0,0 +1,154 @@
+package weatherPhApplication.java.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ApiCompressionFilterTests {
+
+    private static final String ETAG = "\"abc123\"";
+    private static final String GZIP_ETAG = "\"abc123-gzip\"";
+    private static final String LARGE = "x".repeat(2000);
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.standaloneSetup(new TestController())
+                .addFilter(new ApiCompressionFilter(1024), "/api/*")
+                .build();
+    }
+
+    @Test
+    void gzipsForClientsThatAcceptIt() throws Exception {
+        MockHttpServletResponse response = mvc.perform(get("/api/large").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(header().string("ETag", GZIP_ETAG))
+                .andReturn().getResponse();
+
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+        assertEquals("{\"value\":\"" + LARGE + "\"}", gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void sendsIdentityToClientsThatDoNot() throws Exception {
+        mvc.perform(get("/api/large"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(content().json("{\"value\":\"" + LARGE + "\"}"));
+    }
+
+    @Test
+    void gzipEtagRevalidatesWith304() throws Exception {
+        mvc.perform(get("/api/large").header("Accept-Encoding", "gzip").header("If-None-Match", GZIP_ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", GZIP_ETAG))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(""));
+        // The plain tag still revalidates the identity variant
+        mvc.perform(get("/api/large").header("If-None-Match", ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", ETAG));
+        mvc.perform(get("/api/large").header("Accept-Encoding", "gzip").header("If-None-Match", "\"other-gzip\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    @Test
+    void leavesSmallResponsesUncompressed() throws Exception {
+        mvc.perform(get("/api/small").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(content().json("{\"value\":\"small\"}"));
+    }
+
+    @Test
+    void compressesAsyncResponsesExactlyOnce() throws Exception {
+        MvcResult started = mvc.perform(get("/api/async").header("Accept-Encoding", "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MockHttpServletResponse response = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", GZIP_ETAG))
+                .andReturn().getResponse();
+
+        assertEquals(List.of("gzip"), response.getHeaders("Content-Encoding"));
+        assertEquals(List.of("Accept-Encoding"), response.getHeaders("Vary"));
+        assertEquals("{\"value\":\"" + LARGE + "\"}", gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void asyncGzipEtagRevalidatesWith304() throws Exception {
+        MvcResult started = mvc.perform(get("/api/async").header("Accept-Encoding", "gzip").header("If-None-Match", GZIP_ETAG))
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", GZIP_ETAG))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void eventStreamsAreNotBuffered() throws Exception {
+        MockHttpServletResponse response = mvc.perform(get("/api/large")
+                        .header("Accept-Encoding", "gzip").header("Accept", "text/event-stream, application/json"))
+                .andReturn().getResponse();
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(ETAG, response.getHeader("ETag"));
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @RestController
+    static class TestController {
+
+        @GetMapping("/api/large")
+        ResponseEntity<Map<String, String>> large() {
+            return ResponseEntity.ok().eTag(ETAG).body(Map.of("value", LARGE));
+        }
+
+        @GetMapping("/api/small")
+        ResponseEntity<Map<String, String>> small() {
+            return ResponseEntity.ok().eTag(ETAG).body(Map.of("value", "small"));
+        }
+
+        @GetMapping("/api/async")
+        CompletableFuture<ResponseEntity<Map<String, String>>> async() {
+            return CompletableFuture.supplyAsync(() -> ResponseEntity.ok().eTag(ETAG).body(Map.of("value", LARGE)));
+        }
+    }
+}
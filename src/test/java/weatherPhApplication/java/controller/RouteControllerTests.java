@@ -0,0 +1,178 @@
+package weatherPhApplication.java.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.GeocodingResult;
+import weatherPhApplication.java.model.MainReadings;
+import weatherPhApplication.java.model.RouteWeatherResponse;
+import weatherPhApplication.java.model.WeatherCondition;
+import weatherPhApplication.java.service.AdvisoryEngine;
+import weatherPhApplication.java.service.GeoPoint;
+import weatherPhApplication.java.service.LocalTimeFormatter;
+import weatherPhApplication.java.service.RouteSampler;
+import weatherPhApplication.java.service.UpstreamPriority;
+import weatherPhApplication.java.service.WeatherService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteControllerTests {
+
+    private static final String POLYLINE = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+
+    private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+    private final Map<Double, CompletableFuture<CurrentWeather>> lookups = new ConcurrentHashMap<>();
+    private final List<GeoPoint> waypoints = Collections.synchronizedList(new ArrayList<>());
+    private RouteController controller;
+
+    @BeforeEach
+    void setUp() {
+        WeatherService weatherService = new WeatherService(new SimpleMeterRegistry()) {
+            @Override
+            public CompletableFuture<CurrentWeather> getWeatherAsync(double lat, double lon, UpstreamPriority priority) {
+                events.add("start " + lat);
+                return lookups.computeIfAbsent(lat, key -> new RecordingFuture("await " + key));
+            }
+
+            @Override
+            public List<CompletableFuture<CurrentWeather>> getWeatherForPoints(List<GeoPoint> points, int maxConcurrency,
+                                                                              UpstreamPriority priority) {
+                events.add("start " + points.size() + " waypoints");
+                waypoints.addAll(points);
+                return points.stream()
+                        .map(point -> (CompletableFuture<CurrentWeather>) new RecordingFuture("await waypoint"))
+                        .peek(future -> future.complete(observation("Waypoint")))
+                        .toList();
+            }
+
+            @Override
+            public GeocodingResult geocode(String location) {
+                return location.equals("Davao") ? new GeocodingResult("Davao City", null, "PH", 7.07, 125.61) : null;
+            }
+        };
+        controller = new RouteController();
+        ReflectionTestUtils.setField(controller, "weatherService", weatherService);
+        ReflectionTestUtils.setField(controller, "mapboxApiKey", "key");
+        ReflectionTestUtils.setField(controller, "routeSampler", new RouteSampler());
+        ReflectionTestUtils.setField(controller, "advisoryEngine",
+                new AdvisoryEngine(new ObjectMapper(), new DefaultResourceLoader(), "classpath:advisory-rules.json"));
+        ReflectionTestUtils.setField(controller, "timeFormatter", new LocalTimeFormatter());
+        ReflectionTestUtils.setField(controller, "routeDeadline", Duration.ofMillis(300));
+        ReflectionTestUtils.setField(controller, "sampleIntervalKm", 25.0);
+        ReflectionTestUtils.setField(controller, "maxWaypoints", 3);
+        ReflectionTestUtils.setField(controller, "waypointConcurrency", 2);
+        ReflectionTestUtils.setField(controller, "maxPolylinePoints", 5000);
+        ReflectionTestUtils.setField(controller, "cellSizeDegrees", 0.01);
+    }
+
+    @Test
+    void everyLookupIsStartedBeforeAnyIsAwaited() {
+        lookups.put(14.6, completed(14.6, "Manila"));
+        lookups.put(10.3, completed(10.3, "Cebu"));
+
+        assertEquals("route-advisory", route("Manila", 14.6, 121.0, "Cebu", 10.3, 123.9, POLYLINE, new ExtendedModelMap()));
+
+        assertFalse(waypoints.isEmpty());
+        assertEquals(List.of("start 14.6", "start 10.3", "start " + waypoints.size() + " waypoints", "await 14.6", "await 10.3"),
+                events.subList(0, 5));
+        assertTrue(events.subList(5, events.size()).stream().allMatch("await waypoint"::equals), events.toString());
+    }
+
+    @Test
+    void aSideThatMissesTheDeadlineGetsAnErrorCardWhileTheOtherRenders() {
+        lookups.put(14.6, new RecordingFuture("await 14.6"));
+        lookups.put(10.3, completed(10.3, "Cebu"));
+        ExtendedModelMap model = new ExtendedModelMap();
+
+        String view = assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> route("Manila", 14.6, 121.0, "Cebu", 10.3, 123.9, null, model));
+
+        assertEquals("route-advisory", view);
+        RouteWeatherResponse response = (RouteWeatherResponse) model.get("response");
+        assertEquals("Weather for Manila is taking too long to load. Please try again shortly.",
+                response.getOriginWeather().error());
+        assertFalse(response.getDestinationWeather().hasError());
+        assertEquals("Cebu", response.getDestinationWeather().name());
+        assertFalse(lookups.get(14.6).isDone(), "the slow lookup is left running to fill the cache");
+    }
+
+    @Test
+    void typedNamesWithoutCoordinatesAreResolved() {
+        lookups.put(14.6, completed(14.6, "Manila"));
+        lookups.put(7.07, completed(7.07, "Davao City"));
+        ExtendedModelMap model = new ExtendedModelMap();
+
+        assertEquals("route-advisory", route("Manila", 14.6, 121.0, "Davao", null, null, null, model));
+
+        assertTrue(events.contains("start 7.07"), events.toString());
+        assertEquals("Davao", ((RouteWeatherResponse) model.get("response")).getDestinationWeather().name());
+    }
+
+    @Test
+    void unknownTypedNameRedirectsBackToTheForm() {
+        RedirectAttributesModelMap redirect = new RedirectAttributesModelMap();
+
+        String view = controller.getRouteAdvisory("Manila", "Nowhere", 14.6, 121.0, null, null, null,
+                new ExtendedModelMap(), null, redirect);
+
+        assertEquals("redirect:/route-advisory", view);
+        assertEquals("We could not find \"Nowhere\". Please select it from the search suggestions.",
+                redirect.getFlashAttributes().get("formError"));
+        assertTrue(events.isEmpty());
+    }
+
+    private String route(String origin, Double originLat, Double originLon, String destination,
+                         Double destinationLat, Double destinationLon, String polyline, ExtendedModelMap model) {
+        return controller.getRouteAdvisory(origin, destination, originLat, originLon, destinationLat, destinationLon,
+                polyline, model, null, new RedirectAttributesModelMap());
+    }
+
+    private RecordingFuture completed(double lat, String name) {
+        RecordingFuture future = new RecordingFuture("await " + lat);
+        future.complete(observation(name));
+        return future;
+    }
+
+    private static CurrentWeather observation(String name) {
+        return new CurrentWeather(List.of(new WeatherCondition(800, "Clear", "clear sky", "01d")),
+                new MainReadings(30.0, 33.0, 29.0, 31.0, 1010, 70), null, null, null, null, 28800,
+                Instant.now().getEpochSecond(), name, null);
+    }
+
+    // Records when the controller starts waiting on a lookup
+    private class RecordingFuture extends CompletableFuture<CurrentWeather> {
+
+        private final String event;
+
+        RecordingFuture(String event) {
+            this.event = event;
+        }
+
+        @Override
+        public CurrentWeather get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            events.add(event);
+            return super.get(timeout, unit);
+        }
+    }
+}
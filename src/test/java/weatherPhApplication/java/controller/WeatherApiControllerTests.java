@@ -0,0 +1,251 @@
+package weatherPhApplication.java.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.MainReadings;
+import weatherPhApplication.java.model.WeatherCondition;
+import weatherPhApplication.java.service.GeoCell;
+import weatherPhApplication.java.service.GeoPoint;
+import weatherPhApplication.java.service.WeatherCache;
+import weatherPhApplication.java.service.WeatherService;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class WeatherApiControllerTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WeatherCache<CurrentWeather> cache = new WeatherCache<>("weather.current", 100, registry);
+    private final List<List<GeoPoint>> batches = new ArrayList<>();
+    private WeatherApiController controller;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        WeatherService weatherService = new WeatherService(registry) {
+            @Override
+            public CurrentWeather getWeather(double lat, double lon) {
+                return cached(lat, lon);
+            }
+
+            @Override
+            public CompletableFuture<CurrentWeather> getWeatherNonBlocking(double lat, double lon) {
+                return CompletableFuture.completedFuture(cached(lat, lon));
+            }
+
+            @Override
+            public WeatherCache.Entry<CurrentWeather> cachedWeather(double lat, double lon) {
+                return cache.peek(GeoCell.of(lat, lon, 0.01));
+            }
+
+            @Override
+            public CompletableFuture<List<CurrentWeather>> getWeatherBatch(List<GeoPoint> points, int maxConcurrency) {
+                batches.add(points);
+                return CompletableFuture.completedFuture(points.stream()
+                        .map(point -> new CurrentWeather(null, null, null, null, null, null, null, null,
+                                point.lat() + "," + point.lon(), null))
+                        .toList());
+            }
+        };
+        controller = new WeatherApiController();
+        ReflectionTestUtils.setField(controller, "weatherService", weatherService);
+        ReflectionTestUtils.setField(controller, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(controller, "batchMaxPoints", 3);
+        ReflectionTestUtils.setField(controller, "batchConcurrency", 2);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void blockingModeAnswersOnTheRequestThread() throws Exception {
+        mvc.perform(get("/api/localweather").param("lat", "14.6").param("lon", "121.0"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Manila"));
+        mvc.perform(batch("[{\"lat\":14.6,\"lon\":121.0}]"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("14.6,121.0"));
+    }
+
+    @Test
+    void nonBlockingModeAnswersThroughAsyncDispatch() throws Exception {
+        ReflectionTestUtils.setField(controller, "nonBlocking", true);
+
+        MvcResult started = mvc.perform(get("/api/localweather").param("lat", "14.6").param("lon", "121.0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Manila"));
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWith304AndNoBody() throws Exception {
+        String etag = mvc.perform(get("/api/localweather").param("lat", "14.6").param("lon", "121.0"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/api/localweather").param("lat", "14.6").param("lon", "121.0").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        mvc.perform(get("/api/localweather").param("lat", "14.6").param("lon", "121.0").header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Manila"));
+    }
+
+    @Test
+    void asyncResponsesAreRevalidatedToo() throws Exception {
+        ReflectionTestUtils.setField(controller, "nonBlocking", true);
+        MvcResult first = mvc.perform(get("/api/localweather").param("lat", "14.6").param("lon", "121.0")).andReturn();
+        String etag = mvc.perform(asyncDispatch(first)).andReturn().getResponse().getHeader("ETag");
+
+        MvcResult second = mvc.perform(get("/api/localweather").param("lat", "14.6").param("lon", "121.0")
+                .header("If-None-Match", etag)).andReturn();
+
+        mvc.perform(asyncDispatch(second))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void maxAgeIsTheTimeLeftUntilTheEntryExpires() throws Exception {
+        GeoCell cell = GeoCell.of(14.6, 121.0, 0.01);
+        cache.put(cell, observation(), Instant.now().plusSeconds(120));
+
+        String cacheControl = mvc.perform(get("/api/localweather").param("lat", "14.6").param("lon", "121.0"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("Cache-Control");
+
+        assertTrue(cacheControl.matches("max-age=1(19|20), public"), cacheControl);
+
+        // An entry already past its expiry is sent with max-age=0 rather than a negative age
+        cache.put(cell, observation(), Instant.now().minusSeconds(30));
+        mvc.perform(get("/api/localweather").param("lat", "14.6").param("lon", "121.0"))
+                .andExpect(header().string("Cache-Control", "max-age=0, public"));
+    }
+
+    @Test
+    void eachProjectionHasItsOwnEtag() throws Exception {
+        String full = etag(get("/api/localweather").param("lat", "14.6").param("lon", "121.0"));
+        String temp = etag(get("/api/localweather").param("lat", "14.6").param("lon", "121.0").param("fields", "main.temp"));
+        String reordered = etag(get("/api/localweather").param("lat", "14.6").param("lon", "121.0").param("fields", "name,main.temp"));
+        String sameFields = etag(get("/api/localweather").param("lat", "14.6").param("lon", "121.0").param("fields", "main.temp,name"));
+
+        assertNotEquals(full, temp);
+        assertNotEquals(temp, reordered);
+        assertEquals(reordered, sameFields);
+
+        // A projection's ETag only validates that projection
+        mvc.perform(get("/api/localweather").param("lat", "14.6").param("lon", "121.0").param("fields", "main.temp")
+                        .header("If-None-Match", temp))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mvc.perform(get("/api/localweather").param("lat", "14.6").param("lon", "121.0").param("fields", "main.temp")
+                        .header("If-None-Match", full))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.main.temp").value(30.0))
+                .andExpect(jsonPath("$.name").doesNotExist());
+    }
+
+    @Test
+    void errorsAreNeverCached() throws Exception {
+        cache.put(GeoCell.of(14.6, 121.0, 0.01), CurrentWeather.error("upstream down"), Instant.now().plusSeconds(300));
+
+        mvc.perform(get("/api/localweather").param("lat", "14.6").param("lon", "121.0"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void batchAnswersEachPointInOrder() throws Exception {
+        ReflectionTestUtils.setField(controller, "nonBlocking", true);
+        MvcResult started = mvc.perform(batch("[{\"lat\":14.6,\"lon\":121.0},{\"lat\":10.3,\"lon\":123.9}]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("14.6,121.0"))
+                .andExpect(jsonPath("$[1].name").value("10.3,123.9"));
+        assertEquals(List.of(new GeoPoint(14.6, 121.0), new GeoPoint(10.3, 123.9)), batches.get(0));
+    }
+
+    @Test
+    void rejectsBatchesOutsideTheSizeLimit() throws Exception {
+        mvc.perform(batch("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Between 1 and 3 points may be requested"));
+        mvc.perform(batch("[{\"lat\":1,\"lon\":1},{\"lat\":2,\"lon\":2},{\"lat\":3,\"lon\":3},{\"lat\":4,\"lon\":4}]"))
+                .andExpect(status().isBadRequest());
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void rejectsNullAndIncompletePoints() throws Exception {
+        for (String body : List.of(
+                "[{\"lat\":14.6,\"lon\":121.0},null]",
+                "[{\"lat\":14.6}]",
+                "[{\"lon\":121.0}]",
+                "[{\"lat\":14.6,\"lon\":999}]",
+                "[{\"lat\":",
+                "null")) {
+            mvc.perform(batch(body))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error").exists());
+        }
+        assertTrue(batches.isEmpty());
+    }
+
+    // Serves one cached observation per cell, as the real service does after a fetch
+    private CurrentWeather cached(double lat, double lon) {
+        GeoCell cell = GeoCell.of(lat, lon, 0.01);
+        WeatherCache.Entry<CurrentWeather> entry = cache.peek(cell);
+        if (entry != null) {
+            return entry.value();
+        }
+        CurrentWeather weather = observation();
+        cache.put(cell, weather, Instant.now().plusSeconds(300));
+        return weather;
+    }
+
+    private String etag(RequestBuilder request) throws Exception {
+        return mvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+    }
+
+    private static CurrentWeather observation() {
+        return new CurrentWeather(List.of(new WeatherCondition(800, "Clear", "clear sky", "01d")),
+                new MainReadings(30.0, 33.0, 29.0, 31.0, 1010, 70), null, null, null, null, 28800,
+                Instant.now().getEpochSecond(), "Manila", null);
+    }
+
+    private static RequestBuilder batch(String body) {
+        return post("/api/localweather/batch").contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
@@ -0,0 +1,101 @@
+package weatherPhApplication.java.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import weatherPhApplication.java.config.ApiRateLimitProperties;
+import weatherPhApplication.java.config.ApiRateLimitProperties.Limit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApiRateLimitFilterTests {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ApiRateLimitFilter filter = new ApiRateLimitFilter(
+            new ApiRateLimitProperties(true, new Limit(5, Duration.ofMinutes(1)),
+                    Map.of("/api/localweather", new Limit(2, Duration.ofMinutes(1))), 4, 100),
+            registry, now::get);
+
+    @Test
+    void throttlesAClientOnceItsAllowanceIsUsed() throws Exception {
+        assertEquals(200, call("/api/localweather", "10.0.0.1").getStatus());
+        assertEquals(200, call("/api/localweather", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse throttled = call("/api/localweather", "10.0.0.1");
+        assertEquals(429, throttled.getStatus());
+        assertEquals("30", throttled.getHeader("Retry-After"));
+        assertEquals(200, call("/api/localweather", "10.0.0.2").getStatus());
+        assertEquals(200, call("/api/forecast", "10.0.0.1").getStatus());
+        assertEquals(1.0, registry.get("api.ratelimit.throttled").tag("endpoint", "/api/localweather").counter().count());
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals(200, call("/api/localweather", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void newClientsInAFullStripeOnlyPushOutTheLeastRecentlyUsed() throws Exception {
+        // 2 stripes of 3 buckets each
+        ApiRateLimitFilter small = new ApiRateLimitFilter(
+                new ApiRateLimitProperties(true, new Limit(5, Duration.ofMinutes(1)),
+                        Map.of("/api/localweather", new Limit(2, Duration.ofMinutes(1))), 2, 6),
+                registry, now::get);
+        List<String> sameStripe = addressesInOneStripe("/api/localweather", 2, 5);
+        String victim = sameStripe.get(0);
+
+        call(small, "/api/localweather", victim);
+        call(small, "/api/localweather", victim);
+        call(small, "/api/localweather", sameStripe.get(1));
+        call(small, "/api/localweather", sameStripe.get(2));
+        assertEquals(429, call(small, "/api/localweather", victim).getStatus());
+
+        // A full stripe with nothing idle: each new key evicts one bucket, oldest first
+        call(small, "/api/localweather", sameStripe.get(3));
+        assertEquals(429, call(small, "/api/localweather", victim).getStatus());
+        call(small, "/api/localweather", sameStripe.get(4));
+        assertEquals(429, call(small, "/api/localweather", victim).getStatus());
+
+        // Once the victim's bucket has refilled it is idle, and goes before busier ones
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertEquals(200, call(small, "/api/localweather", victim).getStatus());
+    }
+
+    @Test
+    void leavesNonApiRequestsAlone() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, call("/route-advisory", "10.0.0.1").getStatus());
+        }
+    }
+
+    private MockHttpServletResponse call(String path, String remoteAddr) throws Exception {
+        return call(filter, path, remoteAddr);
+    }
+
+    private MockHttpServletResponse call(ApiRateLimitFilter filter, String path, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    /** Addresses whose buckets for the path share a stripe, picked the way the filter does. */
+    private static List<String> addressesInOneStripe(String path, int stripes, int count) {
+        List<String> addresses = new ArrayList<>();
+        for (int i = 1; addresses.size() < count; i++) {
+            int hash = (path + "|ip:10.0.0." + i).hashCode();
+            if (((hash ^ (hash >>> 16)) & (stripes - 1)) == 0) {
+                addresses.add("10.0.0." + i);
+            }
+        }
+        return addresses;
+    }
+}
@@ -0,0 +1,251 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import weatherPhApplication.java.model.CurrentWeather;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdvisoryEngineTests {
+
+    private static final String UNAVAILABLE = "Weather data is currently unavailable.";
+    private static final String THUNDERSTORM = "⛈️ Thunderstorm Warning: Severe weather is active. High risk of lightning, flash floods, and strong winds. Do not travel.";
+    private static final String LIGHT_RAIN = "🌦️ Light Rain Advisory: Roads may be slick. Activate wipers and increase your following distance.";
+    private static final String MODERATE_RAIN = "🌧️ Moderate Rain Warning: Reduce speed significantly and use headlights. Be alert for localized flooding.";
+    private static final String HEAVY_RAIN = "🌧️ Heavy Rain Warning: High risk of flash floods and zero visibility. It is strongly advised to postpone travel.";
+    private static final String SNOW = "❄️ Snow/Sleet Advisory: Roads will be extremely slippery and visibility poor. Travel is not recommended unless essential.";
+    private static final String LOW_VISIBILITY = "🌫️ Low Visibility Warning: Dense fog or mist is present. Use low-beam headlights and fog lights, and reduce speed drastically.";
+    private static final String WIND = "💨 High Wind Advisory: Be cautious, especially with high-profile vehicles. Watch for falling debris and be prepared for sudden gusts.";
+
+    /** Every OpenWeatherMap condition id with its main group and description. */
+    private static final Map<Integer, String[]> CONDITIONS = new LinkedHashMap<>();
+
+    static {
+        condition("Thunderstorm", 200, "thunderstorm with light rain", 201, "thunderstorm with rain",
+                202, "thunderstorm with heavy rain", 210, "light thunderstorm", 211, "thunderstorm",
+                212, "heavy thunderstorm", 221, "ragged thunderstorm", 230, "thunderstorm with light drizzle",
+                231, "thunderstorm with drizzle", 232, "thunderstorm with heavy drizzle");
+        condition("Drizzle", 300, "light intensity drizzle", 301, "drizzle", 302, "heavy intensity drizzle",
+                310, "light intensity drizzle rain", 311, "drizzle rain", 312, "heavy intensity drizzle rain",
+                313, "shower rain and drizzle", 314, "heavy shower rain and drizzle", 321, "shower drizzle");
+        condition("Rain", 500, "light rain", 501, "moderate rain", 502, "heavy intensity rain",
+                503, "very heavy rain", 504, "extreme rain", 511, "freezing rain",
+                520, "light intensity shower rain", 521, "shower rain", 522, "heavy intensity shower rain",
+                531, "ragged shower rain");
+        condition("Snow", 600, "light snow", 601, "snow", 602, "heavy snow", 611, "sleet",
+                612, "light shower sleet", 613, "shower sleet", 615, "light rain and snow", 616, "rain and snow",
+                620, "light shower snow", 621, "shower snow", 622, "heavy shower snow");
+        condition("Mist", 701, "mist");
+        condition("Smoke", 711, "smoke");
+        condition("Haze", 721, "haze");
+        condition("Dust", 731, "sand/dust whirls", 761, "dust");
+        condition("Fog", 741, "fog");
+        condition("Sand", 751, "sand");
+        condition("Ash", 762, "volcanic ash");
+        condition("Squall", 771, "squalls");
+        condition("Tornado", 781, "tornado");
+        condition("Clear", 800, "clear sky");
+        condition("Clouds", 801, "few clouds", 802, "scattered clouds", 803, "broken clouds", 804, "overcast clouds");
+    }
+
+    /**
+     * Conditions the old chain matched by description before checking the group, so
+     * the rain wording won over thunderstorm and snow. The tables go by id instead.
+     */
+    private static final Map<Integer, String> REORDERED = Map.of(200, THUNDERSTORM, 615, SNOW);
+
+    /** Conditions the old chain had no advisory for, and what they get now. */
+    private static final Map<Integer, String> NEWLY_COVERED = new LinkedHashMap<>();
+
+    static {
+        for (int id : List.of(300, 301, 302, 310, 311, 312, 313, 314, 321, 520)) {
+            NEWLY_COVERED.put(id, LIGHT_RAIN);
+        }
+        NEWLY_COVERED.put(521, MODERATE_RAIN);
+        NEWLY_COVERED.put(531, MODERATE_RAIN);
+        NEWLY_COVERED.put(504, HEAVY_RAIN);
+        NEWLY_COVERED.put(522, HEAVY_RAIN);
+        NEWLY_COVERED.put(511, SNOW);
+        for (int id : List.of(711, 721, 731, 751, 761, 762)) {
+            NEWLY_COVERED.put(id, LOW_VISIBILITY);
+        }
+        NEWLY_COVERED.put(771, WIND);
+        NEWLY_COVERED.put(781, THUNDERSTORM);
+    }
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void bundledRulesGiveTheOldAdvisoryForEveryCondition() {
+        AdvisoryEngine engine = new AdvisoryEngine(new ObjectMapper(), new DefaultResourceLoader(), "classpath:advisory-rules.json");
+
+        List<String> mismatches = new ArrayList<>();
+        CONDITIONS.forEach((id, condition) -> {
+            String legacy = legacyWeatherAdvice(condition[0], condition[1]);
+            String expected = REORDERED.containsKey(id) ? REORDERED.get(id)
+                    : NEWLY_COVERED.containsKey(id) ? NEWLY_COVERED.get(id)
+                    : legacy;
+            String actual = engine.advise(id, null).weather();
+            if (!expected.equals(actual)) {
+                mismatches.add(id + " " + condition[1] + ": expected '" + expected + "' but was '" + actual + "'");
+            }
+            if (NEWLY_COVERED.containsKey(id)) {
+                assertEquals(UNAVAILABLE, legacy, id + " was already covered");
+            } else if (REORDERED.containsKey(id)) {
+                assertNotEquals(UNAVAILABLE, legacy);
+            }
+        });
+        assertTrue(mismatches.isEmpty(), String.join("\n", mismatches));
+        assertEquals(UNAVAILABLE, engine.advise(999, null).weather());
+        assertEquals(UNAVAILABLE, engine.advise(null, null).weather());
+    }
+
+    @Test
+    void bundledRulesGiveTheOldAdvisoryForEveryTemperature() {
+        AdvisoryEngine engine = new AdvisoryEngine(new ObjectMapper(), new DefaultResourceLoader(), "classpath:advisory-rules.json");
+
+        // Every band edge and the steps between, including the gap between 12 and 20
+        for (int hundredths = -2000; hundredths <= 4500; hundredths++) {
+            double temp = hundredths / 100.0;
+            assertEquals(legacyTemperatureAdvice(temp), engine.advise(800, temp).temperature(), "at " + temp);
+        }
+        assertEquals("", engine.advise(800, null).temperature());
+        assertEquals("", engine.advise(800, Double.NaN).temperature());
+        assertEquals(legacyTemperatureAdvice(60.0), engine.advise(800, 60.0).temperature());
+        assertEquals(legacyTemperatureAdvice(-40.0), engine.advise(800, -40.0).temperature());
+    }
+
+    @Test
+    void missingWeatherGetsTheUnavailableAdvisory() {
+        AdvisoryEngine engine = new AdvisoryEngine(new ObjectMapper(), new DefaultResourceLoader(), "classpath:advisory-rules.json");
+
+        assertEquals(UNAVAILABLE, engine.advise((CurrentWeather) null).weather());
+        assertEquals("", engine.advise(CurrentWeather.error("down")).temperature());
+    }
+
+    @Test
+    void reloadsChangedRulesAndKeepsThePreviousOnesWhenTheFileIsBad() throws IOException {
+        Path file = dir.resolve("rules.json");
+        write(file, rules("Stay dry."), 1_000);
+        AdvisoryEngine engine = new AdvisoryEngine(new ObjectMapper(), new DefaultResourceLoader(), "file:" + file);
+        assertEquals("Stay dry.", engine.advise(500, null).weather());
+
+        write(file, rules("Bring an umbrella."), 2_000);
+        engine.reloadIfChanged();
+        assertEquals("Bring an umbrella.", engine.advise(500, null).weather());
+
+        write(file, "{\"conditions\": [", 3_000);
+        engine.reloadIfChanged();
+        assertEquals("Bring an umbrella.", engine.advise(500, null).weather());
+
+        write(file, rules("Bring an umbrella.").replace("\"500-599\"", "\"900-1200\""), 4_000);
+        engine.reloadIfChanged();
+        assertEquals("Bring an umbrella.", engine.advise(500, null).weather());
+
+        Files.delete(file);
+        engine.reloadIfChanged();
+        assertEquals("Bring an umbrella.", engine.advise(500, null).weather());
+
+        write(file, rules("Roads are flooding."), 5_000);
+        engine.reloadIfChanged();
+        assertEquals("Roads are flooding.", engine.advise(500, null).weather());
+    }
+
+    @Test
+    void unreadableRulesFailStartup() throws IOException {
+        Path file = dir.resolve("rules.json");
+        write(file, "not json", 1_000);
+
+        assertThrows(IllegalStateException.class,
+                () -> new AdvisoryEngine(new ObjectMapper(), new DefaultResourceLoader(), "file:" + file));
+        assertThrows(IllegalStateException.class,
+                () -> new AdvisoryEngine(new ObjectMapper(), new DefaultResourceLoader(), "file:" + dir.resolve("missing.json")));
+    }
+
+    private static String rules(String rainAdvice) {
+        return """
+                {
+                  "unavailable": "n/a",
+                  "unknownCondition": "unknown",
+                  "conditions": [ { "ids": "500-599", "advice": "%s" } ],
+                  "temperatureBands": [ { "min": 30.0, "advice": "hot" } ]
+                }
+                """.formatted(rainAdvice);
+    }
+
+    private static void write(Path file, String content, long modifiedMillis) throws IOException {
+        Files.writeString(file, content);
+        // Set explicitly, since file systems may only keep whole seconds
+        assertTrue(file.toFile().setLastModified(modifiedMillis));
+    }
+
+    private static void condition(String main, Object... idsAndDescriptions) {
+        for (int i = 0; i < idsAndDescriptions.length; i += 2) {
+            CONDITIONS.put((Integer) idsAndDescriptions[i], new String[] {main, (String) idsAndDescriptions[i + 1]});
+        }
+    }
+
+    // The if/else chain RouteController used before AdvisoryEngine, condition part
+    private static String legacyWeatherAdvice(String main, String description) {
+        String mainCond = main.toLowerCase();
+        description = description.toLowerCase();
+        if (description.equals("overcast clouds")) {
+            return "☁️ Overcast Skies: Visibility may be reduced. Ensure your vehicle's headlights are on for safety.";
+        } else if (description.equals("broken clouds")) {
+            return "🌥️ Partly Cloudy: Expect intermittent sun. Conditions are generally excellent for travel.";
+        } else if (description.equals("scattered clouds")) {
+            return "⛅ Scattered Clouds: Mostly clear with good visibility. Travel conditions are ideal.";
+        } else if (description.equals("few clouds")) {
+            return "🌤️ Mostly Sunny: Excellent visibility and road conditions expected. A great day for travel.";
+        } else if (description.contains("light rain")) {
+            return LIGHT_RAIN;
+        } else if (description.contains("moderate rain")) {
+            return MODERATE_RAIN;
+        } else if (description.contains("heavy intensity rain") || description.contains("very heavy rain")) {
+            return HEAVY_RAIN;
+        } else if (description.contains("clear sky")) {
+            return "🌞 Clear Skies: Ideal travel conditions. Stay aware of road traffic and hydrate, especially during long drives.";
+        } else if (mainCond.contains("thunderstorm")) {
+            return THUNDERSTORM;
+        } else if (mainCond.contains("snow")) {
+            return SNOW;
+        } else if (mainCond.contains("fog") || description.contains("fog") || mainCond.contains("mist")) {
+            return LOW_VISIBILITY;
+        } else if (mainCond.contains("wind")) {
+            return WIND;
+        }
+        return UNAVAILABLE;
+    }
+
+    // The same chain, temperature part
+    private static String legacyTemperatureAdvice(double temp) {
+        if (temp >= 37.0) {
+            return "🌡️ Danger - Extreme Heat: Heatstroke risk is high. Avoid non-essential travel and stay hydrated. Never leave people or pets in a vehicle.";
+        } else if (temp >= 34.0) {
+            return "☀️ Heat Caution: Risk of heat exhaustion. Drink plenty of water, wear light clothing, and take breaks in the shade.";
+        } else if (temp >= 28.0) {
+            return "🌤️ Warm Weather: Conditions are pleasant. Ensure you have drinking water available for your journey.";
+        } else if (temp >= 24.0) {
+            return "😊 Pleasant Weather: Ideal temperature for travel. Enjoy the trip safely.";
+        } else if (temp >= 20.0) {
+            return "🌡️ Mild Temperature: Comfortable conditions for any travel plans.";
+        } else if (temp <= 12.0) {
+            return "🧥 Cool Conditions: Temperatures are low. A jacket is recommended, particularly for night travel or trips to higher elevations.";
+        }
+        return "";
+    }
+}
@@ -0,0 +1,41 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import weatherPhApplication.java.model.Clouds;
+import weatherPhApplication.java.model.Forecast;
+import weatherPhApplication.java.model.ForecastCity;
+import weatherPhApplication.java.model.ForecastEntry;
+import weatherPhApplication.java.model.MainReadings;
+import weatherPhApplication.java.model.WeatherCondition;
+import weatherPhApplication.java.model.Wind;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedJsonTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CompressedJson json = new CompressedJson(objectMapper);
+
+    @Test
+    void forecastSurvivesTheRoundTripAndShrinks() throws Exception {
+        List<ForecastEntry> entries = new ArrayList<>();
+        for (int step = 0; step < 40; step++) {
+            entries.add(new ForecastEntry(1748707200L + step * 3 * 3600L,
+                    new MainReadings(25.0 + step % 8, 26.0, 24.0, 27.0, 1010, 80),
+                    List.of(new WeatherCondition(500, "Rain", "light rain", "10d")),
+                    new Wind(3.5, 180, null),
+                    new Clouds(75)));
+        }
+        Forecast forecast = new Forecast(entries, new ForecastCity("Manila", "PH", 8 * 3600, null, null), null);
+
+        byte[] payload = json.write(forecast);
+
+        assertEquals(forecast, json.read(payload, Forecast.class));
+        assertTrue(payload.length * 4 < objectMapper.writeValueAsBytes(forecast).length);
+    }
+}
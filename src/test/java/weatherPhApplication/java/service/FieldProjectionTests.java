@@ -0,0 +1,44 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FieldProjectionTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void keepsOnlyRequestedPathsThroughArrays() throws Exception {
+        JsonNode forecast = mapper.readTree("""
+                {"list":[{"dt":1,"main":{"temp":28.5,"humidity":70},"wind":{"speed":2}},
+                         {"dt":2,"main":{"temp":29.1,"humidity":72},"wind":{"speed":3}}],
+                 "city":{"name":"Manila","timezone":28800}}
+                """);
+
+        String projected = mapper.writeValueAsString(FieldProjection.parse("list.main.temp, list.dt,city").applyTo(forecast));
+
+        assertEquals(mapper.readTree("""
+                {"list":[{"dt":1,"main":{"temp":28.5}},{"dt":2,"main":{"temp":29.1}}],
+                 "city":{"name":"Manila","timezone":28800}}
+                """), mapper.readTree(projected));
+    }
+
+    @Test
+    void shorterPathKeepsTheWholeValueAndIsNormalized() {
+        FieldProjection projection = FieldProjection.parse("weather,main.temp,main,weather.id");
+
+        assertEquals("main,weather", projection.toString());
+        assertEquals(projection.toString(), FieldProjection.parse("main,weather").toString());
+    }
+
+    @Test
+    void blankMeansEverythingAndDeepPathsAreRejected() {
+        assertNull(FieldProjection.parse(" "));
+        assertThrows(IllegalArgumentException.class, () -> FieldProjection.parse("a.b.c.d.e.f.g"));
+    }
+}
@@ -0,0 +1,64 @@
+package weatherPhApplication.java.service;
+
+import org.junit.jupiter.api.Test;
+import weatherPhApplication.java.model.Clouds;
+import weatherPhApplication.java.model.DailyForecast;
+import weatherPhApplication.java.model.Forecast;
+import weatherPhApplication.java.model.ForecastCity;
+import weatherPhApplication.java.model.ForecastEntry;
+import weatherPhApplication.java.model.ForecastSummary;
+import weatherPhApplication.java.model.MainReadings;
+import weatherPhApplication.java.model.WeatherCondition;
+import weatherPhApplication.java.model.Wind;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForecastAggregatorTests {
+
+    private static final int MANILA_OFFSET = 8 * 3600;
+    // 2025-06-01T00:00:00+08:00
+    private static final long MIDNIGHT_MANILA = 1748707200L;
+
+    private final ForecastAggregator aggregator = new ForecastAggregator(new LocalTimeFormatter());
+
+    @Test
+    void bucketsDaysInTheLocationTimeZone() {
+        List<ForecastEntry> entries = new ArrayList<>();
+        for (int step = 0; step < 16; step++) {
+            String icon = step % 8 < 2 ? "01n" : "10d";
+            entries.add(entry(MIDNIGHT_MANILA + step * 3 * 3600L, 25 + step, 80, 2.0 + step, icon, icon.equals("10d") ? "light rain" : "clear sky"));
+        }
+
+        ForecastSummary summary = aggregator.summarize(new Forecast(entries, new ForecastCity("Manila", "PH", MANILA_OFFSET, null, null), null));
+
+        assertEquals(8, summary.hourly().size());
+        assertEquals("12 AM", summary.hourly().get(0).time());
+        assertEquals(2, summary.daily().size());
+        DailyForecast first = summary.daily().get(0);
+        assertEquals("2025-06-01", first.date());
+        assertEquals("Sunday", first.dayName());
+        assertEquals(25, first.minTemp());
+        assertEquals(32, first.maxTemp());
+        assertEquals(80, first.avgHumidity());
+        assertEquals(9.0 * 3.6, first.maxWind(), 1e-9);
+        assertEquals("10d", first.icon());
+        assertEquals("light rain", first.description());
+    }
+
+    @Test
+    void emptyForecastIsAnError() {
+        assertTrue(aggregator.summarize(new Forecast(List.of(), null, null)).hasError());
+    }
+
+    private static ForecastEntry entry(long dt, double temp, int humidity, double wind, String icon, String description) {
+        return new ForecastEntry(dt,
+                new MainReadings(temp, temp, temp, temp, 1010, humidity),
+                List.of(new WeatherCondition(800, "Clear", description, icon)),
+                new Wind(wind, 0, null),
+                new Clouds(0));
+    }
+}
@@ -0,0 +1,53 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import weatherPhApplication.java.model.GeocodingResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GeocodingIndexTests {
+
+    private final GeocodingIndex index =
+            new GeocodingIndex(new DefaultResourceLoader(), "classpath:geo/ph-places.tsv", new SimpleMeterRegistry());
+
+    @Test
+    void ignoresCaseAccentsAndCityAffix() {
+        assertEquals("Iloilo City", index.resolve("city of iloilo").name());
+        assertEquals("Parañaque", index.resolve("PARANAQUE CITY").name());
+        assertEquals("Malay", index.resolve("Boracay").name());
+    }
+
+    @Test
+    void usesProvinceToDisambiguate() {
+        assertEquals("Pampanga", index.resolve("San Fernando, Pampanga").state());
+        assertEquals("La Union", index.resolve("San Fernando, La Union").state());
+    }
+
+    @Test
+    void onlyTheApproximateLookupToleratesTypos() {
+        assertNull(index.resolve("Cagayan de Orro"));
+        assertEquals("Cagayan de Oro", index.resolveApproximate("Cagayan de Orro").name());
+        assertNull(index.resolveApproximate("Atlantis"));
+    }
+
+    @Test
+    void nearMissOfAnIndexedNameIsNotResolvedAsThatPlace() {
+        // Bacolor, Pampanga is a real town one letter away from Bacolod, which is indexed
+        assertNull(index.resolve("Bacolor"));
+        assertNull(index.resolve("Bacolor, Pampanga"));
+    }
+
+    @Test
+    void learnsRemoteResults() {
+        GeocodingResult sagada = new GeocodingResult("Sagada", "Mountain Province", "PH", 17.0833, 120.9000);
+        index.learn("Sagada, Mountain Province", sagada);
+
+        assertEquals(sagada, index.resolve("sagada"));
+        assertEquals(List.of(sagada), index.suggest("Saga", 5));
+    }
+}
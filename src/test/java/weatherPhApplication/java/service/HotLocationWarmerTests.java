@@ -0,0 +1,121 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import weatherPhApplication.java.config.HotLocationProperties;
+import weatherPhApplication.java.config.HotLocationProperties.Location;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotLocationWarmerTests {
+
+    private static final List<Location> LOCATIONS = List.of(
+            new Location("A", 1, 1), new Location("B", 2, 2), new Location("C", 3, 3),
+            new Location("D", 4, 4), new Location("E", 5, 5));
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void refreshesInBatchesWithAPauseBetweenThem() {
+        long start = System.nanoTime();
+        Map<Double, Long> startedAt = new ConcurrentHashMap<>();
+        FakeWeatherService weather = new FakeWeatherService(lat -> {
+            startedAt.put(lat, System.nanoTime() - start);
+            return lat == 3 ? -1 : 0;
+        });
+        HotLocationWarmer warmer = new HotLocationWarmer(properties(2, Duration.ofMillis(200)), weather, executor);
+
+        int warmed = warmer.warm(Duration.ofSeconds(10)).join();
+
+        // C reports a failed lookup; everything else is warmed
+        assertEquals(4, warmed);
+        assertEquals(5, startedAt.size());
+        long pause = TimeUnit.MILLISECONDS.toNanos(200);
+        assertTrue(startedAt.get(3.0) >= startedAt.get(2.0) + pause);
+        assertTrue(startedAt.get(5.0) >= startedAt.get(4.0) + pause);
+    }
+
+    @Test
+    void givesUpWhenTheBudgetIsSpent() {
+        FakeWeatherService weather = new FakeWeatherService(lat -> lat <= 2 ? 0 : 5_000);
+        HotLocationWarmer warmer = new HotLocationWarmer(properties(2, Duration.ofMillis(10)), weather, executor);
+
+        long start = System.nanoTime();
+        int warmed = warmer.warm(Duration.ofMillis(500)).join();
+
+        assertEquals(2, warmed);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+    }
+
+    @Test
+    void scheduledRefreshDoesNotBlockTheSchedulerThread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FakeWeatherService weather = new FakeWeatherService(lat -> {
+            release.await();
+            return 0;
+        });
+        HotLocationWarmer warmer = new HotLocationWarmer(properties(1, Duration.ofMillis(10)), weather, executor);
+
+        long start = System.nanoTime();
+        warmer.refresh();
+        warmer.refresh();
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        release.countDown();
+        // The second trigger found the first pass still running and did not start another
+        Thread.sleep(300);
+        assertEquals(LOCATIONS.size(), weather.calls.size());
+    }
+
+    private static HotLocationProperties properties(int batchSize, Duration batchPause) {
+        return new HotLocationProperties(true, LOCATIONS, Duration.ofMinutes(5), batchSize, batchPause, Duration.ofSeconds(30));
+    }
+
+    private interface Behaviour {
+        /** Milliseconds to take, or -1 to report a failed lookup. */
+        long millis(double lat) throws InterruptedException;
+    }
+
+    private static final class FakeWeatherService extends WeatherService {
+
+        private final Behaviour behaviour;
+        private final List<Double> calls = new CopyOnWriteArrayList<>();
+
+        private FakeWeatherService(Behaviour behaviour) {
+            super(new SimpleMeterRegistry());
+            this.behaviour = behaviour;
+        }
+
+        @Override
+        public boolean refresh(double lat, double lon, Duration validFor) {
+            calls.add(lat);
+            try {
+                long millis = behaviour.millis(lat);
+                if (millis > 0) {
+                    Thread.sleep(millis);
+                }
+                return millis >= 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
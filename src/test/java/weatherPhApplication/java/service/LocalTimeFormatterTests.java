@@ -0,0 +1,43 @@
+package weatherPhApplication.java.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocalTimeFormatterTests {
+
+    private final LocalTimeFormatter formatter = new LocalTimeFormatter();
+
+    @Test
+    void clockTimeIsInTheLocationsOffset() {
+        assertEquals("5:30 AM", formatter.clockTime(1748727000L, 28800));
+        assertEquals("6:30 PM", formatter.clockTime(1748773800L, 28800));
+        assertEquals("4:15 PM", formatter.clockTime(1748773800L, 20700));
+    }
+
+    @Test
+    void missingOrInvalidValuesAreUnknown() {
+        assertEquals(LocalTimeFormatter.UNKNOWN_TIME, formatter.clockTime(null, 28800));
+        assertEquals(LocalTimeFormatter.UNKNOWN_TIME, formatter.clockTime(1748727000L, null));
+        assertEquals(LocalTimeFormatter.UNKNOWN_TIME, formatter.clockTime(1748727000L, 19 * 3600));
+    }
+
+    @Test
+    void offsetsMatchTheJdksOwn() {
+        assertEquals(ZoneOffset.UTC, formatter.offset(null));
+        assertEquals(ZoneOffset.ofHours(8), formatter.offset(28800));
+        assertEquals(ZoneOffset.ofHours(-18), formatter.offset(-18 * 3600));
+        assertEquals(ZoneOffset.ofTotalSeconds(123), formatter.offset(123));
+    }
+
+    @Test
+    void hoursAndDaysAreLocal() {
+        ZoneOffset manila = formatter.offset(28800);
+        assertEquals("6 PM", formatter.hour(1748773800L, manila));
+        assertEquals(LocalDate.of(2025, 6, 1), formatter.localDate(1748727000L, manila));
+        assertEquals("Sunday", formatter.dayName(LocalDate.of(2025, 6, 1)));
+    }
+}
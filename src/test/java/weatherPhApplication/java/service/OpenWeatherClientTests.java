@@ -0,0 +1,163 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClientResponseException;
+import weatherPhApplication.java.config.HttpClientConfig;
+import weatherPhApplication.java.config.ResilienceProperties;
+import weatherPhApplication.java.config.UpstreamHttpProperties;
+import weatherPhApplication.java.model.CurrentWeather;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OpenWeatherClientTests {
+
+    private static final UpstreamHttpProperties HTTP = new UpstreamHttpProperties(100, 20,
+            Map.of("api.openweathermap.org", 7), Duration.ofSeconds(3), Duration.ofSeconds(5),
+            Duration.ofMinutes(5), Duration.ofSeconds(30));
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HttpClientConfig config = new HttpClientConfig();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private HttpServer server;
+    private PoolingAsyncClientConnectionManager connectionManager;
+    private CloseableHttpAsyncClient asyncHttpClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = (status == 200 ? "{\"name\":\"Manila\",\"timezone\":28800}" : "{\"cod\":" + status + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        connectionManager = config.upstreamAsyncConnectionManager(HTTP);
+        asyncHttpClient = config.upstreamAsyncHttpClient(connectionManager, HTTP);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        asyncHttpClient.close();
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    @Test
+    void asyncCallTakesATokenAndIsTimed() {
+        OpenWeatherClient client = client(limiter(10), guard(10));
+
+        CurrentWeather weather = client.currentWeatherAsync(14.6, 121.0).join();
+
+        assertEquals("Manila", weather.name());
+        assertEquals(1, requests.get());
+        assertEquals(1.0, registry.find("upstream.ratelimit.acquired").counters().stream().mapToDouble(c -> c.count()).sum());
+        assertEquals(1.0, registry.get("upstream.calls").tag("outcome", "success").counter().count());
+        assertEquals(1, registry.get("upstream.requests").tag("operation", "weather").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void serverErrorFailsTheCallAndCountsAgainstTheGuard() {
+        status = 503;
+        OpenWeatherClient client = client(limiter(10), guard(10));
+
+        CompletionException error = assertThrows(CompletionException.class, () -> client.currentWeatherAsync(14.6, 121.0).join());
+
+        RestClientResponseException response = assertInstanceOf(RestClientResponseException.class, error.getCause());
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals(1.0, registry.get("upstream.calls").tag("outcome", "failure").counter().count());
+        assertEquals(1, registry.get("upstream.requests").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void clientErrorFailsTheCallButNotTheGuard() {
+        status = 400;
+        OpenWeatherClient client = client(limiter(10), guard(10));
+
+        CompletionException error = assertThrows(CompletionException.class, () -> client.forecastAsync(14.6, 121.0).join());
+
+        assertEquals(400, assertInstanceOf(RestClientResponseException.class, error.getCause()).getStatusCode().value());
+        assertEquals(1.0, registry.get("upstream.calls").tag("outcome", "success").counter().count());
+        assertEquals(0.0, registry.get("upstream.calls").tag("outcome", "failure").counter().count());
+    }
+
+    @Test
+    void callWithoutATokenNeverGoesUpstream() {
+        UpstreamRateLimiter limiter = limiter(1);
+        limiter.acquireAsync().join();
+        OpenWeatherClient client = client(limiter, guard(10));
+
+        CompletionException error = assertThrows(CompletionException.class, () -> client.currentWeatherAsync(14.6, 121.0).join());
+
+        assertInstanceOf(UpstreamRejectedException.class, error.getCause());
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    void openGuardRejectsWithoutGoingUpstream() {
+        status = 500;
+        OpenWeatherClient client = client(limiter(10), guard(2));
+        for (int i = 0; i < 2; i++) {
+            assertThrows(CompletionException.class, () -> client.currentWeatherAsync(14.6, 121.0).join());
+        }
+
+        CompletionException error = assertThrows(CompletionException.class, () -> client.currentWeatherAsync(14.6, 121.0).join());
+
+        assertInstanceOf(UpstreamRejectedException.class, error.getCause());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void asyncPoolSharesTheLimitsAndIsMetered() {
+        config.upstreamAsyncConnectionPoolMetrics(connectionManager).bindTo(registry);
+
+        assertEquals(100, connectionManager.getMaxTotal());
+        assertEquals(20, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(7, connectionManager.getMaxPerRoute(
+                new HttpRoute(new HttpHost("https", "api.openweathermap.org", 443), null, true)));
+        assertEquals(100.0, registry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "upstream-async").gauge().value());
+    }
+
+    private OpenWeatherClient client(UpstreamRateLimiter limiter, UpstreamGuard guard) {
+        OpenWeatherClient client = new OpenWeatherClient(null, asyncHttpClient, new ObjectMapper(), guard, limiter,
+                new UpstreamMetrics(registry));
+        ReflectionTestUtils.setField(client, "baseUrl", "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(client, "apiKey", "key");
+        return client;
+    }
+
+    // Tokens that do not refill during the test
+    private UpstreamRateLimiter limiter(int burst) {
+        return new UpstreamRateLimiter(true, 1, burst, 0, 0, Duration.ZERO, Duration.ZERO, false, 10, registry);
+    }
+
+    private UpstreamGuard guard(int minimumCalls) {
+        return new UpstreamGuard("openweather",
+                new ResilienceProperties.Upstream(minimumCalls, minimumCalls, 50, Duration.ofSeconds(30), 1, 50), registry);
+    }
+}
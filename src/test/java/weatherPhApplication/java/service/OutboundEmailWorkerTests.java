@@ -0,0 +1,301 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import weatherPhApplication.java.config.ResilienceProperties;
+import weatherPhApplication.java.model.OutboundEmail;
+import weatherPhApplication.java.model.OutboundEmail.Status;
+import weatherPhApplication.java.repository.OutboundEmailRepository;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboundEmailWorkerTests {
+
+    @Autowired
+    private OutboundEmailRepository repository;
+
+    private final FakeBrevo brevo = new FakeBrevo();
+    private OutboundEmailWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        worker = worker(repository);
+    }
+
+    @Test
+    void sendsDueEmailsInBatchesAsMessageVersions() {
+        for (int i = 1; i <= 5; i++) {
+            repository.save(new OutboundEmail("user" + i + "@example.com", "Verify " + i, "Hello\nuser " + i));
+        }
+        OutboundEmail notDue = new OutboundEmail("later@example.com", "Later", "Later");
+        notDue.setNextAttemptAt(Instant.now().plus(Duration.ofHours(1)));
+        repository.save(notDue);
+
+        worker.drain();
+
+        // Batches of two: two as messageVersions of one request, the last one on its own
+        assertEquals(3, brevo.requests.size());
+        List<Map<String, Object>> versions = versions(brevo.requests.get(0));
+        assertEquals(2, versions.size());
+        assertEquals(List.of(Map.of("email", "user1@example.com")), versions.get(0).get("to"));
+        assertEquals("Verify 1", versions.get(0).get("subject"));
+        assertEquals("Hello<br>user 1", versions.get(0).get("htmlContent"));
+        assertEquals(List.of(Map.of("email", "user2@example.com")), versions.get(1).get("to"));
+        assertEquals(2, versions(brevo.requests.get(1)).size());
+        Map<String, Object> single = brevo.requests.get(2);
+        assertFalse(single.containsKey("messageVersions"));
+        assertEquals(List.of(Map.of("email", "user5@example.com")), single.get("to"));
+
+        for (OutboundEmail email : repository.findAll()) {
+            if (email.getRecipient().equals("later@example.com")) {
+                assertEquals(Status.PENDING, email.getStatus());
+                assertEquals(0, email.getAttempts());
+            } else {
+                assertEquals(Status.SENT, email.getStatus());
+                assertEquals(1, email.getAttempts());
+                assertNotNull(email.getSentAt());
+            }
+        }
+    }
+
+    @Test
+    void emailClaimedByAnotherWorkerIsSkipped() {
+        OutboundEmail contended = repository.save(new OutboundEmail("a@example.com", "A", "A"));
+        repository.save(new OutboundEmail("b@example.com", "B", "B"));
+        // Another instance claims the first email between our read and our claim
+        OutboundEmailRepository racing = (OutboundEmailRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {OutboundEmailRepository.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(repository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().startsWith("findByStatusIn")) {
+                        OutboundEmail theirs = repository.findById(contended.getId()).orElseThrow();
+                        theirs.setStatus(Status.SENDING);
+                        theirs.setAttempts(theirs.getAttempts() + 1);
+                        repository.saveAndFlush(theirs);
+                    }
+                    return result;
+                });
+        worker = worker(racing);
+
+        worker.drain();
+
+        assertEquals(1, brevo.requests.size());
+        assertEquals(List.of(Map.of("email", "b@example.com")), brevo.requests.get(0).get("to"));
+        OutboundEmail theirs = repository.findById(contended.getId()).orElseThrow();
+        assertEquals(Status.SENDING, theirs.getStatus());
+        assertEquals(1, theirs.getAttempts());
+    }
+
+    @Test
+    void retryableFailuresAreRescheduledWithBackoff() {
+        OutboundEmail email = repository.save(new OutboundEmail("a@example.com", "A", "A"));
+
+        brevo.failures.add(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+        Instant before = Instant.now();
+        worker.drain();
+        OutboundEmail afterFirst = repository.findById(email.getId()).orElseThrow();
+        assertEquals(Status.PENDING, afterFirst.getStatus());
+        assertEquals(1, afterFirst.getAttempts());
+        assertNotNull(afterFirst.getLastError());
+        assertBetween(before.plusSeconds(30), afterFirst.getNextAttemptAt(), Instant.now().plusSeconds(30));
+
+        // Not due yet, so the next poll leaves it alone
+        worker.drain();
+        assertEquals(1, brevo.requests.size());
+
+        makeDue(afterFirst);
+        brevo.failures.add(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+        before = Instant.now();
+        worker.drain();
+        OutboundEmail afterSecond = repository.findById(email.getId()).orElseThrow();
+        assertEquals(Status.PENDING, afterSecond.getStatus());
+        assertEquals(2, afterSecond.getAttempts());
+        assertBetween(before.plusSeconds(60), afterSecond.getNextAttemptAt(), Instant.now().plusSeconds(60));
+
+        makeDue(afterSecond);
+        worker.drain();
+        OutboundEmail sent = repository.findById(email.getId()).orElseThrow();
+        assertEquals(Status.SENT, sent.getStatus());
+        assertEquals(3, sent.getAttempts());
+        assertNull(sent.getLastError());
+    }
+
+    @Test
+    void rejectedEmailsFailWithoutRetrying() {
+        OutboundEmail email = repository.save(new OutboundEmail("not-an-address", "A", "A"));
+        brevo.failures.add(new HttpClientErrorException(HttpStatus.BAD_REQUEST, "invalid email"));
+
+        worker.drain();
+
+        OutboundEmail failed = repository.findById(email.getId()).orElseThrow();
+        assertEquals(Status.FAILED, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertTrue(failed.getLastError().contains("invalid email"), failed.getLastError());
+    }
+
+    @Test
+    void rejectedBatchIsResentOneByOneSoOnlyTheBadEmailFails() {
+        OutboundEmail bad = repository.save(new OutboundEmail("not-an-address", "A", "A"));
+        OutboundEmail good = repository.save(new OutboundEmail("b@example.com", "B", "B"));
+        brevo.rejected.add("not-an-address");
+
+        worker.drain();
+
+        // The batch, then each email on its own
+        assertEquals(3, brevo.requests.size());
+        assertEquals(2, versions(brevo.requests.get(0)).size());
+        assertEquals(List.of(Map.of("email", "not-an-address")), brevo.requests.get(1).get("to"));
+        assertEquals(List.of(Map.of("email", "b@example.com")), brevo.requests.get(2).get("to"));
+
+        OutboundEmail failed = repository.findById(bad.getId()).orElseThrow();
+        assertEquals(Status.FAILED, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        OutboundEmail sent = repository.findById(good.getId()).orElseThrow();
+        assertEquals(Status.SENT, sent.getStatus());
+        assertEquals(1, sent.getAttempts());
+        assertNull(sent.getLastError());
+    }
+
+    @Test
+    void emailsThatRunOutOfAttemptsFail() {
+        OutboundEmail email = repository.save(new OutboundEmail("a@example.com", "A", "A"));
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            brevo.failures.add(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+            worker.drain();
+            makeDue(repository.findById(email.getId()).orElseThrow());
+        }
+
+        OutboundEmail failed = repository.findById(email.getId()).orElseThrow();
+        assertEquals(Status.FAILED, failed.getStatus());
+        assertEquals(3, failed.getAttempts());
+        worker.drain();
+        assertEquals(3, brevo.requests.size());
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        assertEquals(Duration.ofSeconds(30), worker.backoff(1));
+        assertEquals(Duration.ofSeconds(60), worker.backoff(2));
+        assertEquals(Duration.ofSeconds(240), worker.backoff(4));
+        assertEquals(Duration.ofMinutes(10), worker.backoff(6));
+        assertEquals(Duration.ofMinutes(10), worker.backoff(1000));
+    }
+
+    private OutboundEmailWorker worker(OutboundEmailRepository repository) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EmailService emailService = new EmailService(brevo, repository,
+                new UpstreamGuard("brevo", new ResilienceProperties.Upstream(20, 100, 50, Duration.ofSeconds(30), 3, 50), registry),
+                new UpstreamMetrics(registry));
+        ReflectionTestUtils.setField(emailService, "brevoApiUrl", "https://brevo.test/v3/smtp/email");
+        ReflectionTestUtils.setField(emailService, "brevoApiKey", "key");
+        ReflectionTestUtils.setField(emailService, "senderEmail", "noreply@example.com");
+        ReflectionTestUtils.setField(emailService, "senderName", "WeatherPH");
+
+        OutboundEmailWorker worker = new OutboundEmailWorker(registry);
+        ReflectionTestUtils.setField(worker, "outboundEmailRepository", repository);
+        ReflectionTestUtils.setField(worker, "emailService", emailService);
+        ReflectionTestUtils.setField(worker, "emailExecutor", new CallerRunsExecutor());
+        ReflectionTestUtils.setField(worker, "batchSize", 2);
+        ReflectionTestUtils.setField(worker, "maxBatchesPerPoll", 4);
+        ReflectionTestUtils.setField(worker, "maxAttempts", 3);
+        ReflectionTestUtils.setField(worker, "initialBackoff", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(worker, "maxBackoff", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(worker, "sendLease", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(worker, "retention", Duration.ofDays(7));
+        return worker;
+    }
+
+    private void makeDue(OutboundEmail email) {
+        email.setNextAttemptAt(Instant.now().minusSeconds(1));
+        repository.save(email);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> versions(Map<String, Object> payload) {
+        return (List<Map<String, Object>>) payload.get("messageVersions");
+    }
+
+    private static void assertBetween(Instant from, Instant actual, Instant to) {
+        assertFalse(actual.isBefore(from.minusMillis(1)), actual + " is before " + from);
+        assertFalse(actual.isAfter(to.plusMillis(1)), actual + " is after " + to);
+    }
+
+    /**
+     * Records what would be posted to Brevo, fails with the queued errors first, and
+     * rejects any request with a rejected recipient in it.
+     */
+    private static final class FakeBrevo extends RestTemplate {
+
+        final List<Map<String, Object>> requests = new ArrayList<>();
+        final Deque<RuntimeException> failures = new ConcurrentLinkedDeque<>();
+        final Set<String> rejected = new HashSet<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> request,
+                                              Class<T> responseType, Object... uriVariables) {
+            Map<String, Object> payload = (Map<String, Object>) request.getBody();
+            requests.add(payload);
+            RuntimeException failure = failures.poll();
+            if (failure != null) {
+                throw failure;
+            }
+            List<Map<String, Object>> messages = payload.containsKey("messageVersions") ? versions(payload) : List.of(payload);
+            for (Map<String, Object> message : messages) {
+                for (Map<String, String> to : (List<Map<String, String>>) message.get("to")) {
+                    if (rejected.contains(to.get("email"))) {
+                        throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "invalid email " + to.get("email"));
+                    }
+                }
+            }
+            return (ResponseEntity<T>) ResponseEntity.status(HttpStatus.CREATED).body("{\"messageId\":\"1\"}");
+        }
+    }
+
+    /** Runs each batch on the polling thread, so a poll has finished sending when drain returns. */
+    private static final class CallerRunsExecutor extends ThreadPoolTaskExecutor {
+
+        @Override
+        public void execute(Runnable task) {
+            task.run();
+        }
+    }
+}
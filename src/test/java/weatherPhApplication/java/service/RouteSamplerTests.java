@@ -0,0 +1,77 @@
+package weatherPhApplication.java.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteSamplerTests {
+
+    private final RouteSampler sampler = new RouteSampler();
+
+    @Test
+    void decodesEncodedPolyline() {
+        List<GeoPoint> points = sampler.decodePolyline("_p~iF~ps|U_ulLnnqC_mqNvxq`@", 100);
+
+        assertEquals(List.of(new GeoPoint(38.5, -120.2), new GeoPoint(40.7, -120.95), new GeoPoint(43.252, -126.453)), points);
+    }
+
+    @Test
+    void rejectsMalformedPolyline() {
+        assertThrows(IllegalArgumentException.class, () -> sampler.decodePolyline("_p~iF~", 100));
+    }
+
+    @Test
+    void rejectsPolylinesOverThePointLimit() {
+        String encoded = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+
+        assertEquals(3, sampler.decodePolyline(encoded, 3).size());
+        assertThrows(IllegalArgumentException.class, () -> sampler.decodePolyline(encoded, 2));
+    }
+
+    @Test
+    void rejectsPointsOutOfRange() {
+        // Single points at (100, 0) and (0, 200)
+        assertThrows(IllegalArgumentException.class, () -> sampler.decodePolyline("_gjaR?", 100));
+        assertThrows(IllegalArgumentException.class, () -> sampler.decodePolyline("?_ouce@", 100));
+    }
+
+    @Test
+    void samplesAtIntervalsBetweenEndpoints() {
+        // Manila to Baguio as the crow flies, roughly 205 km
+        List<GeoPoint> path = List.of(new GeoPoint(14.5995, 120.9842), new GeoPoint(16.4023, 120.5960));
+
+        List<RouteSampler.Sample> samples = sampler.sample(path, 50, 0.01, 10);
+
+        assertEquals(4, samples.size());
+        assertEquals(50, samples.get(0).distanceKm(), 1e-9);
+        assertEquals(200, samples.get(3).distanceKm(), 1e-9);
+    }
+
+    @Test
+    void capsTheNumberOfSamples() {
+        List<GeoPoint> path = List.of(new GeoPoint(14.5995, 120.9842), new GeoPoint(16.4023, 120.5960));
+
+        List<RouteSampler.Sample> samples = sampler.sample(path, 5, 0.01, 6);
+
+        assertEquals(6, samples.size());
+        for (int i = 1; i < samples.size(); i++) {
+            assertTrue(samples.get(i).distanceKm() > samples.get(i - 1).distanceKm());
+        }
+    }
+
+    @Test
+    void widensTheIntervalOnVeryLongRoutes() {
+        // Manila to Baguio at 1 m intervals would lay ~205,000 marks; at most 3 * 50 are laid
+        List<GeoPoint> path = List.of(new GeoPoint(14.5995, 120.9842), new GeoPoint(16.4023, 120.5960));
+
+        List<RouteSampler.Sample> samples = sampler.sample(path, 0.001, 0.0001, 3);
+
+        assertEquals(3, samples.size());
+        double routeKm = path.get(0).distanceKmTo(path.get(1));
+        assertTrue(samples.get(0).distanceKm() >= routeKm / (3 * RouteSampler.MARKS_PER_SAMPLE) - 1e-9);
+    }
+}
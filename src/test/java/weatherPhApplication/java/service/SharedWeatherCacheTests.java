@@ -0,0 +1,180 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import weatherPhApplication.java.model.CachedWeather;
+import weatherPhApplication.java.model.Clouds;
+import weatherPhApplication.java.repository.CachedWeatherRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SharedWeatherCacheTests {
+
+    private static final GeoCell MANILA = GeoCell.of(14.5995, 120.9842, 0.05);
+    private static final GeoCell CEBU = GeoCell.of(10.3157, 123.8854, 0.05);
+
+    @Autowired
+    private CachedWeatherRepository repository;
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @BeforeEach
+    void clear() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void missIsFilledOnceAnotherInstanceHasFlushed() {
+        SharedWeatherCache reader = cache(Runnable::run);
+        SharedWeatherCache writer = cache(Runnable::run);
+
+        assertNull(reader.getAsync(SharedWeatherCache.CURRENT, MANILA, Clouds.class, now).join());
+
+        writer.put(SharedWeatherCache.CURRENT, MANILA, new Clouds(75), now, now.plusSeconds(600));
+        assertNull(reader.get(SharedWeatherCache.CURRENT, MANILA, Clouds.class, now), "not visible before the flush");
+        writer.flush();
+
+        SharedWeatherCache.Hit<Clouds> hit = reader.getAsync(SharedWeatherCache.CURRENT, MANILA, Clouds.class, now).join();
+        assertNotNull(hit);
+        assertEquals(new Clouds(75), hit.value());
+        assertEquals(now.plusSeconds(600), hit.expiresAt());
+        assertNull(reader.get(SharedWeatherCache.FORECAST, MANILA, Clouds.class, now), "kinds do not share rows");
+    }
+
+    @Test
+    void lookupRunsOnTheExecutorAndMissesWhenItIsSaturated() {
+        AtomicInteger submitted = new AtomicInteger();
+        SharedWeatherCache cache = cache(task -> {
+            submitted.incrementAndGet();
+            task.run();
+        });
+        cache.put(SharedWeatherCache.CURRENT, MANILA, new Clouds(20), now, now.plusSeconds(600));
+        cache.flush();
+
+        assertNotNull(cache.getAsync(SharedWeatherCache.CURRENT, MANILA, Clouds.class, now).join());
+        assertEquals(1, submitted.get());
+
+        SharedWeatherCache saturated = cache(task -> {
+            throw new RejectedExecutionException("full");
+        });
+        assertNull(saturated.getAsync(SharedWeatherCache.CURRENT, MANILA, Clouds.class, now).join());
+    }
+
+    @Test
+    void repeatedWritesBeforeAFlushCollapseIntoTheLatest() {
+        SharedWeatherCache cache = cache(Runnable::run);
+
+        cache.put(SharedWeatherCache.CURRENT, MANILA, new Clouds(10), now, now.plusSeconds(600));
+        cache.put(SharedWeatherCache.CURRENT, MANILA, new Clouds(40), now, now.plusSeconds(600));
+        cache.put(SharedWeatherCache.CURRENT, MANILA, new Clouds(90), now, now.plusSeconds(900));
+        cache.put(SharedWeatherCache.CURRENT, CEBU, new Clouds(5), now, now.plusSeconds(600));
+        cache.flush();
+
+        assertEquals(2, repository.count());
+        SharedWeatherCache.Hit<Clouds> hit = cache.get(SharedWeatherCache.CURRENT, MANILA, Clouds.class, now);
+        assertEquals(new Clouds(90), hit.value());
+        assertEquals(now.plusSeconds(900), hit.expiresAt());
+    }
+
+    @Test
+    void writesBeyondMaxPendingAreDroppedButQueuedCellsStillUpdate() {
+        SharedWeatherCache cache = new SharedWeatherCache(repository, new ObjectMapper(), true, 50, 1,
+                Runnable::run, new SimpleMeterRegistry());
+
+        cache.put(SharedWeatherCache.CURRENT, MANILA, new Clouds(10), now, now.plusSeconds(600));
+        cache.put(SharedWeatherCache.CURRENT, CEBU, new Clouds(5), now, now.plusSeconds(600));
+        cache.put(SharedWeatherCache.CURRENT, MANILA, new Clouds(30), now, now.plusSeconds(600));
+        cache.flush();
+
+        assertEquals(1, repository.count());
+        assertEquals(new Clouds(30), cache.get(SharedWeatherCache.CURRENT, MANILA, Clouds.class, now).value());
+    }
+
+    @Test
+    void flushUpdatesRowsThatAlreadyExist() {
+        SharedWeatherCache cache = new SharedWeatherCache(repository, new ObjectMapper(), true, 2, 100,
+                Runnable::run, new SimpleMeterRegistry());
+        cache.put(SharedWeatherCache.CURRENT, MANILA, new Clouds(10), now, now.plusSeconds(60));
+        cache.flush();
+
+        cache.put(SharedWeatherCache.CURRENT, MANILA, new Clouds(60), now, now.plusSeconds(600));
+        cache.put(SharedWeatherCache.CURRENT, CEBU, new Clouds(5), now, now.plusSeconds(600));
+        cache.put(SharedWeatherCache.FORECAST, CEBU, new Clouds(7), now, now.plusSeconds(600));
+        cache.flush();
+
+        assertEquals(3, repository.count());
+        SharedWeatherCache.Hit<Clouds> hit = cache.get(SharedWeatherCache.CURRENT, MANILA, Clouds.class, now);
+        assertEquals(new Clouds(60), hit.value());
+        assertEquals(now.plusSeconds(600), hit.expiresAt());
+    }
+
+    @Test
+    void expiredRowsAreNotServedAndArePurged() {
+        SharedWeatherCache cache = cache(Runnable::run);
+        cache.put(SharedWeatherCache.CURRENT, MANILA, new Clouds(10), now.minusSeconds(900), now.minusSeconds(1));
+        cache.put(SharedWeatherCache.CURRENT, CEBU, new Clouds(5), now, now.plusSeconds(600));
+        cache.flush();
+
+        assertNull(cache.get(SharedWeatherCache.CURRENT, MANILA, Clouds.class, now));
+        assertNull(cache.get(SharedWeatherCache.CURRENT, CEBU, Clouds.class, now.plusSeconds(601)),
+                "a value that expires before validAt is a miss");
+
+        cache.purgeExpired();
+
+        List<String> ids = repository.findAll().stream().map(CachedWeather::getId).toList();
+        assertEquals(List.of(SharedWeatherCache.id(SharedWeatherCache.CURRENT, CEBU)), ids);
+    }
+
+    @Test
+    void failedPurgeIsCountedAndDoesNotThrow() {
+        CachedWeatherRepository failing = (CachedWeatherRepository) Proxy.newProxyInstance(
+                CachedWeatherRepository.class.getClassLoader(), new Class<?>[]{CachedWeatherRepository.class},
+                (proxy, method, args) -> {
+                    throw new QueryTimeoutException("database unavailable");
+                });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SharedWeatherCache cache = new SharedWeatherCache(failing, new ObjectMapper(), true, 50, 100, Runnable::run, registry);
+
+        cache.purgeExpired();
+
+        assertEquals(1.0, registry.get("cache.shared.errors").tag("operation", "write").counter().count());
+    }
+
+    @Test
+    void disabledCacheNeverTouchesTheDatabase() {
+        SharedWeatherCache cache = new SharedWeatherCache(repository, new ObjectMapper(), false, 50, 100,
+                task -> {
+                    throw new AssertionError("no lookup expected");
+                }, new SimpleMeterRegistry());
+
+        cache.put(SharedWeatherCache.CURRENT, MANILA, new Clouds(10), now, now.plusSeconds(600));
+        cache.flush();
+
+        assertTrue(repository.findAll().isEmpty());
+        assertNull(cache.getAsync(SharedWeatherCache.CURRENT, MANILA, Clouds.class, now).join());
+    }
+
+    private SharedWeatherCache cache(Executor executor) {
+        return new SharedWeatherCache(repository, new ObjectMapper(), true, 50, 100, executor, new SimpleMeterRegistry());
+    }
+}
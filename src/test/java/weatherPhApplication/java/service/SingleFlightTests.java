@@ -0,0 +1,205 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> flight = new SingleFlight<>("test", registry);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> flight.execute("manila", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "sunny";
+            })));
+        }
+        await(() -> coalesced() == 7);
+        assertTrue(flight.isInFlight("manila"));
+
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("sunny", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1.0, registry.get("singleflight.calls").tag("role", "leader").counter().count());
+    }
+
+    @Test
+    void keyIsReleasedAfterSuccess() {
+        assertEquals("sunny", flight.execute("manila", this::load));
+        assertFalse(flight.isInFlight("manila"));
+
+        assertEquals("sunny", flight.execute("manila", this::load));
+        assertEquals("sunny", flight.executeAsync("manila", () -> CompletableFuture.completedFuture(load())).join());
+        assertEquals(3, loads.get());
+        assertFalse(flight.isInFlight("manila"));
+    }
+
+    @Test
+    void followersShareTheLeadersExceptionAndTheKeyIsReleased() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("upstream down");
+        Future<String> leader = callers.submit(() -> flight.execute("manila", () -> {
+            loads.incrementAndGet();
+            await(release);
+            throw failure;
+        }));
+        await(() -> flight.isInFlight("manila"));
+        Future<String> follower = callers.submit(() -> flight.execute("manila", this::load));
+        await(() -> coalesced() == 1);
+
+        release.countDown();
+
+        assertSame(failure, assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+        assertSame(failure, assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+        assertFalse(flight.isInFlight("manila"));
+        assertEquals("sunny", flight.execute("manila", this::load));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void asyncCallersShareOneLoadAndFailureReleasesTheKey() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.executeAsync("manila", () -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = flight.executeAsync("manila", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        assertTrue(flight.isInFlight("manila"));
+
+        upstream.completeExceptionally(new IllegalStateException("upstream down"));
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(CompletionException.class, first::join).getCause());
+        assertInstanceOf(IllegalStateException.class, assertThrows(CompletionException.class, second::join).getCause());
+        assertEquals(1, loads.get());
+        assertFalse(flight.isInFlight("manila"));
+    }
+
+    @Test
+    void asyncLoaderThatThrowsFailsTheCallAndReleasesTheKey() {
+        CompletableFuture<String> call = flight.executeAsync("manila", () -> {
+            throw new IllegalStateException("no client");
+        });
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(CompletionException.class, call::join).getCause());
+        assertFalse(flight.isInFlight("manila"));
+    }
+
+    @Test
+    void cancellingOneCallersFutureDoesNotCancelTheLoad() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.executeAsync("manila", () -> upstream);
+        CompletableFuture<String> second = flight.executeAsync("manila", () -> upstream);
+
+        first.cancel(true);
+        upstream.complete("sunny");
+
+        assertEquals("sunny", second.join());
+        assertFalse(upstream.isCancelled());
+    }
+
+    @Test
+    void blockingCallerJoinsAnAsyncLoadInFlight() throws Exception {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> async = flight.executeAsync("manila", () -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+        Future<String> blocking = callers.submit(() -> flight.execute("manila", this::load));
+        await(() -> coalesced() == 1);
+
+        upstream.complete("sunny");
+
+        assertEquals("sunny", blocking.get(5, TimeUnit.SECONDS));
+        assertEquals("sunny", async.join());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void asyncCallerJoinsABlockingLoadInFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> blocking = callers.submit(() -> flight.execute("manila", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "sunny";
+        }));
+        await(() -> flight.isInFlight("manila"));
+
+        CompletableFuture<String> async = flight.executeAsync("manila",
+                () -> CompletableFuture.completedFuture(load()));
+        assertFalse(async.isDone());
+        release.countDown();
+
+        assertEquals("sunny", async.get(5, TimeUnit.SECONDS));
+        assertEquals("sunny", blocking.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    private String load() {
+        loads.incrementAndGet();
+        return "sunny";
+    }
+
+    private double coalesced() {
+        return registry.get("singleflight.calls").tag("role", "coalesced").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Not released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import weatherPhApplication.java.config.ResilienceProperties;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamGuardTests {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T00:00:00Z");
+
+    private final ResilienceProperties.Upstream settings =
+            new ResilienceProperties.Upstream(10, 4, 50, Duration.ofSeconds(30), 2, 5);
+
+    @Test
+    void opensAfterFailureRateIsReachedAndRejectsCalls() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UpstreamGuard guard = new UpstreamGuard("test", settings, registry, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        guard.call(() -> "ok");
+        guard.call(() -> "ok");
+        fail(guard);
+        assertEquals(UpstreamGuard.State.CLOSED, guard.state());
+        fail(guard);
+
+        assertEquals(UpstreamGuard.State.OPEN, guard.state());
+        assertThrows(UpstreamRejectedException.class, () -> guard.call(() -> "never called"));
+        assertEquals(1.0, registry.get("upstream.rejected").tag("reason", "circuit_open").counter().count());
+    }
+
+    @Test
+    void closesAgainAfterSuccessfulTrialCalls() {
+        MutableClock clock = new MutableClock(NOW);
+        UpstreamGuard guard = new UpstreamGuard("test", settings, new SimpleMeterRegistry(), clock);
+        for (int i = 0; i < 4; i++) {
+            fail(guard);
+        }
+        assertEquals(UpstreamGuard.State.OPEN, guard.state());
+
+        clock.now = NOW.plusSeconds(30);
+        assertEquals(UpstreamGuard.State.HALF_OPEN, guard.state());
+        guard.call(() -> "ok");
+        guard.call(() -> "ok");
+
+        assertEquals(UpstreamGuard.State.CLOSED, guard.state());
+    }
+
+    @Test
+    void clientErrorsNeverOpenTheCircuit() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UpstreamGuard guard = new UpstreamGuard("test", settings, registry, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        for (int i = 0; i < 20; i++) {
+            assertThrows(HttpClientErrorException.class, () -> guard.call(() -> {
+                throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+            }));
+            CompletableFuture<String> call = guard.callAsync(() -> CompletableFuture.failedFuture(new HttpClientErrorException(HttpStatus.NOT_FOUND)));
+            assertThrows(Exception.class, call::join);
+        }
+
+        assertEquals(UpstreamGuard.State.CLOSED, guard.state());
+        assertEquals(0.0, registry.get("upstream.calls").tag("outcome", "failure").counter().count());
+    }
+
+    @Test
+    void throttlingAndServerErrorsCountAsFailures() {
+        UpstreamGuard guard = new UpstreamGuard("test", settings, new SimpleMeterRegistry(), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(HttpClientErrorException.class, () -> guard.call(() -> {
+                throw new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS);
+            }));
+            CompletableFuture<String> call = guard.callAsync(() -> CompletableFuture.failedFuture(new HttpServerErrorException(HttpStatus.BAD_GATEWAY)));
+            assertThrows(Exception.class, call::join);
+        }
+
+        assertEquals(UpstreamGuard.State.OPEN, guard.state());
+    }
+
+    private static void fail(UpstreamGuard guard) {
+        assertThrows(IllegalStateException.class, () -> guard.call(() -> {
+            throw new IllegalStateException("upstream down");
+        }));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamMetricsTests {
+
+    @Test
+    void callsAreTimedByOutcome() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UpstreamMetrics metrics = new UpstreamMetrics(registry);
+
+        assertEquals("ok", metrics.time("openweather", "weather", () -> "ok"));
+        assertThrows(IllegalStateException.class, () -> metrics.time("openweather", "weather", () -> {
+            throw new IllegalStateException("down");
+        }));
+
+        assertEquals(1, registry.get("upstream.requests").tags("operation", "weather", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("upstream.requests").tags("operation", "weather", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void asyncCallsAreTimedWhenTheyComplete() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UpstreamMetrics metrics = new UpstreamMetrics(registry);
+        CompletableFuture<String> response = new CompletableFuture<>();
+
+        CompletableFuture<String> timed = metrics.timeAsync("openweather", "forecast", () -> response);
+        assertEquals(0, registry.find("upstream.requests").timers().size());
+
+        response.completeExceptionally(new IllegalStateException("down"));
+        assertThrows(Exception.class, timed::join);
+        assertEquals(1, registry.get("upstream.requests").tags("operation", "forecast", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void responseSizesAreRecordedInBytes() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UpstreamMetrics metrics = new UpstreamMetrics(registry);
+
+        metrics.recordResponseSize("brevo", "send", 120);
+        metrics.recordResponseSize("brevo", "send", 80);
+
+        assertEquals(200, registry.get("upstream.response.size").tag("upstream", "brevo").summary().totalAmount());
+    }
+}
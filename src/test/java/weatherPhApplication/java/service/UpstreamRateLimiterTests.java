@@ -0,0 +1,121 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.test.util.ReflectionTestUtils;
+import weatherPhApplication.java.model.UpstreamQuotaWindow;
+import weatherPhApplication.java.repository.UpstreamQuotaWindowRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamRateLimiterTests {
+
+    @Test
+    void lowerPrioritiesLeaveTheLastTokensForRoutes() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Three tokens, refilling far too slowly to matter during the test
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(true, 1, 3, 1, 2,
+                Duration.ZERO, Duration.ZERO, false, 10, registry);
+
+        assertDoesNotThrow(() -> acquire(limiter, UpstreamPriority.BACKGROUND));
+        assertThrows(UpstreamRejectedException.class, () -> acquire(limiter, UpstreamPriority.BACKGROUND));
+        assertDoesNotThrow(() -> acquire(limiter, UpstreamPriority.API));
+        assertThrows(UpstreamRejectedException.class, () -> acquire(limiter, UpstreamPriority.API));
+        assertDoesNotThrow(() -> acquire(limiter, UpstreamPriority.ROUTE));
+
+        assertEquals(1.0, registry.get("upstream.ratelimit.rejected").tag("priority", "background").counter().count());
+        assertEquals(1.0, registry.get("upstream.ratelimit.rejected").tag("priority", "api").counter().count());
+        assertEquals(1.0, registry.get("upstream.ratelimit.acquired").tag("priority", "route").counter().count());
+    }
+
+    @Test
+    void asyncCallersAreRejectedWithoutWaitingPastTheirDeadline() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(true, 1, 1, 0, 0,
+                Duration.ZERO, Duration.ZERO, false, 10, new SimpleMeterRegistry());
+
+        assertDoesNotThrow(() -> limiter.acquireAsync().join());
+        assertThrows(Exception.class, () -> limiter.acquireAsync().join());
+    }
+
+    @Test
+    void clusterLeaseDoesNotHoldUpOtherCallers() throws Exception {
+        awayFromMinuteBoundary();
+        CountDownLatch leaseStarted = new CountDownLatch(1);
+        CountDownLatch releaseLease = new CountDownLatch(1);
+        AtomicInteger leases = new AtomicInteger();
+        Map<String, UpstreamQuotaWindow> windows = new ConcurrentHashMap<>();
+        UpstreamQuotaWindowRepository repository = (UpstreamQuotaWindowRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {UpstreamQuotaWindowRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> {
+                        leases.incrementAndGet();
+                        leaseStarted.countDown();
+                        releaseLease.await();
+                        yield Optional.ofNullable(windows.get((String) args[0]));
+                    }
+                    case "saveAndFlush" -> {
+                        UpstreamQuotaWindow window = (UpstreamQuotaWindow) args[0];
+                        windows.put(window.getId(), window);
+                        yield window;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(true, 55, 10, 0, 0,
+                Duration.ofSeconds(5), Duration.ZERO, true, 10, registry);
+        ReflectionTestUtils.setField(limiter, "quotaWindowRepository", repository);
+
+        CompletableFuture<Void> leasing = CompletableFuture.runAsync(() -> acquire(limiter, UpstreamPriority.ROUTE));
+        assertTrue(leaseStarted.await(5, TimeUnit.SECONDS));
+
+        // While the lease is in the database, others neither block on the lock nor lease again
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            assertThrows(UpstreamRejectedException.class, () -> acquire(limiter, UpstreamPriority.BACKGROUND));
+            assertEquals(0.0, registry.get("upstream.ratelimit.tokens").gauge().value());
+        });
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> acquire(limiter, UpstreamPriority.API));
+        Thread.sleep(50);
+        assertEquals(1, leases.get());
+        assertFalse(waiting.isDone());
+
+        releaseLease.countDown();
+        leasing.get(5, TimeUnit.SECONDS);
+        waiting.get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 8; i++) {
+            acquire(limiter, UpstreamPriority.ROUTE);
+        }
+        assertEquals(1, leases.get());
+        assertEquals(10, windows.values().iterator().next().getUsed());
+    }
+
+    /** Leased tokens are dropped when the minute turns, so keep the test inside one. */
+    private static void awayFromMinuteBoundary() throws InterruptedException {
+        while (Instant.now().getEpochSecond() % 60 > 50) {
+            Thread.sleep(500);
+        }
+    }
+
+    private static void acquire(UpstreamRateLimiter limiter, UpstreamPriority priority) {
+        priority.call(() -> {
+            limiter.acquire();
+            return null;
+        });
+    }
+}
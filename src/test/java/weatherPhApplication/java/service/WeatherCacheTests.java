@@ -0,0 +1,115 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class WeatherCacheTests {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T00:00:00Z");
+
+    @Test
+    void nearbyCoordinatesShareACell() {
+        assertEquals(GeoCell.of(14.5995, 120.9842, 0.01), GeoCell.of(14.6021, 120.9811, 0.01));
+    }
+
+    @Test
+    void expiredEntriesAreMisses() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WeatherCache<String> cache = new WeatherCache<>("test", 10, registry, Clock.fixed(NOW, ZoneOffset.UTC));
+        GeoCell fresh = GeoCell.of(14.60, 120.98, 0.01);
+        GeoCell expired = GeoCell.of(10.31, 123.89, 0.01);
+
+        cache.put(fresh, "manila", NOW.plusSeconds(60));
+        cache.put(expired, "cebu", NOW.minusSeconds(1));
+
+        assertEquals("manila", cache.get(fresh));
+        assertNull(cache.get(expired));
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").counter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void leastRecentlyUsedCellIsEvicted() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WeatherCache<String> cache = new WeatherCache<>("test", 2, registry, Clock.fixed(NOW, ZoneOffset.UTC));
+        GeoCell a = GeoCell.of(14.60, 120.98, 0.01);
+        GeoCell b = GeoCell.of(10.31, 123.89, 0.01);
+        GeoCell c = GeoCell.of(7.07, 125.61, 0.01);
+
+        cache.put(a, "a", NOW.plusSeconds(60));
+        cache.put(b, "b", NOW.plusSeconds(60));
+        cache.get(a);
+        cache.put(c, "c", NOW.plusSeconds(60));
+
+        assertEquals("a", cache.get(a));
+        assertNull(cache.get(b));
+        assertEquals(1.0, registry.get("cache.evictions").counter().count());
+    }
+
+    @Test
+    void expiredEntriesAreServedStaleWithinTheWindow() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WeatherCache<String> cache = new WeatherCache<>("test", 10, Duration.ofMinutes(30), registry, Clock.fixed(NOW, ZoneOffset.UTC));
+        GeoCell stale = GeoCell.of(14.60, 120.98, 0.01);
+        GeoCell gone = GeoCell.of(10.31, 123.89, 0.01);
+
+        cache.put(stale, "manila", NOW.minusSeconds(60));
+        cache.put(gone, "cebu", NOW.minus(Duration.ofMinutes(31)));
+
+        assertNull(cache.get(stale));
+        WeatherCache.Entry<String> entry = cache.lookup(stale);
+        assertEquals("manila", entry.value());
+        assertFalse(entry.isFresh(NOW));
+        assertNull(cache.lookup(gone));
+        assertEquals(1.0, registry.get("cache.served").tag("freshness", "stale").counter().count());
+    }
+
+    @Test
+    void onlyPopularEntriesNearExpiryAreRefreshCandidates() {
+        WeatherCache<String> cache = new WeatherCache<>("test", 10, Duration.ofMinutes(30), new SimpleMeterRegistry(), Clock.fixed(NOW, ZoneOffset.UTC));
+        GeoCell popular = GeoCell.of(14.60, 120.98, 0.01);
+        GeoCell unpopular = GeoCell.of(10.31, 123.89, 0.01);
+        GeoCell farFromExpiry = GeoCell.of(7.07, 125.61, 0.01);
+
+        cache.put(popular, "manila", NOW.plusSeconds(60));
+        cache.put(unpopular, "cebu", NOW.plusSeconds(60));
+        cache.put(farFromExpiry, "davao", NOW.plus(Duration.ofHours(1)));
+        cache.lookup(popular);
+        cache.lookup(popular);
+        cache.lookup(unpopular);
+        cache.lookup(farFromExpiry);
+        cache.lookup(farFromExpiry);
+
+        assertEquals(List.of(popular), cache.refreshCandidates(Duration.ofMinutes(5), 2));
+    }
+
+    @Test
+    void entityTagIsComputedOncePerEntry() {
+        WeatherCache<String> cache = new WeatherCache<>("test", 10, new SimpleMeterRegistry(), Clock.fixed(NOW, ZoneOffset.UTC));
+        GeoCell cell = GeoCell.of(14.60, 120.98, 0.01);
+        AtomicInteger computed = new AtomicInteger();
+
+        cache.put(cell, "manila", NOW.plusSeconds(60));
+        WeatherCache.Entry<String> entry = cache.peek(cell);
+
+        assertEquals("\"manila\"", entry.etag(value -> {
+            computed.incrementAndGet();
+            return "\"" + value + "\"";
+        }));
+        assertEquals("\"manila\"", entry.etag(value -> "\"other\""));
+        assertEquals(1, computed.get());
+        assertSame(entry, cache.lookup(cell));
+    }
+}
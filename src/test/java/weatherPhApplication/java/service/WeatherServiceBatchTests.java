@@ -0,0 +1,137 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.MainReadings;
+import weatherPhApplication.java.model.WeatherCondition;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeatherServiceBatchTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<String, AtomicInteger> fetches = new ConcurrentHashMap<>();
+    private final WeatherCache<CurrentWeather> currentWeatherCache = new WeatherCache<>("weather.current", 100, registry);
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private final WeatherService service = new WeatherService(registry) {
+        @Override
+        public CurrentWeather getWeather(double lat, double lon) {
+            // Something other than the upstream call failing, e.g. a cache listener
+            if (lat > 5 && lat < 6) {
+                throw new IllegalStateException("listener failed");
+            }
+            return super.getWeather(lat, lon);
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        executor.setCorePoolSize(4);
+        executor.initialize();
+        OpenWeatherClient client = new OpenWeatherClient(null, null, null, null, null, null) {
+            @Override
+            public CurrentWeather currentWeather(double lat, double lon) {
+                // Lookups go upstream with the cell centre
+                String key = String.format("%.2f,%.2f", lat, lon);
+                fetches.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+                if (lat < 0) {
+                    throw new IllegalStateException("upstream down");
+                }
+                return observation(key);
+            }
+        };
+        ReflectionTestUtils.setField(service, "cellSizeDegrees", 0.01);
+        ReflectionTestUtils.setField(service, "currentMaxAgeSeconds", 600L);
+        ReflectionTestUtils.setField(service, "currentMinTtlSeconds", 60L);
+        ReflectionTestUtils.setField(service, "currentWeatherCache", currentWeatherCache);
+        ReflectionTestUtils.setField(service, "sharedCache", new SharedWeatherCache(null, new ObjectMapper(), false,
+                50, 100, Runnable::run, registry));
+        ReflectionTestUtils.setField(service, "openWeatherClient", client);
+        ReflectionTestUtils.setField(service, "upstreamExecutor", executor);
+        ReflectionTestUtils.setField(service, "eventPublisher", (ApplicationEventPublisher) event -> {});
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void resultsFollowTheRequestOrderAndEachCellIsFetchedOnce() {
+        List<GeoPoint> points = List.of(
+                new GeoPoint(14.601, 121.001),
+                new GeoPoint(10.315, 123.885),
+                new GeoPoint(14.602, 121.002),
+                new GeoPoint(7.071, 125.612),
+                new GeoPoint(10.316, 123.886));
+
+        List<CurrentWeather> results = service.getWeatherBatch(points, 2).join();
+
+        assertEquals(List.of("14.60,121.00", "10.32,123.89", "14.60,121.00", "7.07,125.61", "10.32,123.89"),
+                results.stream().map(CurrentWeather::name).toList());
+        assertEquals(3, fetches.size());
+        assertTrue(fetches.values().stream().allMatch(count -> count.get() == 1), fetches.toString());
+    }
+
+    @Test
+    void cachedCellsAreNotFetchedAgain() {
+        service.getWeatherBatch(List.of(new GeoPoint(14.601, 121.001)), 2).join();
+
+        List<CurrentWeather> results = service.getWeatherBatch(
+                List.of(new GeoPoint(14.604, 121.004), new GeoPoint(10.315, 123.885)), 2).join();
+
+        assertEquals(List.of("14.60,121.00", "10.32,123.89"), results.stream().map(CurrentWeather::name).toList());
+        assertEquals(1, fetches.get("14.60,121.00").get());
+    }
+
+    @Test
+    void aFailedPointDoesNotFailTheBatch() {
+        List<CurrentWeather> results = service.getWeatherBatch(
+                List.of(new GeoPoint(-6.2, 106.8), new GeoPoint(14.601, 121.001)), 2).join();
+
+        assertTrue(results.get(0).hasError());
+        assertEquals("14.60,121.00", results.get(1).name());
+    }
+
+    @Test
+    void aPointThatThrowsDoesNotStrandTheRestOfItsLane() {
+        List<CompletableFuture<CurrentWeather>> results = service.getWeatherForPoints(List.of(
+                new GeoPoint(14.601, 121.001),
+                new GeoPoint(5.5, 125.6),
+                new GeoPoint(10.315, 123.885)), 1, UpstreamPriority.API);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .handle((done, error) -> null).join());
+        assertEquals("14.60,121.00", results.get(0).join().name());
+        assertTrue(results.get(1).isCompletedExceptionally());
+        assertEquals("10.32,123.89", results.get(2).join().name());
+
+        List<CurrentWeather> batch = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> service.getWeatherBatch(List.of(
+                new GeoPoint(5.6, 125.5), new GeoPoint(16.41, 120.59)), 1).join());
+        assertTrue(batch.get(0).hasError());
+        assertEquals("16.41,120.59", batch.get(1).name());
+    }
+
+    private static CurrentWeather observation(String name) {
+        return new CurrentWeather(List.of(new WeatherCondition(800, "Clear", "clear sky", "01d")),
+                new MainReadings(30.0, 33.0, 29.0, 31.0, 1010, 70), null, null, null, null, 28800,
+                Instant.now().getEpochSecond(), name, null);
+    }
+}
@@ -0,0 +1,63 @@
+package weatherPhApplication.java.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import weatherPhApplication.java.model.GeocodingResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WeatherServiceGeocodingTests {
+
+    private static final GeocodingResult BACOLOR = new GeocodingResult("Bacolor", "Pampanga", "PH", 14.9985, 120.6526);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GeocodingIndex index = new GeocodingIndex(new DefaultResourceLoader(), "classpath:geo/ph-places.tsv", registry);
+    private final List<String> remoteLookups = new ArrayList<>();
+    private final WeatherService service = new WeatherService(registry);
+
+    @BeforeEach
+    void setUp() {
+        Map<String, GeocodingResult> remote = Map.of("Bacolor", BACOLOR);
+        OpenWeatherClient client = new OpenWeatherClient(null, null, null, null, null, null) {
+            @Override
+            public List<GeocodingResult> geocode(String location) {
+                remoteLookups.add(location);
+                GeocodingResult place = remote.get(location);
+                return place == null ? List.of() : List.of(place);
+            }
+        };
+        ReflectionTestUtils.setField(service, "geocodingIndex", index);
+        ReflectionTestUtils.setField(service, "openWeatherClient", client);
+    }
+
+    @Test
+    void indexedNamesDoNotGoUpstream() {
+        assertEquals("Bacolod", service.geocode("Bacolod City").name());
+        assertEquals(List.of(), remoteLookups);
+    }
+
+    @Test
+    void nearMissOfAnIndexedNameGoesUpstreamAndIsLearned() {
+        assertEquals(BACOLOR, service.geocode("Bacolor"));
+        assertEquals(BACOLOR, service.geocode("Bacolor"));
+
+        assertEquals(List.of("Bacolor"), remoteLookups);
+        assertEquals("Bacolod", service.geocode("Bacolod").name());
+    }
+
+    @Test
+    void typoIsCorrectedOnlyWhenTheRemoteGeocoderMissesToo() {
+        assertEquals("Cagayan de Oro", service.geocode("Cagayan de Orro").name());
+        assertEquals(List.of("Cagayan de Orro"), remoteLookups);
+
+        assertNull(service.geocode("Atlantis"));
+    }
+}
@@ -0,0 +1,108 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.MainReadings;
+import weatherPhApplication.java.model.WeatherCondition;
+import weatherPhApplication.java.repository.CachedWeatherRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WeatherServiceNonBlockingTests {
+
+    private static final double LAT = 14.601;
+    private static final double LON = 121.001;
+
+    @Autowired
+    private CachedWeatherRepository repository;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final WeatherService service = new WeatherService(registry);
+    private volatile Supplier<CompletableFuture<CurrentWeather>> upstream;
+    private SharedWeatherCache sharedCache;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        sharedCache = new SharedWeatherCache(repository, new ObjectMapper(), true, 50, 100, Runnable::run, registry);
+        OpenWeatherClient client = new OpenWeatherClient(null, null, null, null, null, null) {
+            @Override
+            public CompletableFuture<CurrentWeather> currentWeatherAsync(double lat, double lon) {
+                upstreamCalls.incrementAndGet();
+                return upstream.get();
+            }
+        };
+        ReflectionTestUtils.setField(service, "cellSizeDegrees", 0.01);
+        ReflectionTestUtils.setField(service, "currentMaxAgeSeconds", 600L);
+        ReflectionTestUtils.setField(service, "currentMinTtlSeconds", 60L);
+        ReflectionTestUtils.setField(service, "currentWeatherCache", new WeatherCache<CurrentWeather>("weather.current", 100, registry));
+        ReflectionTestUtils.setField(service, "sharedCache", sharedCache);
+        ReflectionTestUtils.setField(service, "openWeatherClient", client);
+        ReflectionTestUtils.setField(service, "eventPublisher", (ApplicationEventPublisher) event -> {});
+    }
+
+    @Test
+    void sharedCacheHitIsServedWithoutGoingUpstream() {
+        GeoCell cell = GeoCell.of(LAT, LON, 0.01);
+        Instant now = Instant.now();
+        sharedCache.put(SharedWeatherCache.CURRENT, cell, observation("From another instance"), now, now.plusSeconds(600));
+        sharedCache.flush();
+
+        CurrentWeather weather = service.getWeatherNonBlocking(LAT, LON).join();
+
+        assertEquals("From another instance", weather.name());
+        assertEquals(0, upstreamCalls.get());
+        assertNotNull(service.cachedWeather(LAT, LON), "the hit is kept in this instance's cache");
+    }
+
+    @Test
+    void missGoesUpstreamOnceAndIsStoredInBothTiers() {
+        upstream = () -> CompletableFuture.completedFuture(observation("Manila"));
+
+        assertEquals("Manila", service.getWeatherNonBlocking(LAT, LON).join().name());
+        assertEquals("Manila", service.getWeatherNonBlocking(LAT + 0.001, LON).join().name());
+        sharedCache.flush();
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void upstreamErrorCompletesWithAnErrorEntry() {
+        upstream = () -> CompletableFuture.failedFuture(new IllegalStateException("upstream down"));
+
+        CurrentWeather weather = service.getWeatherNonBlocking(LAT, LON).join();
+
+        assertTrue(weather.hasError());
+        assertNull(service.cachedWeather(LAT, LON));
+        sharedCache.flush();
+        assertEquals(0, repository.count());
+    }
+
+    private static CurrentWeather observation(String name) {
+        return new CurrentWeather(List.of(new WeatherCondition(800, "Clear", "clear sky", "01d")),
+                new MainReadings(30.0, 33.0, 29.0, 31.0, 1010, 70), null, null, null, null, 28800,
+                Instant.now().getEpochSecond(), name, null);
+    }
+}
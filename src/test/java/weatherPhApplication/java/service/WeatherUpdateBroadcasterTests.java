@@ -0,0 +1,193 @@
+package weatherPhApplication.java.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import weatherPhApplication.java.model.CurrentWeather;
+import weatherPhApplication.java.model.MainReadings;
+import weatherPhApplication.java.model.WeatherCondition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeatherUpdateBroadcasterTests {
+
+    private static final CurrentWeather MANILA = new CurrentWeather(
+            List.of(new WeatherCondition(500, "Rain", "light rain", "10d")),
+            new MainReadings(29.5, 33.1, 29.0, 30.0, 1008, 78),
+            null, null, null, null, 28800, 1748707200L, "Manila", null);
+
+    private final ThreadPoolTaskExecutor streamExecutor = new ThreadPoolTaskExecutor();
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void shutDown() {
+        streamExecutor.shutdown();
+    }
+
+    @Test
+    void updatesReachEverySubscriberOfTheCell() throws Exception {
+        WeatherUpdateBroadcaster broadcaster = broadcaster(100, 10);
+        broadcaster.subscribe("a", 14.5995, 120.9842);
+        broadcaster.subscribe("b", 14.6001, 120.9839);
+        broadcaster.subscribe("c", 10.3157, 123.8854);
+
+        broadcaster.onRefresh(new CurrentWeatherRefreshedEvent(GeoCell.of(14.5995, 120.9842, 0.01), MANILA));
+
+        // Each got the initial weather; only the two in the refreshed cell got the update
+        await(() -> emitters.get(0).sent.size() == 2 && emitters.get(1).sent.size() == 2);
+        assertEquals(2, emitters.get(1).sent.size());
+        assertEquals(1, emitters.get(2).sent.size());
+    }
+
+    @Test
+    void completedStreamsAreUnsubscribedOnce() {
+        WeatherUpdateBroadcaster broadcaster = broadcaster(100, 10);
+        broadcaster.subscribe("a", 14.5995, 120.9842);
+        broadcaster.subscribe("a", 14.5995, 120.9842);
+
+        RecordingEmitter first = emitters.get(0);
+        first.completion.run();
+        first.timeout.run();
+
+        assertEquals(1, broadcaster.subscriberCount());
+        broadcaster.onRefresh(new CurrentWeatherRefreshedEvent(GeoCell.of(14.5995, 120.9842, 0.01), MANILA));
+        await(() -> emitters.get(1).sent.size() == 2);
+        assertEquals(1, first.sent.size());
+    }
+
+    @Test
+    void limitsStreamsPerClientAndPerNode() {
+        WeatherUpdateBroadcaster broadcaster = broadcaster(3, 2);
+
+        assertTrue(broadcaster.subscribe("a", 1, 1).accepted());
+        assertTrue(broadcaster.subscribe("a", 1, 1).accepted());
+        assertEquals(WeatherUpdateBroadcaster.Refusal.CLIENT_LIMIT, broadcaster.subscribe("a", 1, 1).refusal());
+        assertTrue(broadcaster.subscribe("b", 1, 1).accepted());
+        assertEquals(WeatherUpdateBroadcaster.Refusal.NODE_FULL, broadcaster.subscribe("c", 1, 1).refusal());
+
+        // Closing a stream gives the client its slot back
+        emitters.get(0).completion.run();
+        assertTrue(broadcaster.subscribe("a", 1, 1).accepted());
+    }
+
+    @Test
+    void concurrentSubscribeAndUnsubscribeNeverOrphanAStream() throws Exception {
+        WeatherUpdateBroadcaster broadcaster = broadcaster(100_000, 100_000);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> work = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                work.add(threads.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        SseEmitter emitter = broadcaster.subscribe("client-" + thread, 14.5995, 120.9842).emitter();
+                        // Keep every other stream open; close the rest straight away
+                        if (i % 2 == 0) {
+                            ((RecordingEmitter) emitter).completion.run();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : work) {
+                future.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(8000, broadcaster.subscriberCount());
+        broadcaster.onRefresh(new CurrentWeatherRefreshedEvent(GeoCell.of(14.5995, 120.9842, 0.01), MANILA));
+        await(() -> emitters.stream().filter(emitter -> emitter.sent.size() == 2).count() == 8000);
+        assertEquals(8000, emitters.stream().filter(emitter -> emitter.sent.size() == 2).count());
+    }
+
+    @Test
+    void heartbeatWritesOnTheStreamPool() {
+        WeatherUpdateBroadcaster broadcaster = broadcaster(100, 10);
+        broadcaster.subscribe("a", 1, 1);
+        broadcaster.subscribe("b", 2, 2);
+
+        broadcaster.heartbeat();
+
+        await(() -> emitters.stream().allMatch(emitter -> emitter.sent.size() == 2));
+        for (RecordingEmitter emitter : emitters) {
+            // The first send is the initial weather; the ping is written by the stream pool
+            assertTrue(emitter.senders.get(1).startsWith("stream-"));
+        }
+    }
+
+    private WeatherUpdateBroadcaster broadcaster(int maxSubscribers, int maxPerClient) {
+        streamExecutor.setCorePoolSize(2);
+        streamExecutor.setMaxPoolSize(2);
+        streamExecutor.setThreadNamePrefix("stream-");
+        streamExecutor.initialize();
+        WeatherService weatherService = new WeatherService(new SimpleMeterRegistry()) {
+            @Override
+            public CompletableFuture<CurrentWeather> getWeatherNonBlocking(double lat, double lon) {
+                return CompletableFuture.completedFuture(MANILA);
+            }
+        };
+        return new WeatherUpdateBroadcaster(0.01, Duration.ofMinutes(30), maxSubscribers, maxPerClient,
+                weatherService, new ObjectMapper(), streamExecutor, new SimpleMeterRegistry()) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5s");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Records what is sent and the callbacks registered, instead of writing to a response. */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<Set<ResponseBodyEmitter.DataWithMediaType>> sent = new CopyOnWriteArrayList<>();
+        private final List<String> senders = new CopyOnWriteArrayList<>();
+        private Runnable completion;
+        private Runnable timeout;
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            sent.add(items);
+            senders.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            this.completion = callback;
+        }
+
+        @Override
+        public synchronized void onTimeout(Runnable callback) {
+            this.timeout = callback;
+        }
+    }
+}